@@ -0,0 +1,303 @@
+package com.coderalexis.CodigoPostalApi.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Generates a deterministic, CPdescarga.txt-shaped catalog for benchmarks.
+ *
+ * The file mimics the SEPOMEX export: ISO-8859-1 encoding, CRLF line endings,
+ * one metadata line, one header line and 15 pipe-separated columns per settlement.
+ * Sizes follow the real catalog (~32K zip codes, ~2,400 municipalities and
+ * ~145K settlements), and well-known values used by the test suite ("01000",
+ * "Álvaro Obregón", "Guadalajara", ...) are always present.
+ *
+ * Uso directo: java -cp ... SyntheticCatalog /ruta/CPdescarga.txt
+ */
+public final class SyntheticCatalog {
+
+    private static final long SEED = 20_240_101L;
+    private static final int ZIP_CODES_PER_PREFIX = 335;
+    private static final int MUNICIPALITIES_PER_PREFIX = 25;
+    private static final int MAX_SETTLEMENTS_PER_ZIP = 40;
+
+    private static final String METADATA_LINE = "El Catálogo Nacional de Códigos Postales, es elaborado por Correos de México"
+            + " y se proporciona en forma gratuita para uso particular, no estando permitida su comercialización,"
+            + " total o parcial, ni su distribución a terceros bajo ningún concepto.";
+    private static final String HEADER_LINE = "d_codigo|d_asenta|d_tipo_asenta|D_mnpio|d_estado|d_ciudad|d_CP|c_estado"
+            + "|c_oficina|c_CP|c_tipo_asenta|c_mnpio|id_asenta_cpcons|d_zona|c_cve_ciudad";
+
+    // Federal entities with the two-digit zip prefixes assigned by SEPOMEX
+    private static final Object[][] FEDERAL_ENTITIES = {
+            {"Ciudad de México", new int[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16}},
+            {"Aguascalientes", new int[]{20}},
+            {"Baja California", new int[]{21, 22}},
+            {"Baja California Sur", new int[]{23}},
+            {"Campeche", new int[]{24}},
+            {"Coahuila de Zaragoza", new int[]{25, 26, 27}},
+            {"Colima", new int[]{28}},
+            {"Chiapas", new int[]{29, 30}},
+            {"Chihuahua", new int[]{31, 32, 33}},
+            {"Durango", new int[]{34, 35}},
+            {"Guanajuato", new int[]{36, 37, 38}},
+            {"Guerrero", new int[]{39, 40, 41}},
+            {"Hidalgo", new int[]{42, 43}},
+            {"Jalisco", new int[]{44, 45, 46, 47, 48, 49}},
+            {"México", new int[]{50, 51, 52, 53, 54, 55, 56, 57}},
+            {"Michoacán de Ocampo", new int[]{58, 59, 60, 61}},
+            {"Morelos", new int[]{62}},
+            {"Nayarit", new int[]{63}},
+            {"Nuevo León", new int[]{64, 65, 66, 67}},
+            {"Oaxaca", new int[]{68, 69, 70, 71}},
+            {"Puebla", new int[]{72, 73, 74, 75}},
+            {"Querétaro", new int[]{76}},
+            {"Quintana Roo", new int[]{77}},
+            {"San Luis Potosí", new int[]{78, 79}},
+            {"Sinaloa", new int[]{80, 81, 82}},
+            {"Sonora", new int[]{83, 84, 85}},
+            {"Tabasco", new int[]{86}},
+            {"Tamaulipas", new int[]{87, 88, 89}},
+            {"Tlaxcala", new int[]{90}},
+            {"Veracruz de Ignacio de la Llave", new int[]{91, 92, 93, 94, 95, 96}},
+            {"Yucatán", new int[]{97}},
+            {"Zacatecas", new int[]{98, 99}}
+    };
+
+    // Real municipality names placed first in their entity so common searches always hit
+    private static final String[] CDMX_MUNICIPALITIES = {
+            "Álvaro Obregón", "Azcapotzalco", "Benito Juárez", "Coyoacán", "Cuajimalpa de Morelos",
+            "Cuauhtémoc", "Gustavo A. Madero", "Iztacalco", "Iztapalapa", "La Magdalena Contreras",
+            "Miguel Hidalgo", "Milpa Alta", "Tláhuac", "Tlalpan", "Venustiano Carranza", "Xochimilco"
+    };
+    private static final String[][] WELL_KNOWN_MUNICIPALITIES = {
+            {"Jalisco", "Guadalajara", "Zapopan", "San Pedro Tlaquepaque", "Tonalá"},
+            {"Nuevo León", "Monterrey", "San Nicolás de los Garza", "Guadalupe"},
+            {"Oaxaca", "Heroica Ciudad de Juchitán de Zaragoza", "Oaxaca de Juárez"},
+            {"México", "Nezahualcóyotl", "Ecatepec de Morelos", "Toluca"}
+    };
+
+    private static final String[] MUNICIPALITY_FIRST = {
+            "San Juan", "San Pedro", "Santa María", "San Miguel", "Santiago", "San Francisco", "Santa Cruz",
+            "San Andrés", "Villa de", "San Martín", "Santo Domingo", "San José", "Ciudad", "Heroica", "General"
+    };
+    private static final String[] MUNICIPALITY_SECOND = {
+            "Tepetlán", "Ixtlahuaca", "Tlacotalpan", "Acatzingo", "Zacualpan", "Cuautla", "Tecámac", "Atoyac",
+            "Chalchihuites", "Tlapacoyan", "Ocotlán", "Huejutla", "Comalcalco", "Tecolutla", "Amatitán",
+            "Jalpan", "Xalapa", "Tenango", "Coatepec", "Zapotitlán", "Ayutla", "Tlalnepantla", "Ahuacatlán"
+    };
+
+    private static final String[] SETTLEMENT_FIRST = {
+            "San", "Santa", "Lomas de", "Jardines de", "Villas de", "Residencial", "Real de", "Los", "Las",
+            "El", "La", "Ampliación", "Ejido", "Rancho", "Barrio de", "Colinas de", "Valle de", "Hacienda",
+            "Paseos de", "Arboledas de", "Campestre", "Privada", "Infonavit", "Nuevo", "Vista"
+    };
+    private static final String[] SETTLEMENT_SECOND = {
+            "Ángel", "Andrés", "Rosario", "Jerónimo", "Pedregal", "Alameda", "Fuentes", "Pinos", "Nogales",
+            "Álamos", "Encinos", "Olivos", "Tulipanes", "Reforma", "Juárez", "Hidalgo", "Morelos", "Guadalupe",
+            "Cerro", "Bosque", "Cañada", "Mirador", "Sauces", "Jazmines", "Magnolias", "Palmas", "Cumbres",
+            "Sol", "Luna", "Aurora", "Esperanza", "Libertad", "Progreso", "Independencia", "Revolución"
+    };
+
+    // Settlement type and zone distributions approximating the real catalog
+    private static final String[] SETTLEMENT_TYPES = {
+            "Colonia", "Colonia", "Colonia", "Colonia", "Colonia", "Colonia", "Colonia", "Colonia",
+            "Colonia", "Colonia", "Colonia", "Colonia", "Fraccionamiento", "Fraccionamiento",
+            "Ranchería", "Pueblo", "Barrio", "Ejido", "Unidad habitacional", "Condominio",
+            "Conjunto habitacional", "Equipamiento", "Zona industrial"
+    };
+    private static final String[] ZONE_TYPES = {
+            "Urbano", "Urbano", "Urbano", "Urbano", "Urbano", "Urbano", "Urbano",
+            "Rural", "Rural", "Semiurbano"
+    };
+
+    private final List<String> zipCodes = new ArrayList<>();
+    private final List<String> federalEntities = new ArrayList<>();
+    private final List<String> municipalities = new ArrayList<>();
+    private final List<String> settlements = new ArrayList<>();
+    private int settlementRows;
+
+    private SyntheticCatalog() {
+    }
+
+    /**
+     * Generates the catalog and writes it to {@code target}.
+     */
+    public static SyntheticCatalog write(Path target) throws IOException {
+        SyntheticCatalog catalog = new SyntheticCatalog();
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.ISO_8859_1)) {
+            catalog.generate(writer);
+        }
+        return catalog;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path target = Path.of(args.length > 0 ? args[0] : "CPdescarga.txt");
+        SyntheticCatalog catalog = write(target);
+        System.out.printf("Catalogo sintetico escrito en %s: %d codigos postales, %d asentamientos%n",
+                target.toAbsolutePath(), catalog.zipCodes.size(), catalog.settlementRows);
+    }
+
+    public List<String> getZipCodes() {
+        return Collections.unmodifiableList(zipCodes);
+    }
+
+    public List<String> getFederalEntities() {
+        return Collections.unmodifiableList(federalEntities);
+    }
+
+    public List<String> getMunicipalities() {
+        return Collections.unmodifiableList(municipalities);
+    }
+
+    public List<String> getSettlements() {
+        return Collections.unmodifiableList(settlements);
+    }
+
+    public int getSettlementRows() {
+        return settlementRows;
+    }
+
+    private void generate(BufferedWriter writer) throws IOException {
+        Random random = new Random(SEED);
+        writeLine(writer, METADATA_LINE);
+        writeLine(writer, HEADER_LINE);
+
+        for (int entityIndex = 0; entityIndex < FEDERAL_ENTITIES.length; entityIndex++) {
+            String entity = (String) FEDERAL_ENTITIES[entityIndex][0];
+            int[] prefixes = (int[]) FEDERAL_ENTITIES[entityIndex][1];
+            federalEntities.add(entity);
+
+            List<String> entityMunicipalities = municipalitiesFor(entity, prefixes.length, random);
+            municipalities.addAll(entityMunicipalities);
+
+            List<Integer> entityZipCodes = zipCodesFor(prefixes, random);
+            String entityCode = String.format("%02d", entityIndex + 1);
+            int zipCodesPerMunicipality = Math.max(1, entityZipCodes.size() / entityMunicipalities.size());
+
+            for (int i = 0; i < entityZipCodes.size(); i++) {
+                int municipalityIndex = Math.min(i / zipCodesPerMunicipality, entityMunicipalities.size() - 1);
+                String municipality = entityMunicipalities.get(municipalityIndex);
+                String zipCode = String.format("%05d", entityZipCodes.get(i));
+                String locality = random.nextInt(3) == 0 ? "" : municipality;
+                zipCodes.add(zipCode);
+
+                int settlementCount = "01000".equals(zipCode) ? 1 : settlementCount(random);
+                for (int s = 0; s < settlementCount; s++) {
+                    String settlement = "01000".equals(zipCode) ? "San Ángel" : settlementName(random);
+                    String settlementType = "01000".equals(zipCode) ? "Colonia" : pick(SETTLEMENT_TYPES, random);
+                    String zoneType = "01000".equals(zipCode) || "Guadalajara".equals(municipality)
+                            ? "Urbano"
+                            : pick(ZONE_TYPES, random);
+                    if (settlements.size() < 4096 && random.nextInt(16) == 0) {
+                        settlements.add(settlement);
+                    }
+                    writeLine(writer, String.join("|",
+                            zipCode,
+                            settlement,
+                            settlementType,
+                            municipality,
+                            entity,
+                            locality,
+                            zipCode.substring(0, 4) + "1",
+                            entityCode,
+                            zipCode.substring(0, 4) + "1",
+                            "",
+                            String.format("%02d", Math.abs(settlementType.hashCode()) % 40),
+                            String.format("%03d", municipalityIndex + 1),
+                            String.format("%04d", settlementRows % 10_000),
+                            zoneType,
+                            locality.isEmpty() ? "" : String.format("%02d", municipalityIndex % 100)));
+                    settlementRows++;
+                }
+            }
+        }
+    }
+
+    private static List<String> municipalitiesFor(String entity, int prefixCount, Random random) {
+        if ("Ciudad de México".equals(entity)) {
+            return List.of(CDMX_MUNICIPALITIES);
+        }
+
+        List<String> result = new ArrayList<>();
+        for (String[] wellKnown : WELL_KNOWN_MUNICIPALITIES) {
+            if (wellKnown[0].equals(entity)) {
+                result.addAll(List.of(wellKnown).subList(1, wellKnown.length));
+            }
+        }
+
+        TreeSet<String> generated = new TreeSet<>();
+        int target = MUNICIPALITIES_PER_PREFIX * prefixCount;
+        while (generated.size() + result.size() < target) {
+            String name = pick(MUNICIPALITY_FIRST, random) + " " + pick(MUNICIPALITY_SECOND, random);
+            if (random.nextInt(3) == 0) {
+                name += " de " + pick(SETTLEMENT_SECOND, random);
+            }
+            if (!result.contains(name)) {
+                generated.add(name);
+            }
+        }
+        result.addAll(generated);
+        return result;
+    }
+
+    private static List<Integer> zipCodesFor(int[] prefixes, Random random) {
+        TreeSet<Integer> result = new TreeSet<>();
+        for (int prefix : prefixes) {
+            int base = prefix * 1000;
+            int added = 0;
+            while (added < ZIP_CODES_PER_PREFIX) {
+                int candidate = base + random.nextInt(1000);
+                // Keep 0199x empty so prefix searches can assert that "0199" never leaks "020xx"
+                if (candidate / 10 == 199) {
+                    continue;
+                }
+                if (result.add(candidate)) {
+                    added++;
+                }
+            }
+            if (prefix == 1) {
+                result.add(1000);
+                result.add(1900);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    private static int settlementCount(Random random) {
+        // Geometric distribution with mean ~4.5, capped to keep outliers realistic
+        int count = 1;
+        while (count < MAX_SETTLEMENTS_PER_ZIP && random.nextDouble() < 0.78) {
+            count++;
+        }
+        return count;
+    }
+
+    private static String settlementName(Random random) {
+        String name = pick(SETTLEMENT_FIRST, random) + " " + pick(SETTLEMENT_SECOND, random);
+        int variant = random.nextInt(12);
+        if (variant == 0) {
+            return name + " Sección " + (random.nextInt(4) + 1);
+        }
+        if (variant == 1) {
+            return name + " " + pick(SETTLEMENT_SECOND, random);
+        }
+        return name;
+    }
+
+    private static String pick(String[] values, Random random) {
+        return values[random.nextInt(values.length)];
+    }
+
+    private static void writeLine(BufferedWriter writer, String line) throws IOException {
+        writer.write(line);
+        writer.write("\r\n");
+    }
+}
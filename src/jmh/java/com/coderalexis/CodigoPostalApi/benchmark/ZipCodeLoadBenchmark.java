@@ -0,0 +1,65 @@
+package com.coderalexis.CodigoPostalApi.benchmark;
+
+import com.coderalexis.CodigoPostalApi.catalog.ZipCodeFileLoader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a full CPdescarga.txt load (parse, merge and index build) for a
+ * range of parser thread counts, so startup scaling with cores is visible.
+ * Both ingestion paths read the same file: a heap copy through an InputStream
+ * and a read-only memory mapping.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ZipCodeLoadBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private Path catalogFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        catalogFile = Files.createTempFile("CPdescarga", ".txt");
+        SyntheticCatalog.write(catalogFile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(catalogFile);
+    }
+
+    @Benchmark
+    public ZipCodeFileLoader.Result loadStream() throws IOException {
+        try (InputStream stream = Files.newInputStream(catalogFile)) {
+            return new ZipCodeFileLoader(parallelism).load(stream);
+        }
+    }
+
+    @Benchmark
+    public ZipCodeFileLoader.Result loadMemoryMapped() throws IOException {
+        return new ZipCodeFileLoader(parallelism).load(catalogFile);
+    }
+}
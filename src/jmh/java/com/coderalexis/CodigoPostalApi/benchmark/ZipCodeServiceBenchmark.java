@@ -0,0 +1,217 @@
+package com.coderalexis.CodigoPostalApi.benchmark;
+
+import com.coderalexis.CodigoPostalApi.config.CacheConfiguration;
+import com.coderalexis.CodigoPostalApi.config.MetricsConfiguration;
+import com.coderalexis.CodigoPostalApi.exceptions.ZipCodeNotFoundException;
+import com.coderalexis.CodigoPostalApi.model.AdvancedSearchRequest;
+import com.coderalexis.CodigoPostalApi.model.PagedResponse;
+import com.coderalexis.CodigoPostalApi.model.ZipCode;
+import com.coderalexis.CodigoPostalApi.service.ZipCodeService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks for every ZipCodeService read path.
+ *
+ * The service runs inside a minimal Spring context over a synthetic,
+ * CPdescarga.txt-sized catalog. With {@code cached=true} it uses the Caffeine
+ * caches of CacheConfiguration: the caching proxy covers searchByPartialCode and
+ * the paged advancedSearch, and the unpaged entity, municipality and advanced
+ * searches keep their ordinals in the named caches from inside the service.
+ * With {@code cached=false} the context has no caching proxy and a no-op
+ * CacheManager, so the numbers isolate the index/search cost. getZipCode, the
+ * paged entity and municipality searches and getMunicipalitiesByFederalEntity
+ * are not cached at the service level, so both modes measure the same work for
+ * them. Query keys rotate per thread to avoid measuring a single hot entry.
+ *
+ * Run with: mvn -P benchmark test-compile exec:exec
+ */
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ZipCodeServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+    private static final int PREFIX_LIMIT = 10;
+    private static final int SAMPLE_SIZE = 256;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private Path catalogFile;
+    private AnnotationConfigApplicationContext context;
+    private ZipCodeService service;
+
+    private String[] zipCodes;
+    private String[] prefixes;
+    private String[] federalEntities;
+    private String[] municipalities;
+    private AdvancedSearchRequest[] advancedRequests;
+    private AdvancedSearchRequest[] settlementRequests;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        catalogFile = Files.createTempFile("CPdescarga", ".txt");
+        SyntheticCatalog catalog = SyntheticCatalog.write(catalogFile);
+
+        context = new AnnotationConfigApplicationContext();
+        // Converts cache.max-heap-bytes to a DataSize, as Spring Boot would
+        context.getBeanFactory().setConversionService(ApplicationConversionService.getSharedInstance());
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark",
+                Map.of("zipcode.file.path", catalogFile.toString())));
+        context.registerBean(MeterRegistry.class, SimpleMeterRegistry::new);
+        if (cached) {
+            context.register(CacheConfiguration.class);
+        } else {
+            // No @EnableCaching and every cache a pass-through, also for the ordinal caches the service reads itself
+            context.registerBean(CacheManager.class, NoOpCacheManager::new);
+        }
+        context.register(MetricsConfiguration.class, ZipCodeService.class);
+        context.refresh();
+
+        service = context.getBean(ZipCodeService.class);
+        if (cached != AopUtils.isAopProxy(service)) {
+            throw new IllegalStateException("ZipCodeService " + (cached ? "no esta" : "esta")
+                    + " envuelto en un proxy de cache");
+        }
+
+        Random random = new Random(42);
+        zipCodes = sample(catalog.getZipCodes(), random);
+        prefixes = new String[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            String zipCode = zipCodes[i];
+            prefixes[i] = zipCode.substring(0, 2 + (i % 3));
+        }
+        federalEntities = catalog.getFederalEntities().toArray(String[]::new);
+        municipalities = sample(catalog.getMunicipalities(), random);
+
+        advancedRequests = new AdvancedSearchRequest[SAMPLE_SIZE];
+        settlementRequests = new AdvancedSearchRequest[SAMPLE_SIZE];
+        List<String> settlements = catalog.getSettlements();
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            // Keep only requests with results so every invocation measures a successful search
+            do {
+                advancedRequests[i] = AdvancedSearchRequest.builder()
+                        .municipality(municipalities[random.nextInt(SAMPLE_SIZE)])
+                        .zoneType(random.nextBoolean() ? "Urbano" : "Rural")
+                        .build();
+            } while (!hasResults(service, advancedRequests[i]));
+            settlementRequests[i] = AdvancedSearchRequest.builder()
+                    .settlement(settlements.get(random.nextInt(settlements.size())))
+                    .build();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        Files.deleteIfExists(catalogFile);
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next() {
+            next = (next + 1) & (SAMPLE_SIZE - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public ZipCode getZipCode(Cursor cursor) {
+        return service.getZipCode(zipCodes[cursor.next()]);
+    }
+
+    @Benchmark
+    public List<ZipCode> searchByPartialCode(Cursor cursor) {
+        return service.searchByPartialCode(prefixes[cursor.next()], PREFIX_LIMIT);
+    }
+
+    @Benchmark
+    public List<ZipCode> searchByFederalEntity(Cursor cursor) {
+        return service.searchByFederalEntity(federalEntities[cursor.next() % federalEntities.length]);
+    }
+
+    @Benchmark
+    public PagedResponse<ZipCode> searchByFederalEntityPaged(Cursor cursor) {
+        int index = cursor.next();
+        return service.searchByFederalEntity(federalEntities[index % federalEntities.length], index % 4, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<ZipCode> searchByMunicipality(Cursor cursor) {
+        return service.searchByMunicipality(municipalities[cursor.next()]);
+    }
+
+    @Benchmark
+    public PagedResponse<ZipCode> searchByMunicipalityPaged(Cursor cursor) {
+        return service.searchByMunicipality(municipalities[cursor.next()], 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<String> getMunicipalitiesByFederalEntity(Cursor cursor) {
+        return service.getMunicipalitiesByFederalEntity(federalEntities[cursor.next() % federalEntities.length]);
+    }
+
+    @Benchmark
+    public List<ZipCode> advancedSearch(Cursor cursor) {
+        return service.advancedSearch(advancedRequests[cursor.next()]);
+    }
+
+    @Benchmark
+    public PagedResponse<ZipCode> advancedSearchPaged(Cursor cursor) {
+        return service.advancedSearch(advancedRequests[cursor.next()], 0, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public PagedResponse<ZipCode> advancedSearchSettlementOnly(Cursor cursor) {
+        return service.advancedSearch(settlementRequests[cursor.next()], 0, PAGE_SIZE);
+    }
+
+    private static boolean hasResults(ZipCodeService service, AdvancedSearchRequest request) {
+        try {
+            return service.advancedSearch(request, 0, 1).getTotalElements() > 0;
+        } catch (ZipCodeNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static String[] sample(List<String> values, Random random) {
+        String[] sample = new String[SAMPLE_SIZE];
+        for (int i = 0; i < SAMPLE_SIZE; i++) {
+            sample[i] = values.get(random.nextInt(values.size()));
+        }
+        return sample;
+    }
+}
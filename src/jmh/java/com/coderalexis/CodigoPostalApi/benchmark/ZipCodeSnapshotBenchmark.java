@@ -0,0 +1,61 @@
+package com.coderalexis.CodigoPostalApi.benchmark;
+
+import com.coderalexis.CodigoPostalApi.catalog.ZipCodeCatalog;
+import com.coderalexis.CodigoPostalApi.catalog.ZipCodeFileLoader;
+import com.coderalexis.CodigoPostalApi.catalog.ZipCodeSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a boot from the binary snapshot: checksum of the source file plus
+ * mapping and decoding the snapshot. Compare with ZipCodeLoadBenchmark, which
+ * parses the same synthetic catalog as text.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ZipCodeSnapshotBenchmark {
+
+    private Path catalogFile;
+    private ZipCodeSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        catalogFile = Files.createTempFile("CPdescarga", ".txt");
+        SyntheticCatalog.write(catalogFile);
+
+        ByteBuffer content = ZipCodeFileLoader.map(catalogFile);
+        snapshot = new ZipCodeSnapshot(Files.createTempFile("CPdescarga", ".snapshot"));
+        snapshot.write(ZipCodeCatalog.of(new ZipCodeFileLoader(1).load(content)), ZipCodeSnapshot.checksum(content));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(catalogFile);
+        Files.deleteIfExists(snapshot.getPath());
+    }
+
+    @Benchmark
+    public ZipCodeCatalog loadSnapshot() throws IOException {
+        return snapshot.read(ZipCodeSnapshot.checksum(ZipCodeFileLoader.map(catalogFile)));
+    }
+}
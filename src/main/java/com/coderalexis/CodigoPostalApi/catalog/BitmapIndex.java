@@ -0,0 +1,145 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Position sets per distinct normalized value of one catalog column, for
+ * intersecting advanced-search filters. Positions are zip ordinals for per-zip
+ * columns and settlement rows for per-settlement columns.
+ *
+ * Each set is stored in the cheaper of two containers, as in Roaring bitmaps:
+ * a sorted int[] while it holds fewer than one position in 32, a bitmap over
+ * the whole column otherwise. Municipalities and settlement names end up as
+ * short arrays and zone types as a handful of dense bitmaps. Keys are matched
+ * by substring through an {@link NGramIndex}.
+ */
+public final class BitmapIndex {
+    private static final int BITS_PER_ORDINAL = Integer.SIZE;
+
+    private final int universe;
+    private final String[] keys;
+    // Exactly one of the two containers is set per key; neither is ever mutated
+    private final int[][] sparse;
+    private final BitSet[] dense;
+    private final NGramIndex keyGrams;
+
+    /**
+     * Index from its parts as written by {@link ZipCodeSnapshot}; {@code keyGrams}
+     * must be built over {@code keys}.
+     */
+    BitmapIndex(int universe, String[] keys, int[][] sparse, BitSet[] dense, NGramIndex keyGrams) {
+        this.universe = universe;
+        this.keys = keys;
+        this.sparse = sparse;
+        this.dense = dense;
+        this.keyGrams = keyGrams;
+    }
+
+    /**
+     * Index over a column of dictionary ids, per zip ordinal or per settlement
+     * row; each position lands in the set of its value.
+     */
+    static BitmapIndex of(StringDictionary strings, int[] column) {
+        return of(strings, column, 1);
+    }
+
+    /**
+     * Same as {@link #of(StringDictionary, int[])}, indexing key grams from
+     * {@code minGramLength} characters up; see {@link NGramIndex}.
+     */
+    static BitmapIndex of(StringDictionary strings, int[] column, int minGramLength) {
+        int universe = column.length;
+
+        // Values that normalize the same share one key
+        int[] keyOfString = new int[strings.size()];
+        Arrays.fill(keyOfString, -1);
+        Map<String, Integer> keyIds = new HashMap<>();
+        // There are never more keys than dictionary strings
+        int[] counts = new int[strings.size()];
+        for (int id : column) {
+            if (keyOfString[id] < 0) {
+                keyOfString[id] = keyIds.computeIfAbsent(strings.normalized(id), key -> keyIds.size());
+            }
+            counts[keyOfString[id]]++;
+        }
+
+        int keyCount = keyIds.size();
+        int[][] positions = new int[keyCount][];
+        for (int k = 0; k < keyCount; k++) {
+            positions[k] = new int[counts[k]];
+            counts[k] = 0;
+        }
+        // Positions are visited in order, so every set comes out ascending
+        for (int position = 0; position < universe; position++) {
+            int k = keyOfString[column[position]];
+            positions[k][counts[k]++] = position;
+        }
+
+        String[] keys = new String[keyCount];
+        keyIds.forEach((key, k) -> keys[k] = key);
+        int[][] sparse = new int[keyCount][];
+        BitSet[] dense = new BitSet[keyCount];
+        for (int k = 0; k < keyCount; k++) {
+            if ((long) positions[k].length * BITS_PER_ORDINAL < universe) {
+                sparse[k] = positions[k];
+            } else {
+                dense[k] = new BitSet(universe);
+                for (int position : positions[k]) {
+                    dense[k].set(position);
+                }
+            }
+        }
+        return new BitmapIndex(universe, keys, sparse, dense, new NGramIndex(keys, minGramLength));
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    int universe() {
+        return universe;
+    }
+
+    String key(int k) {
+        return keys[k];
+    }
+
+    /**
+     * Ascending positions of key {@code k}, or null when it is stored as a bitmap.
+     */
+    int[] sparse(int k) {
+        return sparse[k];
+    }
+
+    /**
+     * Bitmap of key {@code k}, or null when it is stored as an array.
+     */
+    BitSet dense(int k) {
+        return dense[k];
+    }
+
+    NGramIndex keyGrams() {
+        return keyGrams;
+    }
+
+    /**
+     * New bitmap of the positions under every key containing {@code term}.
+     * The caller owns the result and may intersect it in place.
+     */
+    public BitSet matching(String term) {
+        BitSet result = new BitSet(universe);
+        for (int k : keyGrams.keysContaining(term)) {
+            if (dense[k] != null) {
+                result.or(dense[k]);
+            } else {
+                for (int position : sparse[k]) {
+                    result.set(position);
+                }
+            }
+        }
+        return result;
+    }
+}
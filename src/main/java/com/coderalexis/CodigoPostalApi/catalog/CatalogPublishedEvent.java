@@ -0,0 +1,9 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+/**
+ * Published after a reload makes a new catalog snapshot visible to readers.
+ * Not published for the first load, which happens before listeners are
+ * registered; use ApplicationReadyEvent for that one.
+ */
+public record CatalogPublishedEvent(ZipCodeCatalog catalog) {
+}
@@ -0,0 +1,127 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import com.coderalexis.CodigoPostalApi.util.Util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Maps raw column bytes to their decoded and normalized Strings.
+ *
+ * SEPOMEX rows repeat the same entity, municipality, locality, settlement type
+ * and zone type thousands of times, so each distinct value is decoded and passed
+ * through {@link Util#normalizeString(String)} once instead of once per row.
+ * Lookups hash the bytes in place and only copy them the first time a value is
+ * seen. Entry ids are assigned in insertion order and stay valid across resizes.
+ *
+ * Not thread-safe; every chunk parser owns its own instance.
+ */
+final class FieldDictionary {
+    private static final int INITIAL_TABLE_SIZE = 1024;
+    private static final int INITIAL_ENTRIES = 256;
+
+    private final Charset charset;
+
+    // Open-addressing table of entry id + 1 (0 marks an empty slot)
+    private int[] table = new int[INITIAL_TABLE_SIZE];
+    private byte[][] keys = new byte[INITIAL_ENTRIES][];
+    private int[] hashes = new int[INITIAL_ENTRIES];
+    private String[] values = new String[INITIAL_ENTRIES];
+    private String[] normalizedValues = new String[INITIAL_ENTRIES];
+    private int size;
+
+    FieldDictionary(Charset charset) {
+        this.charset = charset;
+    }
+
+    /**
+     * Returns the entry id for {@code src[from, to)}, decoding and normalizing
+     * the value only if it has not been seen before.
+     */
+    int lookup(ByteBuffer src, int from, int to) {
+        int hash = hash(src, from, to);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            int id = entry - 1;
+            if (hashes[id] == hash && matches(keys[id], src, from, to)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return add(src, from, to, hash, slot);
+    }
+
+    String value(int id) {
+        return values[id];
+    }
+
+    String normalized(int id) {
+        return normalizedValues[id];
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int add(ByteBuffer src, int from, int to, int hash, int slot) {
+        int id = size++;
+        if (id == keys.length) {
+            int capacity = keys.length * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            values = Arrays.copyOf(values, capacity);
+            normalizedValues = Arrays.copyOf(normalizedValues, capacity);
+        }
+
+        byte[] key = new byte[to - from];
+        src.get(from, key);
+        String value = new String(key, charset);
+        keys[id] = key;
+        hashes[id] = hash;
+        values[id] = value;
+        normalizedValues[id] = Util.normalizeString(value);
+        table[slot] = id + 1;
+
+        // Keep the load factor at or below 1/2 so probe sequences stay short
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return id;
+    }
+
+    private void rehash(int tableSize) {
+        int[] rehashed = new int[tableSize];
+        int mask = tableSize - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (rehashed[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed[slot] = id + 1;
+        }
+        table = rehashed;
+    }
+
+    private static boolean matches(byte[] key, ByteBuffer src, int from, int to) {
+        if (key.length != to - from) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != src.get(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(ByteBuffer src, int from, int to) {
+        int h = 1;
+        for (int i = from; i < to; i++) {
+            h = 31 * h + src.get(i);
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,273 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typo-tolerant lookup over the distinct normalized values of one catalog
+ * column, backed by a BK-tree under Levenshtein distance.
+ *
+ * The tree holds terms: every full key plus every word of four or more letters
+ * in a key, so "tlaquepake" finds "san pedro tlaquepaque" through its last word.
+ * A child hangs off its parent under the edge equal to their distance. By the
+ * triangle inequality, a query at distance d from a term can only reach
+ * matches within {@code maxDistance} through edges in
+ * [d - maxDistance, d + maxDistance], so a lookup computes the distance to a
+ * small part of the terms instead of all of them. The tree lives in three int
+ * arrays indexed by term id.
+ */
+public final class FuzzyIndex {
+    private static final int MIN_WORD_LENGTH = 4;
+
+    /**
+     * A key within the requested distance of the query, through its closest term.
+     */
+    public record Match(int key, int distance) {
+    }
+
+    private final String[] keys;
+    // First raw value seen for each key, as shown to clients
+    private final String[] names;
+    private final int[] zipCodeCounts;
+
+    private final String[] terms;
+    // Ascending ids of the keys each term was taken from
+    private final int[][] termKeys;
+    private final int[] firstChild;
+    private final int[] nextSibling;
+    private final int[] edges;
+
+    private FuzzyIndex(String[] keys, String[] names, int[] zipCodeCounts) {
+        this.keys = keys;
+        this.names = names;
+        this.zipCodeCounts = zipCodeCounts;
+
+        Map<String, List<Integer>> keysByTerm = new HashMap<>();
+        List<String> termList = new ArrayList<>();
+        for (int k = 0; k < keys.length; k++) {
+            addTerm(keysByTerm, termList, keys[k], k);
+            for (String word : keys[k].split(" ")) {
+                if (word.length() >= MIN_WORD_LENGTH && !word.equals(keys[k])) {
+                    addTerm(keysByTerm, termList, word, k);
+                }
+            }
+        }
+        this.terms = termList.toArray(new String[0]);
+        this.termKeys = new int[terms.length][];
+        for (int t = 0; t < terms.length; t++) {
+            termKeys[t] = keysByTerm.get(terms[t]).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        this.firstChild = new int[terms.length];
+        this.nextSibling = new int[terms.length];
+        this.edges = new int[terms.length];
+        Arrays.fill(firstChild, -1);
+        Arrays.fill(nextSibling, -1);
+        buildTree();
+    }
+
+    /**
+     * Index from its terms and tree as written by {@link ZipCodeSnapshot}.
+     */
+    FuzzyIndex(String[] keys, String[] names, int[] zipCodeCounts, String[] terms, int[][] termKeys,
+               int[] firstChild, int[] nextSibling, int[] edges) {
+        this.keys = keys;
+        this.names = names;
+        this.zipCodeCounts = zipCodeCounts;
+        this.terms = terms;
+        this.termKeys = termKeys;
+        this.firstChild = firstChild;
+        this.nextSibling = nextSibling;
+        this.edges = edges;
+    }
+
+    /**
+     * Index over a per-zip column of dictionary ids.
+     */
+    static FuzzyIndex ofZipColumn(StringDictionary strings, int[] column) {
+        int[] offsets = new int[column.length + 1];
+        Arrays.setAll(offsets, ordinal -> ordinal);
+        return ofSettlementColumn(strings, column, offsets);
+    }
+
+    /**
+     * Index over a per-settlement column of dictionary ids. The zip code count
+     * of a key is the number of zip codes with at least one row under it.
+     */
+    static FuzzyIndex ofSettlementColumn(StringDictionary strings, int[] column, int[] settlementOffsets) {
+        int[] keyOfString = new int[strings.size()];
+        Arrays.fill(keyOfString, -1);
+        Map<String, Integer> keyIds = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        // There are never more keys than dictionary strings
+        int[] zipCodeCounts = new int[strings.size()];
+        int[] lastOrdinal = new int[strings.size()];
+        Arrays.fill(lastOrdinal, -1);
+
+        for (int ordinal = 0; ordinal + 1 < settlementOffsets.length; ordinal++) {
+            for (int row = settlementOffsets[ordinal]; row < settlementOffsets[ordinal + 1]; row++) {
+                int id = column[row];
+                if (keyOfString[id] < 0) {
+                    keyOfString[id] = keyIds.computeIfAbsent(strings.normalized(id), key -> {
+                        names.add(strings.value(id));
+                        return keyIds.size();
+                    });
+                }
+                int k = keyOfString[id];
+                if (lastOrdinal[k] != ordinal) {
+                    lastOrdinal[k] = ordinal;
+                    zipCodeCounts[k]++;
+                }
+            }
+        }
+
+        String[] keys = new String[keyIds.size()];
+        keyIds.forEach((key, k) -> keys[k] = key);
+        return new FuzzyIndex(keys, names.toArray(new String[0]), Arrays.copyOf(zipCodeCounts, keys.length));
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public String key(int k) {
+        return keys[k];
+    }
+
+    public String name(int k) {
+        return names[k];
+    }
+
+    public int zipCodeCount(int k) {
+        return zipCodeCounts[k];
+    }
+
+    int termCount() {
+        return terms.length;
+    }
+
+    String term(int t) {
+        return terms[t];
+    }
+
+    int[] termKeys(int t) {
+        return termKeys[t];
+    }
+
+    // Tree links of term t: first child and next sibling (-1 when absent), distance to its parent
+    int firstChild(int t) {
+        return firstChild[t];
+    }
+
+    int nextSibling(int t) {
+        return nextSibling[t];
+    }
+
+    int edge(int t) {
+        return edges[t];
+    }
+
+    /**
+     * Keys with a term within {@code maxDistance} edits of the normalized query,
+     * each once with its smallest distance, in no particular order.
+     */
+    public List<Match> search(String query, int maxDistance) {
+        if (terms.length == 0) {
+            return List.of();
+        }
+
+        Map<Integer, Integer> distanceByKey = new HashMap<>();
+        Levenshtein levenshtein = new Levenshtein(query);
+        int[] stack = new int[terms.length];
+        int depth = 0;
+        stack[depth++] = 0;
+        while (depth > 0) {
+            int node = stack[--depth];
+            int distance = levenshtein.distanceTo(terms[node]);
+            if (distance <= maxDistance) {
+                for (int k : termKeys[node]) {
+                    distanceByKey.merge(k, distance, Math::min);
+                }
+            }
+            for (int child = firstChild[node]; child >= 0; child = nextSibling[child]) {
+                if (Math.abs(edges[child] - distance) <= maxDistance) {
+                    stack[depth++] = child;
+                }
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(distanceByKey.size());
+        distanceByKey.forEach((k, distance) -> matches.add(new Match(k, distance)));
+        return matches;
+    }
+
+    private static void addTerm(Map<String, List<Integer>> keysByTerm, List<String> termList, String term, int k) {
+        List<Integer> termKeys = keysByTerm.computeIfAbsent(term, t -> {
+            termList.add(t);
+            return new ArrayList<>(1);
+        });
+        if (termKeys.isEmpty() || termKeys.getLast() != k) {
+            termKeys.add(k);
+        }
+    }
+
+    private void buildTree() {
+        for (int t = 1; t < terms.length; t++) {
+            Levenshtein levenshtein = new Levenshtein(terms[t]);
+            int node = 0;
+            while (true) {
+                int distance = levenshtein.distanceTo(terms[node]);
+                int child = firstChild[node];
+                while (child >= 0 && edges[child] != distance) {
+                    child = nextSibling[child];
+                }
+                if (child < 0) {
+                    // Terms are distinct, so the distance is never 0 here
+                    edges[t] = distance;
+                    nextSibling[t] = firstChild[node];
+                    firstChild[node] = t;
+                    break;
+                }
+                node = child;
+            }
+        }
+    }
+
+    /**
+     * Two-row Levenshtein distance from one fixed term, reusing its rows for
+     * every term compared during a lookup.
+     */
+    private static final class Levenshtein {
+        private final String term;
+        private int[] previous;
+        private int[] current;
+
+        private Levenshtein(String term) {
+            this.term = term;
+            this.previous = new int[term.length() + 1];
+            this.current = new int[term.length() + 1];
+        }
+
+        private int distanceTo(String other) {
+            int n = term.length();
+            for (int i = 0; i <= n; i++) {
+                previous[i] = i;
+            }
+            for (int j = 1; j <= other.length(); j++) {
+                char c = other.charAt(j - 1);
+                current[0] = j;
+                for (int i = 1; i <= n; i++) {
+                    int substitution = previous[i - 1] + (term.charAt(i - 1) == c ? 0 : 1);
+                    current[i] = Math.min(substitution, Math.min(previous[i], current[i - 1]) + 1);
+                }
+                int[] swap = previous;
+                previous = current;
+                current = swap;
+            }
+            return previous[n];
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Substring lookup over a fixed array of normalized keys. Every substring of
+ * {@code minGramLength} to three characters maps to the ascending ids of the
+ * keys containing it. A term of that length is answered by one lookup; a longer
+ * term intersects the lists of its trigrams and only the survivors are checked
+ * with {@link String#contains}. Shorter terms, which match most keys anyway,
+ * scan the keys. The result is always the same as testing every key.
+ */
+final class NGramIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final int[] NO_KEYS = new int[0];
+
+    private final String[] keys;
+    private final int minGramLength;
+    private final Map<Long, int[]> keysByGram;
+
+    NGramIndex(String[] keys) {
+        this(keys, 1);
+    }
+
+    /**
+     * @param minGramLength shortest indexed gram, 1 to 3; a larger value keeps
+     *                      the huge one- and two-character lists of large key
+     *                      sets out of memory
+     */
+    NGramIndex(String[] keys, int minGramLength) {
+        this.keys = keys;
+        this.minGramLength = minGramLength;
+        this.keysByGram = buildGramIndex(keys, minGramLength);
+    }
+
+    /**
+     * Index from its gram lists as written by {@link ZipCodeSnapshot}.
+     */
+    NGramIndex(String[] keys, int minGramLength, Map<Long, int[]> keysByGram) {
+        this.keys = keys;
+        this.minGramLength = minGramLength;
+        this.keysByGram = keysByGram;
+    }
+
+    int minGramLength() {
+        return minGramLength;
+    }
+
+    /**
+     * Ascending key ids per packed gram. The map and its arrays are shared;
+     * callers must not modify them.
+     */
+    Map<Long, int[]> keysByGram() {
+        return keysByGram;
+    }
+
+    /**
+     * Ids of the keys containing {@code term}, ascending. The array may be
+     * shared; callers must not modify it.
+     */
+    int[] keysContaining(String term) {
+        if (term.length() < minGramLength) {
+            return scan(term);
+        }
+
+        if (term.length() <= GRAM_LENGTH) {
+            return keysByGram.getOrDefault(gram(term, 0, term.length()), NO_KEYS);
+        }
+
+        // Start from the rarest trigram and narrow it down with the others
+        int trigrams = term.length() - GRAM_LENGTH + 1;
+        int[][] lists = new int[trigrams][];
+        for (int i = 0; i < trigrams; i++) {
+            lists[i] = keysByGram.get(gram(term, i, GRAM_LENGTH));
+            if (lists[i] == null) {
+                return NO_KEYS;
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] candidates = lists[0];
+        for (int i = 1; i < lists.length && candidates.length > 0; i++) {
+            candidates = intersect(candidates, lists[i]);
+        }
+
+        int[] matches = new int[candidates.length];
+        int count = 0;
+        for (int k : candidates) {
+            if (keys[k].contains(term)) {
+                matches[count++] = k;
+            }
+        }
+        return count == matches.length ? matches : Arrays.copyOf(matches, count);
+    }
+
+    private int[] scan(String term) {
+        int[] matches = new int[keys.length];
+        int count = 0;
+        for (int k = 0; k < keys.length; k++) {
+            if (keys[k].contains(term)) {
+                matches[count++] = k;
+            }
+        }
+        return Arrays.copyOf(matches, count);
+    }
+
+    private static Map<Long, int[]> buildGramIndex(String[] keys, int minGramLength) {
+        Map<Long, int[]> counts = new HashMap<>();
+        Map<Long, Integer> lastKey = new HashMap<>();
+        // First pass sizes each list, counting a key once even if a gram repeats in it
+        for (int k = 0; k < keys.length; k++) {
+            String key = keys[k];
+            for (int length = minGramLength; length <= GRAM_LENGTH; length++) {
+                for (int from = 0; from + length <= key.length(); from++) {
+                    Long gram = gram(key, from, length);
+                    Integer previous = lastKey.put(gram, k);
+                    if (previous == null || previous != k) {
+                        counts.computeIfAbsent(gram, g -> new int[1])[0]++;
+                    }
+                }
+            }
+        }
+
+        Map<Long, int[]> keysByGram = new HashMap<>(counts.size() * 2);
+        for (Map.Entry<Long, int[]> entry : counts.entrySet()) {
+            keysByGram.put(entry.getKey(), new int[entry.getValue()[0]]);
+            entry.getValue()[0] = 0;
+        }
+        // Second pass fills the lists, reusing the counters as cursors. Keys are
+        // visited in id order, so every list comes out ascending.
+        for (int k = 0; k < keys.length; k++) {
+            String key = keys[k];
+            for (int length = minGramLength; length <= GRAM_LENGTH; length++) {
+                for (int from = 0; from + length <= key.length(); from++) {
+                    Long gram = gram(key, from, length);
+                    int[] list = keysByGram.get(gram);
+                    int[] size = counts.get(gram);
+                    if (size[0] == 0 || list[size[0] - 1] != k) {
+                        list[size[0]++] = k;
+                    }
+                }
+            }
+        }
+        return keysByGram;
+    }
+
+    /**
+     * Packs up to three UTF-16 chars and the length into one long, so gram
+     * lookups need no substring allocation.
+     */
+    private static long gram(String s, int from, int length) {
+        long gram = length;
+        for (int i = from; i < from + length; i++) {
+            gram = (gram << 16) | s.charAt(i);
+        }
+        return gram;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+}
@@ -0,0 +1,317 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Inverted index from a normalized key (federal entity or municipality) to the
+ * ordinals of the zip codes that have at least one settlement under it. Each
+ * posting list is sorted ascending, i.e. in zip-code order, and never mutated.
+ *
+ * Substring lookups on the keys go through an {@link NGramIndex}.
+ *
+ * Several matching keys are combined with a k-way merge over their posting
+ * lists, which yields distinct ordinals in zip-code order and can stop as soon
+ * as a page is filled. When no ordinal is listed under two keys, which is the
+ * case for entities and municipalities since each zip code has one of each, the
+ * size of a union is the sum of its list lengths and needs no merge at all.
+ */
+public final class PostingIndex {
+    private static final int[] NO_ORDINALS = new int[0];
+
+    private final String[] keys;
+    private final int[][] postings;
+    private final NGramIndex keyGrams;
+    private final boolean disjoint;
+
+    PostingIndex(String[] keys, int[][] postings) {
+        this.keys = keys;
+        this.postings = postings;
+        this.keyGrams = new NGramIndex(keys);
+        this.disjoint = isDisjoint(postings);
+    }
+
+    /**
+     * Index from its parts as written by {@link ZipCodeSnapshot}.
+     */
+    PostingIndex(String[] keys, int[][] postings, NGramIndex keyGrams, boolean disjoint) {
+        this.keys = keys;
+        this.postings = postings;
+        this.keyGrams = keyGrams;
+        this.disjoint = disjoint;
+    }
+
+    static PostingIndex of(Map<String, int[]> index) {
+        String[] keys = new String[index.size()];
+        int[][] postings = new int[index.size()][];
+        int k = 0;
+        for (Map.Entry<String, int[]> entry : index.entrySet()) {
+            keys[k] = entry.getKey();
+            postings[k] = entry.getValue();
+            k++;
+        }
+        return new PostingIndex(keys, postings);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public String key(int k) {
+        return keys[k];
+    }
+
+    /**
+     * Zip ordinals for key {@code k}. The array is shared; callers must not modify it.
+     */
+    public int[] postings(int k) {
+        return postings[k];
+    }
+
+    NGramIndex keyGrams() {
+        return keyGrams;
+    }
+
+    // Whether no ordinal is listed under two keys
+    boolean isDisjoint() {
+        return disjoint;
+    }
+
+    /**
+     * Ids of the keys containing {@code term}, ascending. The array may be
+     * shared; callers must not modify it.
+     */
+    public int[] keysContaining(String term) {
+        return keyGrams.keysContaining(term);
+    }
+
+    /**
+     * Number of distinct ordinals listed under the given keys.
+     */
+    public int unionSize(int[] keyIds) {
+        if (disjoint || keyIds.length == 1) {
+            int size = 0;
+            for (int k : keyIds) {
+                size += postings[k].length;
+            }
+            return size;
+        }
+
+        Merge merge = new Merge(keyIds);
+        int size = 0;
+        while (merge.next() >= 0) {
+            size++;
+        }
+        return size;
+    }
+
+    /**
+     * Distinct ordinals listed under the given keys, in zip-code order, skipping
+     * the first {@code offset} and returning at most {@code limit}. The merge
+     * stops once the slice is filled.
+     */
+    public int[] unionSlice(int[] keyIds, long offset, int limit) {
+        if (keyIds.length == 1) {
+            int[] posting = postings[keyIds[0]];
+            int from = (int) Math.min(offset, posting.length);
+            return Arrays.copyOfRange(posting, from, (int) Math.min((long) from + limit, posting.length));
+        }
+
+        Merge merge = new Merge(keyIds);
+        for (long skipped = 0; skipped < offset; skipped++) {
+            if (merge.next() < 0) {
+                return NO_ORDINALS;
+            }
+        }
+
+        int[] slice = new int[Math.min(limit, merge.remaining())];
+        int count = 0;
+        int ordinal;
+        while (count < slice.length && (ordinal = merge.next()) >= 0) {
+            slice[count++] = ordinal;
+        }
+        return count == slice.length ? slice : Arrays.copyOf(slice, count);
+    }
+
+    /**
+     * Distinct ordinals not smaller than {@code fromOrdinal} listed under the
+     * given keys, in zip-code order, at most {@code limit}. Every list is entered
+     * by binary search, so the cost does not grow with how deep the seek point is.
+     */
+    public int[] unionFrom(int[] keyIds, int fromOrdinal, int limit) {
+        Merge merge = new Merge(keyIds, fromOrdinal);
+        int[] slice = new int[Math.min(limit, merge.remaining())];
+        int count = 0;
+        int ordinal;
+        while (count < slice.length && (ordinal = merge.next()) >= 0) {
+            slice[count++] = ordinal;
+        }
+        return count == slice.length ? slice : Arrays.copyOf(slice, count);
+    }
+
+    /**
+     * Number of distinct ordinals smaller than {@code ordinal} listed under the
+     * given keys, i.e. the position {@link #unionFrom} starts at.
+     */
+    public int unionRank(int[] keyIds, int ordinal) {
+        if (disjoint || keyIds.length == 1) {
+            int rank = 0;
+            for (int k : keyIds) {
+                rank += lowerBound(postings[k], ordinal);
+            }
+            return rank;
+        }
+
+        Merge merge = new Merge(keyIds);
+        int rank = 0;
+        int next;
+        while ((next = merge.next()) >= 0 && next < ordinal) {
+            rank++;
+        }
+        return rank;
+    }
+
+    /**
+     * Distinct ordinals listed under the given keys, in zip-code order, produced
+     * one at a time by the merge. Memory stays at one cursor per key however
+     * many ordinals are iterated.
+     */
+    public PrimitiveIterator.OfInt unionIterator(int[] keyIds) {
+        Merge merge = new Merge(keyIds);
+        return new PrimitiveIterator.OfInt() {
+            private int next = merge.next();
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next < 0) {
+                    throw new NoSuchElementException();
+                }
+                int ordinal = next;
+                next = merge.next();
+                return ordinal;
+            }
+        };
+    }
+
+    /**
+     * Min-heap k-way merge over sorted posting lists. Each list sits in the heap
+     * by its current head; ordinals present in several lists are returned once.
+     */
+    private final class Merge {
+        private final int[][] lists;
+        private final int[] cursors;
+        private final int[] heap;
+        private int heapSize;
+        private int last = -1;
+
+        private Merge(int[] keyIds) {
+            this(keyIds, 0);
+        }
+
+        // Starts every list at its first ordinal not smaller than fromOrdinal
+        private Merge(int[] keyIds, int fromOrdinal) {
+            lists = new int[keyIds.length][];
+            cursors = new int[keyIds.length];
+            heap = new int[keyIds.length];
+            for (int i = 0; i < keyIds.length; i++) {
+                lists[i] = postings[keyIds[i]];
+                cursors[i] = fromOrdinal > 0 ? lowerBound(lists[i], fromOrdinal) : 0;
+                if (cursors[i] < lists[i].length) {
+                    heap[heapSize++] = i;
+                }
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        /**
+         * Next distinct ordinal, or -1 when every list is exhausted.
+         */
+        private int next() {
+            while (heapSize > 0) {
+                int top = heap[0];
+                int ordinal = lists[top][cursors[top]++];
+                if (cursors[top] == lists[top].length) {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(0);
+                if (ordinal != last) {
+                    last = ordinal;
+                    return ordinal;
+                }
+            }
+            return -1;
+        }
+
+        // Upper bound on what next() can still return
+        private int remaining() {
+            int remaining = 0;
+            for (int i = 0; i < heapSize; i++) {
+                remaining += lists[heap[i]].length - cursors[heap[i]];
+            }
+            return remaining;
+        }
+
+        private int head(int list) {
+            return lists[list][cursors[list]];
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < heapSize && head(heap[left]) < head(heap[smallest])) {
+                    smallest = left;
+                }
+                if (right < heapSize && head(heap[right]) < head(heap[smallest])) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                int swap = heap[i];
+                heap[i] = heap[smallest];
+                heap[smallest] = swap;
+                i = smallest;
+            }
+        }
+    }
+
+    // Index of the first element not smaller than value in an ascending array
+    private static int lowerBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean isDisjoint(int[][] postings) {
+        BitSet seen = new BitSet();
+        for (int[] posting : postings) {
+            for (int ordinal : posting) {
+                if (seen.get(ordinal)) {
+                    return false;
+                }
+                seen.set(ordinal);
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,263 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ranked prefix lookup over the distinct normalized settlement names, for
+ * autocomplete.
+ *
+ * Keys are kept in lexicographic order, which is the leaf order of a trie over
+ * them: every prefix owns one contiguous key range, found by two binary
+ * searches without walking or allocating nodes. Each key carries a weight (its
+ * settlement count) and its zip ordinals in a shared flat array. The top k of a
+ * range are picked with a bounded min-heap of key ids; the maximum weight of
+ * every block of 64 keys is precomputed, so once the heap is full, blocks that
+ * cannot beat its weakest entry are skipped whole.
+ */
+public final class PrefixIndex {
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    private static final int[] NO_KEYS = new int[0];
+
+    private final String[] keys;
+    // First raw value seen for each key, as shown to clients
+    private final String[] names;
+    private final int[] weights;
+    private final int[] blockMaxWeights;
+    // Zip ordinals of key k are zipOrdinals[zipOffsets[k] .. zipOffsets[k + 1]), ascending
+    private final int[] zipOffsets;
+    private final int[] zipOrdinals;
+
+    /**
+     * Index from its parts, as built below or read back by {@link ZipCodeSnapshot}.
+     */
+    PrefixIndex(String[] keys, String[] names, int[] weights, int[] zipOffsets, int[] zipOrdinals) {
+        this.keys = keys;
+        this.names = names;
+        this.weights = weights;
+        this.zipOffsets = zipOffsets;
+        this.zipOrdinals = zipOrdinals;
+        this.blockMaxWeights = new int[(keys.length + BLOCK_SIZE - 1) >> BLOCK_SHIFT];
+        for (int k = 0; k < keys.length; k++) {
+            int block = k >> BLOCK_SHIFT;
+            blockMaxWeights[block] = Math.max(blockMaxWeights[block], weights[k]);
+        }
+    }
+
+    /**
+     * Index over a per-settlement column of dictionary ids. The weight of a key
+     * is its number of settlement rows.
+     */
+    static PrefixIndex ofSettlementColumn(StringDictionary strings, int[] column, int[] settlementOffsets) {
+        int[] keyOfString = new int[strings.size()];
+        Arrays.fill(keyOfString, -1);
+        Map<String, Integer> keyIds = new HashMap<>();
+        String[] firstNames = new String[strings.size()];
+        // There are never more keys than dictionary strings
+        int[] rowCounts = new int[strings.size()];
+        int[] zipCounts = new int[strings.size()];
+        int[] lastOrdinal = new int[strings.size()];
+        Arrays.fill(lastOrdinal, -1);
+
+        for (int ordinal = 0; ordinal + 1 < settlementOffsets.length; ordinal++) {
+            for (int row = settlementOffsets[ordinal]; row < settlementOffsets[ordinal + 1]; row++) {
+                int id = column[row];
+                if (keyOfString[id] < 0) {
+                    keyOfString[id] = keyIds.computeIfAbsent(strings.normalized(id), key -> {
+                        firstNames[keyIds.size()] = strings.value(id);
+                        return keyIds.size();
+                    });
+                }
+                int k = keyOfString[id];
+                rowCounts[k]++;
+                if (lastOrdinal[k] != ordinal) {
+                    lastOrdinal[k] = ordinal;
+                    zipCounts[k]++;
+                }
+            }
+        }
+
+        // Renumber keys in lexicographic order
+        int keyCount = keyIds.size();
+        String[] unsorted = new String[keyCount];
+        keyIds.forEach((key, k) -> unsorted[k] = key);
+        Integer[] order = new Integer[keyCount];
+        Arrays.setAll(order, k -> k);
+        Arrays.sort(order, (a, b) -> unsorted[a].compareTo(unsorted[b]));
+        int[] rankOfKey = new int[keyCount];
+        String[] keys = new String[keyCount];
+        String[] names = new String[keyCount];
+        int[] weights = new int[keyCount];
+        int[] zipOffsets = new int[keyCount + 1];
+        for (int rank = 0; rank < keyCount; rank++) {
+            int k = order[rank];
+            rankOfKey[k] = rank;
+            keys[rank] = unsorted[k];
+            names[rank] = firstNames[k];
+            weights[rank] = rowCounts[k];
+            zipOffsets[rank + 1] = zipOffsets[rank] + zipCounts[k];
+        }
+
+        // Ordinals are visited in order, so every key's slice comes out ascending
+        int[] zipOrdinals = new int[zipOffsets[keyCount]];
+        int[] cursors = Arrays.copyOf(zipOffsets, keyCount);
+        Arrays.fill(lastOrdinal, -1);
+        for (int ordinal = 0; ordinal + 1 < settlementOffsets.length; ordinal++) {
+            for (int row = settlementOffsets[ordinal]; row < settlementOffsets[ordinal + 1]; row++) {
+                int rank = rankOfKey[keyOfString[column[row]]];
+                if (lastOrdinal[rank] != ordinal) {
+                    lastOrdinal[rank] = ordinal;
+                    zipOrdinals[cursors[rank]++] = ordinal;
+                }
+            }
+        }
+        return new PrefixIndex(keys, names, weights, zipOffsets, zipOrdinals);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    public String key(int k) {
+        return keys[k];
+    }
+
+    public String name(int k) {
+        return names[k];
+    }
+
+    public int weight(int k) {
+        return weights[k];
+    }
+
+    public int zipStart(int k) {
+        return zipOffsets[k];
+    }
+
+    public int zipEnd(int k) {
+        return zipOffsets[k + 1];
+    }
+
+    /**
+     * Zip ordinal at position {@code i} of the flat array; key {@code k} owns
+     * positions {@code [zipStart(k), zipEnd(k))}.
+     */
+    public int zipOrdinal(int i) {
+        return zipOrdinals[i];
+    }
+
+    /**
+     * Ids of at most {@code limit} keys starting with {@code prefix}, by
+     * descending weight and then in key order.
+     */
+    public int[] top(String prefix, int limit) {
+        int from = lowerBound(prefix);
+        int to = endOfPrefix(prefix, from);
+        int capacity = Math.min(limit, to - from);
+        if (capacity <= 0) {
+            return NO_KEYS;
+        }
+
+        // Min-heap whose root is the weakest key kept so far
+        int[] heap = new int[capacity];
+        int heapSize = 0;
+        int k = from;
+        while (k < to) {
+            if (heapSize == capacity && (k & (BLOCK_SIZE - 1)) == 0 && k + BLOCK_SIZE <= to
+                    && blockMaxWeights[k >> BLOCK_SHIFT] <= weights[heap[0]]) {
+                // Keys come in ascending id order, so an equal weight never wins the tie either
+                k += BLOCK_SIZE;
+                continue;
+            }
+            if (heapSize < capacity) {
+                heap[heapSize] = k;
+                siftUp(heap, heapSize++);
+            } else if (weights[k] > weights[heap[0]]) {
+                heap[0] = k;
+                siftDown(heap, heapSize);
+            }
+            k++;
+        }
+
+        // Popping the weakest first fills the result from the back
+        int[] result = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            result[i] = heap[0];
+            heap[0] = heap[--heapSize];
+            siftDown(heap, heapSize);
+        }
+        return result;
+    }
+
+    // First key not smaller than the prefix
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // First key from `from` on that does not start with the prefix
+    private int endOfPrefix(String prefix, int from) {
+        int low = from;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // True when key a ranks below key b
+    private boolean weaker(int a, int b) {
+        return weights[a] < weights[b] || (weights[a] == weights[b] && a > b);
+    }
+
+    private void siftUp(int[] heap, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!weaker(heap[i], heap[parent])) {
+                return;
+            }
+            int swap = heap[i];
+            heap[i] = heap[parent];
+            heap[parent] = swap;
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int heapSize) {
+        int i = 0;
+        while (true) {
+            int weakest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < heapSize && weaker(heap[left], heap[weakest])) {
+                weakest = left;
+            }
+            if (right < heapSize && weaker(heap[right], heap[weakest])) {
+                weakest = right;
+            }
+            if (weakest == i) {
+                return;
+            }
+            int swap = heap[i];
+            heap[i] = heap[weakest];
+            heap[weakest] = swap;
+            i = weakest;
+        }
+    }
+}
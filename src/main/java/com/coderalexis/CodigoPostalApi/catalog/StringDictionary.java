@@ -0,0 +1,121 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import com.coderalexis.CodigoPostalApi.util.Util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dictionary encoding for catalog text columns: every distinct raw value is
+ * stored once, next to its normalized form, and columns hold its int id.
+ * When normalization leaves a value unchanged both slots share one String.
+ */
+public final class StringDictionary {
+    // Compact-strings layout with compressed oops: String object, then its byte[] header
+    private static final int STRING_OBJECT_BYTES = 24;
+    private static final int ARRAY_HEADER_BYTES = 16;
+
+    private final String[] values;
+    private final String[] normalizedValues;
+    private final long retainedBytes;
+
+    StringDictionary(String[] values, String[] normalizedValues) {
+        if (values.length != normalizedValues.length) {
+            throw new IllegalArgumentException("Los valores y sus formas normalizadas deben tener el mismo tamaño");
+        }
+        this.values = values;
+        this.normalizedValues = normalizedValues;
+        this.retainedBytes = computeRetainedBytes(values, normalizedValues);
+    }
+
+    public String value(int id) {
+        return values[id];
+    }
+
+    public String normalized(int id) {
+        return normalizedValues[id];
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Estimated heap bytes of the dictionary: both id arrays plus every distinct
+     * String, counting a shared normalized form once.
+     */
+    public long retainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * Estimated heap bytes of one String, including its backing array. Latin-1
+     * text takes one byte per char, anything else two.
+     */
+    static long stringBytes(String value) {
+        int bytesPerChar = 1;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > 0xFF) {
+                bytesPerChar = 2;
+                break;
+            }
+        }
+        return STRING_OBJECT_BYTES + align(ARRAY_HEADER_BYTES + (long) bytesPerChar * value.length());
+    }
+
+    private static long computeRetainedBytes(String[] values, String[] normalizedValues) {
+        long bytes = 2 * align(ARRAY_HEADER_BYTES + 4L * values.length);
+        for (int i = 0; i < values.length; i++) {
+            bytes += stringBytes(values[i]);
+            if (normalizedValues[i] != values[i]) {
+                bytes += stringBytes(normalizedValues[i]);
+            }
+        }
+        return bytes;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+
+    /**
+     * Assigns ids in first-seen order. The normalized form is taken from the
+     * first occurrence, which is safe because it is a function of the raw value.
+     */
+    static final class Builder {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private String[] values = new String[1024];
+        private String[] normalizedValues = new String[1024];
+        private int size;
+
+        /**
+         * Adds a value whose normalized form is not known yet; it is computed
+         * only if the value is new.
+         */
+        int add(String value) {
+            Integer id = ids.get(value);
+            return id != null ? id : add(value, Util.normalizeString(value));
+        }
+
+        int add(String value, String normalized) {
+            Integer id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+                normalizedValues = Arrays.copyOf(normalizedValues, size * 2);
+            }
+            values[size] = value;
+            normalizedValues[size] = value.equals(normalized) ? value : normalized;
+            ids.put(value, size);
+            return size++;
+        }
+
+        StringDictionary build() {
+            return new StringDictionary(Arrays.copyOf(values, size), Arrays.copyOf(normalizedValues, size));
+        }
+    }
+}
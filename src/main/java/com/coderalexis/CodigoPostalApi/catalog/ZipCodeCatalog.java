@@ -0,0 +1,695 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import com.coderalexis.CodigoPostalApi.model.FederalEntity;
+import com.coderalexis.CodigoPostalApi.model.Settlements;
+import com.coderalexis.CodigoPostalApi.model.ZipCode;
+import com.coderalexis.CodigoPostalApi.model.ZipCodeStats;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable, columnar snapshot of the loaded catalog.
+ *
+ * Zip codes are identified by their ordinal, their position in ascending
+ * zip-code order. Per-zip columns and per-settlement columns are parallel int
+ * arrays; every text value is an id into one {@link StringDictionary}, so each
+ * distinct entity, municipality, locality, name and type exists once in the
+ * heap together with its normalized form. The settlements of ordinal {@code o}
+ * are rows {@code [settlementStart(o), settlementEnd(o))}. {@link ZipCode} and
+ * {@link Settlements} DTOs are only materialized for the results being returned.
+ *
+ * Zip codes are five digits, so the whole key space has 100,000 values. A
+ * direct-addressed rank table maps every value to the first ordinal whose zip
+ * code is not smaller, which turns an exact lookup into one array read plus a
+ * compare, and a prefix into the contiguous ordinal range between two reads.
+ *
+ * A snapshot is fully built before it is published, and readers take one
+ * reference to it per request, so a reload can never expose a half-built
+ * index. The version increases with every published snapshot and is part of
+ * every search cache key. It restarts with the process, so anything sent to
+ * clients identifies the data by the checksum of its source file instead.
+ */
+public final class ZipCodeCatalog {
+    private static final int ZIP_CODE_LENGTH = 5;
+    private static final int ZIP_CODE_SPACE = 100_000;
+
+    private static final ZipCodeCatalog EMPTY = new ZipCodeCatalog(
+            0,
+            null,
+            new StringDictionary(new String[0], new String[0]),
+            new int[0], new int[0], new int[0], new int[0], new int[1],
+            new int[0], new int[0], new int[0],
+            new PostingIndex(new String[0], new int[0][]),
+            new PostingIndex(new String[0], new int[0][]));
+
+    private final long version;
+    private final long sourceChecksum;
+    private final Instant loadedAt;
+
+    private final StringDictionary strings;
+
+    // Per zip ordinal
+    private final int[] zipCodes;
+    private final int[] localities;
+    private final int[] federalEntities;
+    private final int[] municipalities;
+    private final int[] settlementOffsets;
+
+    // Per settlement row, grouped by zip ordinal
+    private final int[] settlementNames;
+    private final int[] settlementTypes;
+    private final int[] zoneTypes;
+
+    private final PostingIndex federalEntityIndex;
+    private final PostingIndex municipalityIndex;
+
+    // Derived once per snapshot
+    private final int[] zipRanks;
+    private final BitmapIndex federalEntityBitmaps;
+    private final BitmapIndex municipalityBitmaps;
+    private final BitmapIndex settlementNameBitmaps;
+    private final BitmapIndex settlementTypeBitmaps;
+    private final BitmapIndex zoneTypeBitmaps;
+    private final FuzzyIndex federalEntityTerms;
+    private final FuzzyIndex municipalityTerms;
+    private final FuzzyIndex settlementNameTerms;
+    private final PrefixIndex settlementNamePrefixes;
+    private final ZipCodeStats stats;
+    private final List<FederalEntity> federalEntityList;
+
+    /**
+     * The search structures derived from the columns. Built from scratch after
+     * a text load; read back as they are from a {@link ZipCodeSnapshot}.
+     */
+    record Indexes(
+            BitmapIndex federalEntityBitmaps,
+            BitmapIndex municipalityBitmaps,
+            BitmapIndex settlementNameBitmaps,
+            BitmapIndex settlementTypeBitmaps,
+            BitmapIndex zoneTypeBitmaps,
+            FuzzyIndex federalEntityTerms,
+            FuzzyIndex municipalityTerms,
+            FuzzyIndex settlementNameTerms,
+            PrefixIndex settlementNamePrefixes) {
+
+        static Indexes build(
+                StringDictionary strings,
+                int[] federalEntities,
+                int[] municipalities,
+                int[] settlementOffsets,
+                int[] settlementNames,
+                int[] settlementTypes,
+                int[] zoneTypes) {
+            return new Indexes(
+                    BitmapIndex.of(strings, federalEntities),
+                    BitmapIndex.of(strings, municipalities),
+                    // Names are the one large key set: trigrams only, shorter terms scan the names
+                    BitmapIndex.of(strings, settlementNames, 3),
+                    BitmapIndex.of(strings, settlementTypes),
+                    BitmapIndex.of(strings, zoneTypes),
+                    FuzzyIndex.ofZipColumn(strings, federalEntities),
+                    FuzzyIndex.ofZipColumn(strings, municipalities),
+                    FuzzyIndex.ofSettlementColumn(strings, settlementNames, settlementOffsets),
+                    PrefixIndex.ofSettlementColumn(strings, settlementNames, settlementOffsets));
+        }
+    }
+
+    ZipCodeCatalog(
+            long version,
+            Instant loadedAt,
+            StringDictionary strings,
+            int[] zipCodes,
+            int[] localities,
+            int[] federalEntities,
+            int[] municipalities,
+            int[] settlementOffsets,
+            int[] settlementNames,
+            int[] settlementTypes,
+            int[] zoneTypes,
+            PostingIndex federalEntityIndex,
+            PostingIndex municipalityIndex) {
+        this(version, loadedAt, strings, zipCodes, localities, federalEntities, municipalities,
+                settlementOffsets, settlementNames, settlementTypes, zoneTypes, federalEntityIndex,
+                municipalityIndex, Indexes.build(strings, federalEntities, municipalities, settlementOffsets,
+                        settlementNames, settlementTypes, zoneTypes));
+    }
+
+    ZipCodeCatalog(
+            long version,
+            Instant loadedAt,
+            StringDictionary strings,
+            int[] zipCodes,
+            int[] localities,
+            int[] federalEntities,
+            int[] municipalities,
+            int[] settlementOffsets,
+            int[] settlementNames,
+            int[] settlementTypes,
+            int[] zoneTypes,
+            PostingIndex federalEntityIndex,
+            PostingIndex municipalityIndex,
+            Indexes indexes) {
+        this.version = version;
+        this.sourceChecksum = 0;
+        this.loadedAt = loadedAt;
+        this.strings = strings;
+        this.zipCodes = zipCodes;
+        this.localities = localities;
+        this.federalEntities = federalEntities;
+        this.municipalities = municipalities;
+        this.settlementOffsets = settlementOffsets;
+        this.settlementNames = settlementNames;
+        this.settlementTypes = settlementTypes;
+        this.zoneTypes = zoneTypes;
+        this.federalEntityIndex = federalEntityIndex;
+        this.municipalityIndex = municipalityIndex;
+        this.zipRanks = buildZipRanks(zipCodes);
+        this.federalEntityBitmaps = indexes.federalEntityBitmaps();
+        this.municipalityBitmaps = indexes.municipalityBitmaps();
+        this.settlementNameBitmaps = indexes.settlementNameBitmaps();
+        this.settlementTypeBitmaps = indexes.settlementTypeBitmaps();
+        this.zoneTypeBitmaps = indexes.zoneTypeBitmaps();
+        this.federalEntityTerms = indexes.federalEntityTerms();
+        this.municipalityTerms = indexes.municipalityTerms();
+        this.settlementNameTerms = indexes.settlementNameTerms();
+        this.settlementNamePrefixes = indexes.settlementNamePrefixes();
+        this.stats = ZipCodeStats.builder()
+                .totalZipCodes(zipCodes.length)
+                .totalFederalEntities(federalEntityIndex.size())
+                .totalMunicipalities(municipalityIndex.size())
+                .totalSettlements(settlementNames.length)
+                .build();
+        this.federalEntityList = buildFederalEntityList();
+    }
+
+    public static ZipCodeCatalog empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Encodes the loader output column by column. The object graph in the
+     * result is only needed until this returns.
+     */
+    public static ZipCodeCatalog of(ZipCodeFileLoader.Result result) {
+        StringDictionary.Builder strings = new StringDictionary.Builder();
+        int zipCount = result.zipCodesByCode().size();
+        int settlementCount = 0;
+
+        // Placing each zip code at its numeric value sorts them without comparisons
+        ZipCode[] byValue = new ZipCode[ZIP_CODE_SPACE];
+        for (ZipCode zipCode : result.zipCodesByCode().values()) {
+            byValue[Integer.parseInt(zipCode.getZipCode())] = zipCode;
+            settlementCount += zipCode.getSettlements().size();
+        }
+
+        int[] zipCodes = new int[zipCount];
+        int[] localities = new int[zipCount];
+        int[] federalEntities = new int[zipCount];
+        int[] municipalities = new int[zipCount];
+        int[] settlementOffsets = new int[zipCount + 1];
+        int[] settlementNames = new int[settlementCount];
+        int[] settlementTypes = new int[settlementCount];
+        int[] zoneTypes = new int[settlementCount];
+        Map<String, Integer> ordinals = new HashMap<>(zipCount * 2);
+
+        int ordinal = 0;
+        int row = 0;
+        for (int value = 0; value < ZIP_CODE_SPACE; value++) {
+            ZipCode zipCode = byValue[value];
+            if (zipCode == null) {
+                continue;
+            }
+            ordinals.put(zipCode.getZipCode(), ordinal);
+            zipCodes[ordinal] = value;
+            localities[ordinal] = strings.add(zipCode.getLocality());
+            federalEntities[ordinal] = strings.add(zipCode.getFederalEntity(), zipCode.getNormalizedFederalEntity());
+            municipalities[ordinal] = strings.add(zipCode.getMunicipality(), zipCode.getNormalizedMunicipality());
+
+            settlementOffsets[ordinal] = row;
+            for (Settlements settlement : zipCode.getSettlements()) {
+                settlementNames[row] = strings.add(settlement.getName(), settlement.getNormalizedName());
+                settlementTypes[row] = strings.add(settlement.getSettlementType(), settlement.getNormalizedSettlementType());
+                zoneTypes[row] = strings.add(settlement.getZoneType(), settlement.getNormalizedZoneType());
+                row++;
+            }
+            ordinal++;
+        }
+        settlementOffsets[zipCount] = row;
+
+        return new ZipCodeCatalog(
+                0,
+                Instant.now(),
+                strings.build(),
+                zipCodes,
+                localities,
+                federalEntities,
+                municipalities,
+                settlementOffsets,
+                settlementNames,
+                settlementTypes,
+                zoneTypes,
+                toPostingIndex(result.zipCodesByNormalizedEntity(), ordinals),
+                toPostingIndex(result.zipCodesByNormalizedMunicipality(), ordinals));
+    }
+
+    /**
+     * Same data published under a new version, tagged with the CRC32C of the
+     * file it was read from. Columns and derived indexes are shared, not copied
+     * or rebuilt.
+     */
+    public ZipCodeCatalog withVersion(long newVersion, long newSourceChecksum) {
+        return new ZipCodeCatalog(this, newVersion, newSourceChecksum);
+    }
+
+    private ZipCodeCatalog(ZipCodeCatalog source, long version, long sourceChecksum) {
+        this.version = version;
+        this.sourceChecksum = sourceChecksum;
+        this.loadedAt = source.loadedAt;
+        this.strings = source.strings;
+        this.zipCodes = source.zipCodes;
+        this.localities = source.localities;
+        this.federalEntities = source.federalEntities;
+        this.municipalities = source.municipalities;
+        this.settlementOffsets = source.settlementOffsets;
+        this.settlementNames = source.settlementNames;
+        this.settlementTypes = source.settlementTypes;
+        this.zoneTypes = source.zoneTypes;
+        this.federalEntityIndex = source.federalEntityIndex;
+        this.municipalityIndex = source.municipalityIndex;
+        this.zipRanks = source.zipRanks;
+        this.federalEntityBitmaps = source.federalEntityBitmaps;
+        this.municipalityBitmaps = source.municipalityBitmaps;
+        this.settlementNameBitmaps = source.settlementNameBitmaps;
+        this.settlementTypeBitmaps = source.settlementTypeBitmaps;
+        this.zoneTypeBitmaps = source.zoneTypeBitmaps;
+        this.federalEntityTerms = source.federalEntityTerms;
+        this.municipalityTerms = source.municipalityTerms;
+        this.settlementNameTerms = source.settlementNameTerms;
+        this.settlementNamePrefixes = source.settlementNamePrefixes;
+        this.stats = source.stats;
+        this.federalEntityList = source.federalEntityList;
+    }
+
+    public long version() {
+        return version;
+    }
+
+    /**
+     * CRC32C of the source file, see {@link ZipCodeSnapshot#checksum}. The same
+     * on every replica and after every restart that loads the same file.
+     */
+    public long sourceChecksum() {
+        return sourceChecksum;
+    }
+
+    public Instant loadedAt() {
+        return loadedAt;
+    }
+
+    public boolean isLoaded() {
+        return zipCodes.length > 0;
+    }
+
+    public int size() {
+        return zipCodes.length;
+    }
+
+    public int settlementCount() {
+        return settlementNames.length;
+    }
+
+    public int distinctStringCount() {
+        return strings.size();
+    }
+
+    /**
+     * Estimated heap bytes of the catalog text, each distinct value and its
+     * normalized form stored once.
+     */
+    public long stringBytes() {
+        return strings.retainedBytes();
+    }
+
+    /**
+     * Estimated heap bytes the same text takes without canonicalization, i.e.
+     * with a fresh String and normalized copy per occurrence as the loader's
+     * ZipCode/Settlements graph holds it. The difference to {@link #stringBytes()}
+     * is what the dictionary saves.
+     */
+    public long undeduplicatedStringBytes() {
+        long[] valueBytes = new long[strings.size()];
+        long[] normalizedBytes = new long[strings.size()];
+        for (int id = 0; id < valueBytes.length; id++) {
+            valueBytes[id] = StringDictionary.stringBytes(strings.value(id));
+            normalizedBytes[id] = StringDictionary.stringBytes(strings.normalized(id));
+        }
+
+        long bytes = 0;
+        for (int ordinal = 0; ordinal < zipCodes.length; ordinal++) {
+            // zip code text, locality, and entity and municipality with their normalized copies
+            bytes += StringDictionary.stringBytes(zipCode(ordinal))
+                    + valueBytes[localities[ordinal]]
+                    + valueBytes[federalEntities[ordinal]] + normalizedBytes[federalEntities[ordinal]]
+                    + valueBytes[municipalities[ordinal]] + normalizedBytes[municipalities[ordinal]];
+        }
+        for (int row = 0; row < settlementNames.length; row++) {
+            bytes += valueBytes[settlementNames[row]] + normalizedBytes[settlementNames[row]]
+                    + valueBytes[settlementTypes[row]] + normalizedBytes[settlementTypes[row]]
+                    + valueBytes[zoneTypes[row]] + normalizedBytes[zoneTypes[row]];
+        }
+        return bytes;
+    }
+
+    public ZipCodeStats stats() {
+        return stats;
+    }
+
+    public List<FederalEntity> federalEntities() {
+        return federalEntityList;
+    }
+
+    public PostingIndex federalEntityIndex() {
+        return federalEntityIndex;
+    }
+
+    public PostingIndex municipalityIndex() {
+        return municipalityIndex;
+    }
+
+    /**
+     * Zip ordinal bitmaps per normalized federal entity, matching the entity column.
+     */
+    public BitmapIndex federalEntityBitmaps() {
+        return federalEntityBitmaps;
+    }
+
+    /**
+     * Zip ordinal bitmaps per normalized municipality, matching the municipality column.
+     */
+    public BitmapIndex municipalityBitmaps() {
+        return municipalityBitmaps;
+    }
+
+    /**
+     * Settlement row bitmaps per normalized settlement name. Row bitmaps of
+     * different settlement attributes intersect on the same settlement; see
+     * {@link #zipCodesOfSettlements(BitSet)}.
+     */
+    public BitmapIndex settlementNameBitmaps() {
+        return settlementNameBitmaps;
+    }
+
+    /**
+     * Settlement row bitmaps per normalized settlement type.
+     */
+    public BitmapIndex settlementTypeBitmaps() {
+        return settlementTypeBitmaps;
+    }
+
+    /**
+     * Settlement row bitmaps per normalized zone type.
+     */
+    public BitmapIndex zoneTypeBitmaps() {
+        return zoneTypeBitmaps;
+    }
+
+    /**
+     * Typo-tolerant lookup over the distinct normalized federal entities.
+     */
+    public FuzzyIndex federalEntityTerms() {
+        return federalEntityTerms;
+    }
+
+    /**
+     * Typo-tolerant lookup over the distinct normalized municipalities.
+     */
+    public FuzzyIndex municipalityTerms() {
+        return municipalityTerms;
+    }
+
+    /**
+     * Typo-tolerant lookup over the distinct normalized settlement names.
+     */
+    public FuzzyIndex settlementNameTerms() {
+        return settlementNameTerms;
+    }
+
+    /**
+     * Ranked prefix lookup over the distinct normalized settlement names.
+     */
+    public PrefixIndex settlementNamePrefixes() {
+        return settlementNamePrefixes;
+    }
+
+    /**
+     * Zip ordinals owning at least one of the given settlement rows. Each hit
+     * locates its zip code by binary search over the settlement offsets and then
+     * skips the rest of that zip's rows.
+     */
+    public BitSet zipCodesOfSettlements(BitSet rows) {
+        BitSet ordinals = new BitSet(zipCodes.length);
+        int row = rows.nextSetBit(0);
+        while (row >= 0) {
+            int ordinal = ordinalOfRow(row);
+            ordinals.set(ordinal);
+            row = rows.nextSetBit(settlementOffsets[ordinal + 1]);
+        }
+        return ordinals;
+    }
+
+    // Last ordinal whose first settlement row is at or before the given row
+    private int ordinalOfRow(int row) {
+        int low = 0;
+        int high = zipCodes.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (settlementOffsets[mid] <= row) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Ordinal of a five-digit zip code, or -1 when it is malformed or unknown.
+     * Digits are validated by OR-ing their sign bits, so the only branches are
+     * the length check and the final verdict; no String hash is computed.
+     */
+    public int ordinalOf(String zipCode) {
+        if (zipCode == null || zipCode.length() != ZIP_CODE_LENGTH) {
+            return -1;
+        }
+        int value = 0;
+        int invalid = 0;
+        for (int i = 0; i < ZIP_CODE_LENGTH; i++) {
+            int digit = zipCode.charAt(i) - '0';
+            invalid |= digit | (9 - digit);
+            value = value * 10 + digit;
+        }
+        if (invalid < 0) {
+            return -1;
+        }
+        int ordinal = zipRanks[value];
+        return ordinal < zipCodes.length && zipCodes[ordinal] == value ? ordinal : -1;
+    }
+
+    /**
+     * First ordinal whose zip code is greater than or equal to {@code value}.
+     * Values outside [0, 100000] are clamped to the ends of the catalog.
+     */
+    public int lowerBound(int value) {
+        return zipRanks[Math.clamp(value, 0, ZIP_CODE_SPACE)];
+    }
+
+    public String zipCode(int ordinal) {
+        return formatZipCode(zipCodes[ordinal]);
+    }
+
+    public String locality(int ordinal) {
+        return strings.value(localities[ordinal]);
+    }
+
+    public String federalEntity(int ordinal) {
+        return strings.value(federalEntities[ordinal]);
+    }
+
+    public String normalizedFederalEntity(int ordinal) {
+        return strings.normalized(federalEntities[ordinal]);
+    }
+
+    public String municipality(int ordinal) {
+        return strings.value(municipalities[ordinal]);
+    }
+
+    public String normalizedMunicipality(int ordinal) {
+        return strings.normalized(municipalities[ordinal]);
+    }
+
+    public int settlementStart(int ordinal) {
+        return settlementOffsets[ordinal];
+    }
+
+    public int settlementEnd(int ordinal) {
+        return settlementOffsets[ordinal + 1];
+    }
+
+    public String normalizedSettlementName(int row) {
+        return strings.normalized(settlementNames[row]);
+    }
+
+    public String normalizedSettlementType(int row) {
+        return strings.normalized(settlementTypes[row]);
+    }
+
+    public String normalizedZoneType(int row) {
+        return strings.normalized(zoneTypes[row]);
+    }
+
+    /**
+     * Materializes the response DTO for one zip code.
+     */
+    public ZipCode toZipCode(int ordinal) {
+        ZipCode zipCode = new ZipCode();
+        zipCode.setZipCode(zipCode(ordinal));
+        zipCode.setLocality(locality(ordinal));
+        zipCode.setFederalEntity(federalEntity(ordinal));
+        zipCode.setMunicipality(municipality(ordinal));
+        zipCode.setNormalizedFederalEntity(normalizedFederalEntity(ordinal));
+        zipCode.setNormalizedMunicipality(normalizedMunicipality(ordinal));
+        zipCode.setSettlements(toSettlements(ordinal));
+        return zipCode;
+    }
+
+    public List<ZipCode> toZipCodes(int[] ordinals, int from, int to) {
+        List<ZipCode> zipCodeList = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            zipCodeList.add(toZipCode(ordinals[i]));
+        }
+        return zipCodeList;
+    }
+
+    public List<Settlements> toSettlements(int ordinal) {
+        int from = settlementOffsets[ordinal];
+        int to = settlementOffsets[ordinal + 1];
+        Settlements[] settlements = new Settlements[to - from];
+        for (int row = from; row < to; row++) {
+            Settlements settlement = new Settlements();
+            settlement.setName(strings.value(settlementNames[row]));
+            settlement.setSettlementType(strings.value(settlementTypes[row]));
+            settlement.setZoneType(strings.value(zoneTypes[row]));
+            settlement.setNormalizedName(strings.normalized(settlementNames[row]));
+            settlement.setNormalizedSettlementType(strings.normalized(settlementTypes[row]));
+            settlement.setNormalizedZoneType(strings.normalized(zoneTypes[row]));
+            settlements[row - from] = settlement;
+        }
+        return List.of(settlements);
+    }
+
+    // Package-private column access for ZipCodeSnapshot
+
+    StringDictionary strings() {
+        return strings;
+    }
+
+    int[] zipCodeColumn() {
+        return zipCodes;
+    }
+
+    int[] localityColumn() {
+        return localities;
+    }
+
+    int[] federalEntityColumn() {
+        return federalEntities;
+    }
+
+    int[] municipalityColumn() {
+        return municipalities;
+    }
+
+    int[] settlementOffsetColumn() {
+        return settlementOffsets;
+    }
+
+    int[] settlementNameColumn() {
+        return settlementNames;
+    }
+
+    int[] settlementTypeColumn() {
+        return settlementTypes;
+    }
+
+    int[] zoneTypeColumn() {
+        return zoneTypes;
+    }
+
+    static String formatZipCode(int value) {
+        char[] digits = new char[ZIP_CODE_LENGTH];
+        for (int i = ZIP_CODE_LENGTH - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return new String(digits);
+    }
+
+    /**
+     * Rank of every value in the zip-code space: entry {@code v} is the number
+     * of zip codes smaller than {@code v}. The extra last entry is the catalog
+     * size, so the exclusive end of any range is a plain read too.
+     */
+    private static int[] buildZipRanks(int[] zipCodes) {
+        int[] ranks = new int[ZIP_CODE_SPACE + 1];
+        int ordinal = 0;
+        for (int value = 0; value <= ZIP_CODE_SPACE; value++) {
+            while (ordinal < zipCodes.length && zipCodes[ordinal] < value) {
+                ordinal++;
+            }
+            ranks[value] = ordinal;
+        }
+        return ranks;
+    }
+
+    private List<FederalEntity> buildFederalEntityList() {
+        // Grouped by the raw entity name of each zip code, as shown to clients
+        Map<Integer, int[]> zipCountsByEntity = new HashMap<>();
+        Map<Integer, BitSet> municipalitiesByEntity = new HashMap<>();
+        for (int ordinal = 0; ordinal < zipCodes.length; ordinal++) {
+            zipCountsByEntity.computeIfAbsent(federalEntities[ordinal], k -> new int[1])[0]++;
+            municipalitiesByEntity.computeIfAbsent(federalEntities[ordinal], k -> new BitSet())
+                    .set(municipalities[ordinal]);
+        }
+
+        return zipCountsByEntity.entrySet().stream()
+                .map(entry -> FederalEntity.builder()
+                        .name(strings.value(entry.getKey()))
+                        .zipCodesCount(entry.getValue()[0])
+                        .municipalitiesCount(municipalitiesByEntity.get(entry.getKey()).cardinality())
+                        .build())
+                .sorted(Comparator.comparing(FederalEntity::getName))
+                .toList();
+    }
+
+    private static PostingIndex toPostingIndex(Map<String, Set<ZipCode>> index, Map<String, Integer> ordinals) {
+        Map<String, int[]> postings = new HashMap<>(index.size() * 2);
+        for (Map.Entry<String, Set<ZipCode>> entry : index.entrySet()) {
+            int[] posting = new int[entry.getValue().size()];
+            int i = 0;
+            for (ZipCode zipCode : entry.getValue()) {
+                posting[i++] = ordinals.get(zipCode.getZipCode());
+            }
+            Arrays.sort(posting);
+            postings.put(entry.getKey(), posting);
+        }
+        return PostingIndex.of(postings);
+    }
+}
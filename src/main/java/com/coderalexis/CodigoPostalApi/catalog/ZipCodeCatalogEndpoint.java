@@ -0,0 +1,48 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import com.coderalexis.CodigoPostalApi.service.ZipCodeService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint for the loaded catalog: GET /actuator/catalog reports the
+ * published snapshot and POST /actuator/catalog reloads zipcode.file.path.
+ *
+ * Not exposed over HTTP unless listed in management.endpoints.web.exposure.include.
+ */
+@Component
+@Endpoint(id = "catalog")
+public class ZipCodeCatalogEndpoint {
+
+    private final ZipCodeService zipCodeService;
+
+    public ZipCodeCatalogEndpoint(ZipCodeService zipCodeService) {
+        this.zipCodeService = zipCodeService;
+    }
+
+    @ReadOperation
+    public Map<String, Object> catalog() {
+        return describeCatalog();
+    }
+
+    @WriteOperation
+    public Map<String, Object> reload() {
+        boolean reloaded = zipCodeService.reload();
+        Map<String, Object> details = describeCatalog();
+        details.put("reloaded", reloaded);
+        return details;
+    }
+
+    private Map<String, Object> describeCatalog() {
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("version", zipCodeService.getCatalogVersion());
+        details.put("loadedAt", zipCodeService.getCatalogLoadedAt());
+        details.put("zipCodeCount", zipCodeService.getZipCodeCount());
+        return details;
+    }
+}
@@ -0,0 +1,504 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import com.coderalexis.CodigoPostalApi.model.Settlements;
+import com.coderalexis.CodigoPostalApi.model.ZipCode;
+import com.coderalexis.CodigoPostalApi.util.Util;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads the SEPOMEX CPdescarga.txt file into the in-memory indices.
+ *
+ * The file body is split into line-aligned byte chunks that are parsed
+ * independently (in parallel on a dedicated ForkJoinPool when enabled) into
+ * per-chunk partial indices. Partial indices are merged in file order, so the
+ * settlement order of every zip code is the same as a sequential load regardless
+ * of how many threads took part.
+ */
+@Slf4j
+public class ZipCodeFileLoader {
+    // Column indices based on CPdescarga.txt structure
+    private static final int COL_ZIP_CODE = 0;
+    private static final int COL_SETTLEMENT_NAME = 1;
+    private static final int COL_SETTLEMENT_TYPE = 2;
+    private static final int COL_MUNICIPALITY = 3;
+    private static final int COL_FEDERAL_ENTITY = 4;
+    private static final int COL_LOCALITY = 5;
+    private static final int COL_ZONE_TYPE_INDEX = 13;
+    private static final int MIN_COLUMNS = 6;
+    // Columns past the zone type are never read
+    private static final int PARSED_COLUMNS = COL_ZONE_TYPE_INDEX + 1;
+    private static final int ZIP_CODE_LENGTH = 5;
+    private static final int MAX_ERRORS_THRESHOLD = 100;
+    // Metadata line and column header precede the data rows
+    private static final int HEADER_LINES = 2;
+    // Chunks smaller than this cost more in scheduling and merging than they save
+    private static final int MIN_CHUNK_BYTES = 256 * 1024;
+    // More chunks than threads keeps workers busy when some chunks parse slower
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final int CHARSET_SAMPLE_BYTES = 4096;
+
+    private final int parallelism;
+    private final AtomicInteger errorCount = new AtomicInteger();
+
+    /**
+     * @param parallelism number of parser threads; 1 parses the whole file on the calling thread
+     */
+    public ZipCodeFileLoader(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    public Result load(InputStream stream) throws IOException {
+        return load(ByteBuffer.wrap(stream.readAllBytes()));
+    }
+
+    /**
+     * Parses the file straight from a read-only memory mapping, so the catalog
+     * is never copied into a heap byte[].
+     */
+    public Result load(Path path) throws IOException {
+        return load(map(path));
+    }
+
+    /**
+     * Maps a file read-only. The mapping is released once it becomes
+     * unreachable; every String taken from it is an independent copy.
+     */
+    public static ByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Archivo demasiado grande para mapearse en memoria: " + size + " bytes");
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Parses the whole buffer using absolute reads; its position and limit are
+     * left untouched.
+     */
+    public Result load(ByteBuffer content) {
+        long startTime = System.currentTimeMillis();
+        errorCount.set(0);
+
+        Charset charset = detectCharset(content);
+        log.info("Encoding detectado: {}", charset.name());
+
+        List<int[]> chunks = splitIntoChunks(content, skipLines(content, HEADER_LINES));
+        List<PartialIndex> partials = parseChunks(content, chunks, charset);
+        Result result = merge(partials);
+
+        long duration = System.currentTimeMillis() - startTime;
+        log.info("Datos cargados exitosamente en {}ms ({} bloques, {} hilos)",
+                duration, chunks.size(), Math.min(parallelism, chunks.size()));
+        log.info("  - Codigos postales unicos: {}", result.zipCodesByCode().size());
+        log.info("  - Entidades federativas: {}", result.zipCodesByNormalizedEntity().size());
+        log.info("  - Municipios: {}", result.zipCodesByNormalizedMunicipality().size());
+        log.info("  - Lineas procesadas: {}", result.linesProcessed());
+        if (result.errorCount() > 0) {
+            log.warn("  - Lineas con errores: {}", result.errorCount());
+        }
+        return result;
+    }
+
+    /**
+     * Loaded indices. Settlement lists are still mutable; callers freeze them
+     * once the data is published.
+     */
+    public record Result(
+            Map<String, ZipCode> zipCodesByCode,
+            Map<String, Set<ZipCode>> zipCodesByNormalizedEntity,
+            Map<String, Set<ZipCode>> zipCodesByNormalizedMunicipality,
+            long linesProcessed,
+            int errorCount) {
+    }
+
+    private List<PartialIndex> parseChunks(ByteBuffer content, List<int[]> chunks, Charset charset) {
+        if (parallelism == 1 || chunks.size() <= 1) {
+            List<PartialIndex> partials = new ArrayList<>(chunks.size());
+            for (int[] chunk : chunks) {
+                partials.add(parseChunk(content, chunk[0], chunk[1], charset));
+            }
+            return partials;
+        }
+
+        // Dedicated pool: startup parsing must not compete with the common pool
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            List<ForkJoinTask<PartialIndex>> tasks = new ArrayList<>(chunks.size());
+            for (int[] chunk : chunks) {
+                tasks.add(pool.submit(() -> parseChunk(content, chunk[0], chunk[1], charset)));
+            }
+
+            // Joining in submission order keeps the merge in file order
+            List<PartialIndex> partials = new ArrayList<>(tasks.size());
+            for (ForkJoinTask<PartialIndex> task : tasks) {
+                partials.add(task.join());
+            }
+            return partials;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Splits [start, content.limit()) into ranges that always end right after a
+     * line feed, so no line is ever shared by two chunks.
+     */
+    private List<int[]> splitIntoChunks(ByteBuffer content, int start) {
+        int remaining = content.limit() - start;
+        int chunkSize = parallelism == 1
+                ? remaining
+                : Math.max(MIN_CHUNK_BYTES, remaining / (parallelism * CHUNKS_PER_THREAD));
+
+        List<int[]> chunks = new ArrayList<>();
+        int chunkStart = start;
+        while (chunkStart < content.limit()) {
+            int chunkEnd = (int) Math.min((long) chunkStart + chunkSize, content.limit());
+            while (chunkEnd < content.limit() && content.get(chunkEnd - 1) != '\n') {
+                chunkEnd++;
+            }
+            chunks.add(new int[]{chunkStart, chunkEnd});
+            chunkStart = chunkEnd;
+        }
+        return chunks;
+    }
+
+    private static int skipLines(ByteBuffer content, int lines) {
+        int offset = 0;
+        for (int skipped = 0; skipped < lines && offset < content.limit(); offset++) {
+            if (content.get(offset) == '\n') {
+                skipped++;
+            }
+        }
+        return offset;
+    }
+
+    private PartialIndex parseChunk(ByteBuffer content, int start, int end, Charset charset) {
+        PartialIndex partial = new PartialIndex(charset);
+        int lineStart = start;
+        while (lineStart < end) {
+            // '|', CR and LF never occur inside a UTF-8 multi-byte sequence, so scanning bytes is safe
+            int lineEnd = lineStart;
+            while (lineEnd < end && content.get(lineEnd) != '\n' && content.get(lineEnd) != '\r') {
+                lineEnd++;
+            }
+
+            if (processLine(content, lineStart, lineEnd, partial)) {
+                partial.linesProcessed++;
+            }
+
+            // Same terminators as String.lines(): LF, CR or CRLF
+            if (lineEnd < end && content.get(lineEnd) == '\r' && lineEnd + 1 < end && content.get(lineEnd + 1) == '\n') {
+                lineStart = lineEnd + 2;
+            } else {
+                lineStart = lineEnd + 1;
+            }
+        }
+        return partial;
+    }
+
+    private Charset detectCharset(ByteBuffer content) {
+        int bytesRead = Math.min(content.limit(), CHARSET_SAMPLE_BYTES);
+
+        if (bytesRead <= 0) {
+            return StandardCharsets.UTF_8;
+        }
+
+        boolean hasHighBytes = false;
+        boolean hasUtf8Sequences = false;
+
+        for (int i = 0; i < bytesRead; i++) {
+            int b = content.get(i) & 0xFF;
+            if (b >= 0x80) {
+                hasHighBytes = true;
+                if ((b & 0xE0) == 0xC0 || (b & 0xF0) == 0xE0) {
+                    if (i + 1 < bytesRead && (content.get(i + 1) & 0xC0) == 0x80) {
+                        hasUtf8Sequences = true;
+                    }
+                }
+            }
+        }
+
+        if (hasHighBytes && !hasUtf8Sequences) {
+            log.debug("Detectado encoding ISO-8859-1 (bytes altos sin secuencias UTF-8)");
+            return StandardCharsets.ISO_8859_1;
+        }
+
+        if (hasUtf8Sequences) {
+            log.debug("Detectado encoding UTF-8 (secuencias UTF-8 validas encontradas)");
+            return StandardCharsets.UTF_8;
+        }
+
+        log.debug("Usando encoding por defecto ISO-8859-1 para archivo SEPOMEX");
+        return StandardCharsets.ISO_8859_1;
+    }
+
+    /**
+     * Parses bytes [start, end) without building the line String. Only the
+     * columns the model uses (0-5 and 13) are ever decoded, and repeated values
+     * come from the chunk's {@link FieldDictionary}.
+     */
+    private boolean processLine(ByteBuffer content, int start, int end, PartialIndex partial) {
+        try {
+            int columns = splitColumns(content, start, end, partial.columnStarts, partial.columnEnds);
+            int[] from = partial.columnStarts;
+            int[] to = partial.columnEnds;
+
+            if (columns < MIN_COLUMNS) {
+                handleError("Linea con formato incorrecto (columnas insuficientes): {}",
+                    preview(content, start, end, partial.charset));
+                return false;
+            }
+
+            int zipCodeValue = parseZipCode(content, from[COL_ZIP_CODE], to[COL_ZIP_CODE]);
+
+            if (zipCodeValue < 0) {
+                handleError("Codigo postal invalido '{}' en linea: {}",
+                    decode(content, from[COL_ZIP_CODE], to[COL_ZIP_CODE], partial.charset),
+                    preview(content, start, end, partial.charset));
+                return false;
+            }
+
+            if (from[COL_FEDERAL_ENTITY] == to[COL_FEDERAL_ENTITY] ||
+                from[COL_MUNICIPALITY] == to[COL_MUNICIPALITY]) {
+                handleError("Campos requeridos vacios en codigo postal: {}",
+                    decode(content, from[COL_ZIP_CODE], to[COL_ZIP_CODE], partial.charset));
+                return false;
+            }
+
+            FieldDictionary fields = partial.fields;
+            int entity = fields.lookup(content, from[COL_FEDERAL_ENTITY], to[COL_FEDERAL_ENTITY]);
+            int municipality = fields.lookup(content, from[COL_MUNICIPALITY], to[COL_MUNICIPALITY]);
+
+            // Rows of the same zip code are contiguous in SEPOMEX, so the previous ZipCode is usually the one
+            ZipCode zipCode;
+            if (zipCodeValue == partial.lastZipCodeValue) {
+                zipCode = partial.lastZipCode;
+            } else {
+                String zipCodeKey = decode(content, from[COL_ZIP_CODE], to[COL_ZIP_CODE], partial.charset);
+                zipCode = partial.zipCodes.get(zipCodeKey);
+                if (zipCode == null) {
+                    zipCode = new ZipCode();
+                    zipCode.setZipCode(zipCodeKey);
+                    zipCode.setLocality(fields.value(fields.lookup(content, from[COL_LOCALITY], to[COL_LOCALITY])));
+                    zipCode.setFederalEntity(fields.value(entity));
+                    zipCode.setMunicipality(fields.value(municipality));
+                    zipCode.setNormalizedFederalEntity(fields.normalized(entity));
+                    zipCode.setNormalizedMunicipality(fields.normalized(municipality));
+                    zipCode.setSettlements(new ArrayList<>());
+                    partial.zipCodes.put(zipCodeKey, zipCode);
+                }
+                partial.lastZipCodeValue = zipCodeValue;
+                partial.lastZipCode = zipCode;
+                partial.lastEntity = -1;
+                partial.lastMunicipality = -1;
+            }
+
+            int name = fields.lookup(content, from[COL_SETTLEMENT_NAME], to[COL_SETTLEMENT_NAME]);
+            int settlementType = fields.lookup(content, from[COL_SETTLEMENT_TYPE], to[COL_SETTLEMENT_TYPE]);
+            int zoneType = columns > COL_ZONE_TYPE_INDEX
+                ? fields.lookup(content, from[COL_ZONE_TYPE_INDEX], to[COL_ZONE_TYPE_INDEX])
+                : fields.lookup(content, start, start);
+
+            Settlements settlement = new Settlements();
+            settlement.setName(fields.value(name));
+            settlement.setZoneType(fields.value(zoneType));
+            settlement.setSettlementType(fields.value(settlementType));
+
+            // Pre-compute normalized fields to avoid runtime normalization in searches
+            settlement.setNormalizedName(fields.normalized(name));
+            settlement.setNormalizedSettlementType(fields.normalized(settlementType));
+            settlement.setNormalizedZoneType(fields.normalized(zoneType));
+
+            zipCode.getSettlements().add(settlement);
+
+            // Index postings keep zip keys so they can be resolved against the merged map
+            if (entity != partial.lastEntity) {
+                partial.zipCodesByNormalizedEntity
+                        .computeIfAbsent(fields.normalized(entity), k -> new LinkedHashSet<>())
+                        .add(zipCode.getZipCode());
+                partial.lastEntity = entity;
+            }
+
+            if (municipality != partial.lastMunicipality) {
+                partial.zipCodesByNormalizedMunicipality
+                        .computeIfAbsent(fields.normalized(municipality), k -> new LinkedHashSet<>())
+                        .add(zipCode.getZipCode());
+                partial.lastMunicipality = municipality;
+            }
+
+            return true;
+
+        } catch (Exception e) {
+            handleError("Error procesando la linea: {}", preview(content, start, end, partial.charset));
+            log.debug("Detalle del error:", e);
+            return false;
+        }
+    }
+
+    /**
+     * Records the trimmed bounds of the first {@link #PARSED_COLUMNS} columns and
+     * returns the column count {@code String.split} would report, i.e. ignoring
+     * trailing empty columns.
+     */
+    private static int splitColumns(ByteBuffer content, int start, int end, int[] columnStarts, int[] columnEnds) {
+        int column = 0;
+        int columnStart = start;
+        int lastNonEmpty = -1;
+        for (int i = start; ; i++) {
+            if (i == end || content.get(i) == '|') {
+                if (i > columnStart) {
+                    lastNonEmpty = column;
+                }
+                if (column < PARSED_COLUMNS) {
+                    int from = columnStart;
+                    int to = i;
+                    // Same as String.trim(): strip control characters and spaces
+                    while (from < to && (content.get(from) & 0xFF) <= ' ') {
+                        from++;
+                    }
+                    while (to > from && (content.get(to - 1) & 0xFF) <= ' ') {
+                        to--;
+                    }
+                    columnStarts[column] = from;
+                    columnEnds[column] = to;
+                }
+                if (i == end) {
+                    return lastNonEmpty + 1;
+                }
+                column++;
+                columnStart = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Returns the numeric value of a five ASCII digit zip code, or -1 when the
+     * column does not match {@code ^\\d{5}$}.
+     */
+    private static int parseZipCode(ByteBuffer content, int from, int to) {
+        if (to - from != ZIP_CODE_LENGTH) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = content.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private static String decode(ByteBuffer content, int from, int to, Charset charset) {
+        byte[] bytes = new byte[to - from];
+        content.get(from, bytes);
+        return new String(bytes, charset);
+    }
+
+    // Lines are only decoded for log messages
+    private static String preview(ByteBuffer content, int start, int end, Charset charset) {
+        String line = decode(content, start, end, charset);
+        return line.substring(0, Math.min(100, line.length()));
+    }
+
+    /**
+     * Merges partial indices in file order. A zip code whose rows straddle a
+     * chunk boundary keeps the first chunk's ZipCode and appends the later
+     * settlements, exactly as a single sequential pass would.
+     */
+    private Result merge(List<PartialIndex> partials) {
+        Map<String, ZipCode> zipCodesByCode = new HashMap<>();
+        Map<String, Set<ZipCode>> zipCodesByNormalizedEntity = new HashMap<>();
+        Map<String, Set<ZipCode>> zipCodesByNormalizedMunicipality = new HashMap<>();
+        long linesProcessed = 0;
+
+        for (PartialIndex partial : partials) {
+            for (ZipCode zipCode : partial.zipCodes.values()) {
+                ZipCode existing = zipCodesByCode.putIfAbsent(zipCode.getZipCode(), zipCode);
+                if (existing != null) {
+                    existing.getSettlements().addAll(zipCode.getSettlements());
+                }
+            }
+            mergePostings(partial.zipCodesByNormalizedEntity, zipCodesByNormalizedEntity, zipCodesByCode);
+            mergePostings(partial.zipCodesByNormalizedMunicipality, zipCodesByNormalizedMunicipality, zipCodesByCode);
+            linesProcessed += partial.linesProcessed;
+        }
+
+        return new Result(
+                zipCodesByCode,
+                zipCodesByNormalizedEntity,
+                zipCodesByNormalizedMunicipality,
+                linesProcessed,
+                errorCount.get());
+    }
+
+    private static void mergePostings(
+            Map<String, Set<String>> partialIndex,
+            Map<String, Set<ZipCode>> index,
+            Map<String, ZipCode> zipCodesByCode) {
+        for (Map.Entry<String, Set<String>> entry : partialIndex.entrySet()) {
+            Set<ZipCode> postings = index.computeIfAbsent(entry.getKey(), k -> new HashSet<>());
+            for (String zipCodeKey : entry.getValue()) {
+                postings.add(zipCodesByCode.get(zipCodeKey));
+            }
+        }
+    }
+
+    private void handleError(String message, Object... args) {
+        int count = errorCount.incrementAndGet();
+        if (count <= MAX_ERRORS_THRESHOLD) {
+            log.warn(message, args);
+        } else if (count == MAX_ERRORS_THRESHOLD + 1) {
+            log.warn("Se alcanzo el limite de {} errores. Los siguientes errores no se mostraran.", MAX_ERRORS_THRESHOLD);
+        }
+    }
+
+    /**
+     * Indices built from one chunk. Zip codes keep file order so the merge can
+     * append settlements deterministically.
+     */
+    private static final class PartialIndex {
+        private final Map<String, ZipCode> zipCodes = new LinkedHashMap<>();
+        private final Map<String, Set<String>> zipCodesByNormalizedEntity = new HashMap<>();
+        private final Map<String, Set<String>> zipCodesByNormalizedMunicipality = new HashMap<>();
+        private long linesProcessed;
+
+        // Parser state reused for every line of the chunk
+        private final Charset charset;
+        private final FieldDictionary fields;
+        private final int[] columnStarts = new int[PARSED_COLUMNS];
+        private final int[] columnEnds = new int[PARSED_COLUMNS];
+        private int lastZipCodeValue = -1;
+        private ZipCode lastZipCode;
+        private int lastEntity = -1;
+        private int lastMunicipality = -1;
+
+        private PartialIndex(Charset charset) {
+            this.charset = charset;
+            this.fields = new FieldDictionary(charset);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import com.coderalexis.CodigoPostalApi.service.ZipCodeService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reloads the catalog when the file behind zipcode.file.path changes.
+ *
+ * The parent directory is watched so that both in-place writes and atomic
+ * renames over the file are seen. Events are debounced: the reload starts only
+ * once the file has been quiet for zipcode.reload.watch.debounce, so a copy in
+ * progress is not parsed half-written. Classpath resources cannot change and
+ * are not watched.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "zipcode.reload.watch.enabled", havingValue = "true")
+public class ZipCodeFileWatcher {
+
+    private final ZipCodeService zipCodeService;
+    private final String filePath;
+    private final Duration debounce;
+
+    private WatchService watchService;
+
+    public ZipCodeFileWatcher(
+            ZipCodeService zipCodeService,
+            @Value("${zipcode.file.path}") String filePath,
+            @Value("${zipcode.reload.watch.debounce:5s}") Duration debounce) {
+        this.zipCodeService = zipCodeService;
+        this.filePath = filePath;
+        this.debounce = debounce;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (filePath == null || filePath.startsWith("classpath:")) {
+            log.warn("El monitoreo solo aplica a archivos del sistema de archivos, se ignora: {}", filePath);
+            return;
+        }
+
+        Path file = Paths.get(filePath).toAbsolutePath().normalize();
+        Path directory = file.getParent();
+        if (directory == null || !Files.isDirectory(directory)) {
+            log.warn("No existe el directorio a monitorear para {}", file);
+            return;
+        }
+
+        watchService = FileSystems.getDefault().newWatchService();
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        Thread watcherThread = new Thread(() -> watch(file.getFileName()), "zipcode-file-watcher");
+        watcherThread.setDaemon(true);
+        watcherThread.start();
+        log.info("Monitoreando cambios en {} (espera de {}ms antes de recargar)", file, debounce.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    private void watch(Path fileName) {
+        try {
+            while (true) {
+                if (!touchesFile(watchService.take(), fileName)) {
+                    continue;
+                }
+
+                // Keep waiting while the file is still being written
+                WatchKey key;
+                while ((key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    touchesFile(key, fileName);
+                }
+
+                log.info("Cambio detectado en {}, recargando catalogo", filePath);
+                try {
+                    zipCodeService.reload();
+                } catch (RuntimeException e) {
+                    log.error("Error al recargar el catalogo tras un cambio en {}", filePath, e);
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Monitoreo de {} detenido", filePath);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Drains the key and reports whether any of its events touched the watched file.
+     */
+    private static boolean touchesFile(WatchKey key, Path fileName) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                changed = true;
+            }
+        }
+        key.reset();
+        return changed;
+    }
+}
@@ -0,0 +1,561 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary, pre-indexed copy of a loaded catalog.
+ *
+ * Written after a successful text load and memory-mapped on later boots, so a
+ * restart skips parsing and {@link java.text.Normalizer} entirely. The file is
+ * the columnar {@link ZipCodeCatalog} written out as is: the string dictionary
+ * (raw and normalized forms), the per-zip and per-settlement id columns, the
+ * entity and municipality postings and every derived search structure (key
+ * n-gram lists, bitmaps, BK-trees, prefix index), so reading it is bulk int
+ * copies and no index is rebuilt. Only the zip rank table, the statistics and
+ * the federal entity list, single passes over the zip columns, are derived on
+ * read. The snapshot records the CRC32C of the source file and is ignored when
+ * the source changes, and a trailing CRC32C of its own bytes rejects truncated
+ * or corrupted files.
+ *
+ * Layout (big-endian):
+ * <pre>
+ * header      magic, format version, source checksum, string count, zip count,
+ *             settlement count
+ * strings     raw values then normalized values, each as int[strings + 1] offsets,
+ *             int blob length, UTF-8 blob
+ * zip codes   int[zips] code, locality, entity, municipality; int[zips + 1]
+ *             settlement offsets
+ * settlements int[settlements] name, type, zone
+ * postings    entity then municipality: int key count, then per key the UTF-8
+ *             key length and bytes, the posting count and the zip ordinals in
+ *             ascending order; then the disjoint flag and the key grams
+ * bitmaps     entity, municipality, settlement name, settlement type, zone type:
+ *             universe, key count, per key its string and either a count and
+ *             positions or -(words + 1) and bitmap words; then the key grams
+ * key grams   min gram length, gram count and per gram the packed gram, count
+ *             and key ids
+ * fuzzy       entity, municipality, settlement name: key count, per key its
+ *             string and name, int[keys] zip counts; term count, per term its
+ *             string, count and key ids; int[terms] first child, next sibling
+ *             and edge
+ * prefixes    settlement names: key count, per key its string and name;
+ *             int[keys] weights, int[keys + 1] offsets, zip ordinals
+ * footer      CRC32C of everything above
+ * </pre>
+ * Strings inside the indexes are dictionary ids, or -(length + 1) and UTF-8
+ * bytes for the BK-tree words that are not dictionary values.
+ */
+@Slf4j
+public class ZipCodeSnapshot {
+    private static final int MAGIC = 0x43505358; // "CPSX"
+    private static final int FORMAT_VERSION = 4;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4;
+    private static final int FOOTER_BYTES = 8;
+    private static final int SOURCE_CHECKSUM_OFFSET = 8;
+
+    private final Path path;
+
+    public ZipCodeSnapshot(Path path) {
+        this.path = path;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * CRC32C of the whole source buffer, read without moving its position.
+     */
+    public static long checksum(ByteBuffer content) {
+        CRC32C crc = new CRC32C();
+        crc.update(content.duplicate().rewind());
+        return crc.getValue();
+    }
+
+    /**
+     * Returns the snapshot contents as a catalog with version 0, or null when
+     * there is no snapshot, it was built from a different source file, or it is
+     * damaged. Callers then fall back to parsing the text file.
+     */
+    public ZipCodeCatalog read(long sourceChecksum) {
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        long startTime = System.currentTimeMillis();
+        try {
+            ByteBuffer buffer = ZipCodeFileLoader.map(path);
+            if (!isValid(buffer, sourceChecksum)) {
+                return null;
+            }
+
+            ZipCodeCatalog catalog = decode(buffer);
+            log.info("Indice binario cargado desde {} en {}ms ({} codigos postales)",
+                    path, System.currentTimeMillis() - startTime, catalog.size());
+            return catalog;
+
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo leer el indice binario {}, se cargara el archivo de texto", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the snapshot to a temporary file next to the target and moves it
+     * into place, so a concurrent reader never maps a partial file. Failures are
+     * logged and otherwise ignored; the text file stays the source of truth.
+     */
+    public void write(ZipCodeCatalog catalog, long sourceChecksum) {
+        long startTime = System.currentTimeMillis();
+        try {
+            ByteBuffer buffer = encode(catalog, sourceChecksum);
+
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path tempFile = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(tempFile)) {
+                    out.write(buffer.array(), 0, buffer.limit());
+                }
+                Files.move(tempFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+
+            log.info("Indice binario guardado en {} ({} KB, {}ms)",
+                    path, buffer.limit() / 1024, System.currentTimeMillis() - startTime);
+
+        } catch (IOException | RuntimeException e) {
+            log.warn("No se pudo guardar el indice binario en {}", path, e);
+        }
+    }
+
+    private boolean isValid(ByteBuffer buffer, long sourceChecksum) {
+        int size = buffer.limit();
+        if (size < HEADER_BYTES + FOOTER_BYTES
+                || buffer.getInt(0) != MAGIC
+                || buffer.getInt(4) != FORMAT_VERSION) {
+            log.info("El indice binario {} tiene un formato desconocido, se regenerara", path);
+            return false;
+        }
+
+        if (buffer.getLong(SOURCE_CHECKSUM_OFFSET) != sourceChecksum) {
+            log.info("El indice binario {} no corresponde al archivo actual, se regenerara", path);
+            return false;
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().position(0).limit(size - FOOTER_BYTES));
+        if (buffer.getLong(size - FOOTER_BYTES) != crc.getValue()) {
+            log.warn("El indice binario {} esta danado, se regenerara", path);
+            return false;
+        }
+        return true;
+    }
+
+    private static ZipCodeCatalog decode(ByteBuffer buffer) {
+        buffer.position(SOURCE_CHECKSUM_OFFSET + 8);
+        int stringCount = buffer.getInt();
+        int zipCount = buffer.getInt();
+        int settlementCount = buffer.getInt();
+
+        String[] values = readStrings(buffer, stringCount);
+        String[] normalizedValues = readStrings(buffer, stringCount);
+        // Restore the sharing of unchanged normalized forms
+        for (int i = 0; i < stringCount; i++) {
+            if (normalizedValues[i].equals(values[i])) {
+                normalizedValues[i] = values[i];
+            }
+        }
+        StringDictionary strings = new StringDictionary(values, normalizedValues);
+
+        int[] zipCodes = readInts(buffer, zipCount);
+        int[] localities = readInts(buffer, zipCount);
+        int[] federalEntities = readInts(buffer, zipCount);
+        int[] municipalities = readInts(buffer, zipCount);
+        int[] settlementOffsets = readInts(buffer, zipCount + 1);
+        int[] settlementNames = readInts(buffer, settlementCount);
+        int[] settlementTypes = readInts(buffer, settlementCount);
+        int[] zoneTypes = readInts(buffer, settlementCount);
+
+        PostingIndex federalEntityIndex = readPostings(buffer);
+        PostingIndex municipalityIndex = readPostings(buffer);
+
+        ZipCodeCatalog.Indexes indexes = new ZipCodeCatalog.Indexes(
+                readBitmaps(buffer, strings),
+                readBitmaps(buffer, strings),
+                readBitmaps(buffer, strings),
+                readBitmaps(buffer, strings),
+                readBitmaps(buffer, strings),
+                readFuzzy(buffer, strings),
+                readFuzzy(buffer, strings),
+                readFuzzy(buffer, strings),
+                readPrefixes(buffer, strings));
+
+        return new ZipCodeCatalog(
+                0,
+                Instant.now(),
+                strings,
+                zipCodes,
+                localities,
+                federalEntities,
+                municipalities,
+                settlementOffsets,
+                settlementNames,
+                settlementTypes,
+                zoneTypes,
+                federalEntityIndex,
+                municipalityIndex,
+                indexes);
+    }
+
+    private static ByteBuffer encode(ZipCodeCatalog catalog, long sourceChecksum) {
+        StringDictionary dictionary = catalog.strings();
+        StringIds ids = new StringIds(dictionary);
+        byte[][] values = new byte[dictionary.size()][];
+        byte[][] normalizedValues = new byte[dictionary.size()][];
+        for (int i = 0; i < dictionary.size(); i++) {
+            values[i] = dictionary.value(i).getBytes(StandardCharsets.UTF_8);
+            normalizedValues[i] = dictionary.normalized(i).getBytes(StandardCharsets.UTF_8);
+        }
+
+        Output out = new Output(HEADER_BYTES + stringsSize(values) + stringsSize(normalizedValues)
+                + 4L * (5L * catalog.size() + 1 + 3L * catalog.settlementCount()));
+        out.buffer.putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putLong(sourceChecksum)
+                .putInt(dictionary.size())
+                .putInt(catalog.size())
+                .putInt(catalog.settlementCount());
+        writeStrings(out, values);
+        writeStrings(out, normalizedValues);
+        writeInts(out, catalog.zipCodeColumn());
+        writeInts(out, catalog.localityColumn());
+        writeInts(out, catalog.federalEntityColumn());
+        writeInts(out, catalog.municipalityColumn());
+        writeInts(out, catalog.settlementOffsetColumn());
+        writeInts(out, catalog.settlementNameColumn());
+        writeInts(out, catalog.settlementTypeColumn());
+        writeInts(out, catalog.zoneTypeColumn());
+        writePostings(out, catalog.federalEntityIndex());
+        writePostings(out, catalog.municipalityIndex());
+
+        writeBitmaps(out, catalog.federalEntityBitmaps(), ids);
+        writeBitmaps(out, catalog.municipalityBitmaps(), ids);
+        writeBitmaps(out, catalog.settlementNameBitmaps(), ids);
+        writeBitmaps(out, catalog.settlementTypeBitmaps(), ids);
+        writeBitmaps(out, catalog.zoneTypeBitmaps(), ids);
+        writeFuzzy(out, catalog.federalEntityTerms(), ids);
+        writeFuzzy(out, catalog.municipalityTerms(), ids);
+        writeFuzzy(out, catalog.settlementNameTerms(), ids);
+        writePrefixes(out, catalog.settlementNamePrefixes(), ids);
+
+        ByteBuffer buffer = out.ensure(FOOTER_BYTES);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putLong(crc.getValue());
+        return buffer.flip();
+    }
+
+    private static void writePostings(Output out, PostingIndex index) {
+        out.ensure(4).putInt(index.size());
+        for (int k = 0; k < index.size(); k++) {
+            byte[] key = index.key(k).getBytes(StandardCharsets.UTF_8);
+            out.ensure(4 + key.length).putInt(key.length).put(key);
+            out.ensure(4).putInt(index.postings(k).length);
+            writeInts(out, index.postings(k));
+        }
+        out.ensure(4).putInt(index.isDisjoint() ? 1 : 0);
+        writeGrams(out, index.keyGrams());
+    }
+
+    private static PostingIndex readPostings(ByteBuffer buffer) {
+        int keyCount = buffer.getInt();
+        String[] keys = new String[keyCount];
+        int[][] postings = new int[keyCount][];
+        for (int k = 0; k < keyCount; k++) {
+            byte[] key = new byte[buffer.getInt()];
+            buffer.get(key);
+            keys[k] = new String(key, StandardCharsets.UTF_8);
+            postings[k] = readInts(buffer, buffer.getInt());
+        }
+        boolean disjoint = buffer.getInt() != 0;
+        return new PostingIndex(keys, postings, readGrams(buffer, keys), disjoint);
+    }
+
+    // A non-negative count is a sparse array, -(words + 1) a bitmap
+    private static void writeBitmaps(Output out, BitmapIndex index, StringIds ids) {
+        out.ensure(8).putInt(index.universe()).putInt(index.size());
+        for (int k = 0; k < index.size(); k++) {
+            writeString(out, index.key(k), ids.normalized);
+            if (index.sparse(k) != null) {
+                out.ensure(4).putInt(index.sparse(k).length);
+                writeInts(out, index.sparse(k));
+            } else {
+                long[] words = index.dense(k).toLongArray();
+                out.ensure(4 + 8L * words.length).putInt(-words.length - 1).asLongBuffer().put(words);
+                out.buffer.position(out.buffer.position() + 8 * words.length);
+            }
+        }
+
+        writeGrams(out, index.keyGrams());
+    }
+
+    private static BitmapIndex readBitmaps(ByteBuffer buffer, StringDictionary strings) {
+        int universe = buffer.getInt();
+        int keyCount = buffer.getInt();
+        String[] keys = new String[keyCount];
+        int[][] sparse = new int[keyCount][];
+        BitSet[] dense = new BitSet[keyCount];
+        for (int k = 0; k < keyCount; k++) {
+            keys[k] = readString(buffer, strings, true);
+            int count = buffer.getInt();
+            if (count >= 0) {
+                sparse[k] = readInts(buffer, count);
+            } else {
+                long[] words = new long[-count - 1];
+                buffer.asLongBuffer().get(words);
+                buffer.position(buffer.position() + 8 * words.length);
+                dense[k] = BitSet.valueOf(words);
+            }
+        }
+
+        return new BitmapIndex(universe, keys, sparse, dense, readGrams(buffer, keys));
+    }
+
+    private static void writeGrams(Output out, NGramIndex grams) {
+        Map<Long, int[]> keysByGram = grams.keysByGram();
+        out.ensure(8).putInt(grams.minGramLength()).putInt(keysByGram.size());
+        for (Map.Entry<Long, int[]> gram : keysByGram.entrySet()) {
+            out.ensure(12).putLong(gram.getKey()).putInt(gram.getValue().length);
+            writeInts(out, gram.getValue());
+        }
+    }
+
+    private static NGramIndex readGrams(ByteBuffer buffer, String[] keys) {
+        int minGramLength = buffer.getInt();
+        int gramCount = buffer.getInt();
+        Map<Long, int[]> keysByGram = new HashMap<>(gramCount * 2);
+        for (int g = 0; g < gramCount; g++) {
+            long gram = buffer.getLong();
+            keysByGram.put(gram, readInts(buffer, buffer.getInt()));
+        }
+        return new NGramIndex(keys, minGramLength, keysByGram);
+    }
+
+    private static void writeFuzzy(Output out, FuzzyIndex index, StringIds ids) {
+        int keyCount = index.size();
+        int termCount = index.termCount();
+        int[] zipCodeCounts = new int[keyCount];
+        int[] firstChild = new int[termCount];
+        int[] nextSibling = new int[termCount];
+        int[] edges = new int[termCount];
+
+        out.ensure(4).putInt(keyCount);
+        for (int k = 0; k < keyCount; k++) {
+            writeString(out, index.key(k), ids.normalized);
+            writeString(out, index.name(k), ids.values);
+            zipCodeCounts[k] = index.zipCodeCount(k);
+        }
+        writeInts(out, zipCodeCounts);
+
+        out.ensure(4).putInt(termCount);
+        for (int t = 0; t < termCount; t++) {
+            writeString(out, index.term(t), ids.normalized);
+            out.ensure(4).putInt(index.termKeys(t).length);
+            writeInts(out, index.termKeys(t));
+            firstChild[t] = index.firstChild(t);
+            nextSibling[t] = index.nextSibling(t);
+            edges[t] = index.edge(t);
+        }
+        writeInts(out, firstChild);
+        writeInts(out, nextSibling);
+        writeInts(out, edges);
+    }
+
+    private static FuzzyIndex readFuzzy(ByteBuffer buffer, StringDictionary strings) {
+        int keyCount = buffer.getInt();
+        String[] keys = new String[keyCount];
+        String[] names = new String[keyCount];
+        for (int k = 0; k < keyCount; k++) {
+            keys[k] = readString(buffer, strings, true);
+            names[k] = readString(buffer, strings, false);
+        }
+        int[] zipCodeCounts = readInts(buffer, keyCount);
+
+        int termCount = buffer.getInt();
+        String[] terms = new String[termCount];
+        int[][] termKeys = new int[termCount][];
+        for (int t = 0; t < termCount; t++) {
+            terms[t] = readString(buffer, strings, true);
+            termKeys[t] = readInts(buffer, buffer.getInt());
+        }
+        return new FuzzyIndex(keys, names, zipCodeCounts, terms, termKeys,
+                readInts(buffer, termCount), readInts(buffer, termCount), readInts(buffer, termCount));
+    }
+
+    private static void writePrefixes(Output out, PrefixIndex index, StringIds ids) {
+        int keyCount = index.size();
+        int[] weights = new int[keyCount];
+        int[] zipOffsets = new int[keyCount + 1];
+        out.ensure(4).putInt(keyCount);
+        for (int k = 0; k < keyCount; k++) {
+            writeString(out, index.key(k), ids.normalized);
+            writeString(out, index.name(k), ids.values);
+            weights[k] = index.weight(k);
+            zipOffsets[k] = index.zipStart(k);
+        }
+        zipOffsets[keyCount] = keyCount > 0 ? index.zipEnd(keyCount - 1) : 0;
+        int[] zipOrdinals = new int[zipOffsets[keyCount]];
+        Arrays.setAll(zipOrdinals, index::zipOrdinal);
+        writeInts(out, weights);
+        writeInts(out, zipOffsets);
+        writeInts(out, zipOrdinals);
+    }
+
+    private static PrefixIndex readPrefixes(ByteBuffer buffer, StringDictionary strings) {
+        int keyCount = buffer.getInt();
+        String[] keys = new String[keyCount];
+        String[] names = new String[keyCount];
+        for (int k = 0; k < keyCount; k++) {
+            keys[k] = readString(buffer, strings, true);
+            names[k] = readString(buffer, strings, false);
+        }
+        int[] weights = readInts(buffer, keyCount);
+        int[] zipOffsets = readInts(buffer, keyCount + 1);
+        return new PrefixIndex(keys, names, weights, zipOffsets, readInts(buffer, zipOffsets[keyCount]));
+    }
+
+    /**
+     * Dictionary ids of every raw and normalized value, so that index strings
+     * are written as ids and read back as the dictionary's own instances.
+     */
+    private static final class StringIds {
+        private final Map<String, Integer> values = new HashMap<>();
+        private final Map<String, Integer> normalized = new HashMap<>();
+
+        private StringIds(StringDictionary dictionary) {
+            for (int i = 0; i < dictionary.size(); i++) {
+                values.putIfAbsent(dictionary.value(i), i);
+                normalized.putIfAbsent(dictionary.normalized(i), i);
+            }
+        }
+    }
+
+    // Dictionary id, or -(length + 1) followed by UTF-8 for strings not in the dictionary
+    private static void writeString(Output out, String value, Map<String, Integer> ids) {
+        Integer id = ids.get(value);
+        if (id != null) {
+            out.ensure(4).putInt(id);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.ensure(4 + bytes.length).putInt(-bytes.length - 1).put(bytes);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, StringDictionary strings, boolean normalized) {
+        int id = buffer.getInt();
+        if (id >= 0) {
+            return normalized ? strings.normalized(id) : strings.value(id);
+        }
+        byte[] bytes = new byte[-id - 1];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeInts(Output out, int[] values) {
+        ByteBuffer buffer = out.ensure(4L * values.length);
+        buffer.asIntBuffer().put(values);
+        buffer.position(buffer.position() + 4 * values.length);
+    }
+
+    private static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + 4 * count);
+        return values;
+    }
+
+    private static long stringsSize(byte[][] strings) {
+        long size = 4L * (strings.length + 1) + 4;
+        for (byte[] bytes : strings) {
+            size += bytes.length;
+        }
+        return size;
+    }
+
+    private static void writeStrings(Output out, byte[][] strings) {
+        ByteBuffer buffer = out.ensure(stringsSize(strings));
+        int offset = 0;
+        for (byte[] bytes : strings) {
+            buffer.putInt(offset);
+            offset += bytes.length;
+        }
+        buffer.putInt(offset);
+        buffer.putInt(offset);
+        for (byte[] bytes : strings) {
+            buffer.put(bytes);
+        }
+    }
+
+    private static String[] readStrings(ByteBuffer buffer, int count) {
+        int[] offsets = readInts(buffer, count + 1);
+        byte[] blob = new byte[buffer.getInt()];
+        buffer.get(blob);
+
+        String[] strings = new String[count];
+        for (int i = 0; i < count; i++) {
+            strings[i] = new String(blob, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    /**
+     * Heap buffer that doubles when a write would not fit. The index sections
+     * are sized as they are written rather than computed up front.
+     */
+    private static final class Output {
+        private static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
+        private ByteBuffer buffer;
+
+        private Output(long initialCapacity) {
+            buffer = ByteBuffer.allocate(checkedSize(initialCapacity));
+        }
+
+        /**
+         * The buffer, with room for at least {@code bytes} more bytes.
+         */
+        private ByteBuffer ensure(long bytes) {
+            long required = buffer.position() + bytes;
+            if (required > buffer.capacity()) {
+                long doubled = Math.min(2L * buffer.capacity(), MAX_SIZE);
+                ByteBuffer grown = ByteBuffer.allocate(checkedSize(Math.max(required, doubled)));
+                grown.put(buffer.flip());
+                buffer = grown;
+            }
+            return buffer;
+        }
+
+        private static int checkedSize(long size) {
+            if (size > MAX_SIZE) {
+                throw new IllegalStateException("Indice binario demasiado grande: " + size + " bytes");
+            }
+            return (int) size;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.coderalexis.CodigoPostalApi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One named cache backed by the Caffeine store shared by every cache of
+ * {@link CacheConfiguration}. Keys are qualified with the cache name, so the
+ * named caches stay separate while competing for one byte budget: whichever
+ * entries are read most keep their place, whatever cache they belong to.
+ * Null values are not cached.
+ *
+ * The shared store's statistics cannot tell the caches apart, so each cache
+ * counts its own hits, misses, puts and evictions for {@link BudgetedCacheMetrics}.
+ */
+final class BudgetedCache extends AbstractValueAdaptingCache {
+
+    /**
+     * Key in the shared store.
+     */
+    record Key(String cacheName, Object key) {
+    }
+
+    private final String name;
+    private final Cache<Key, Object> store;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder puts = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    BudgetedCache(String name, Cache<Key, Object> store) {
+        super(false);
+        this.name = name;
+        this.store = store;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Cache<Key, Object> getNativeCache() {
+        return store;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = store.getIfPresent(new Key(name, key));
+        (value != null ? hits : misses).increment();
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = new boolean[1];
+        Object value = store.get(new Key(name, key), storeKey -> {
+            loaded[0] = true;
+            try {
+                return toStoreValue(valueLoader.call());
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        });
+        (loaded[0] ? misses : hits).increment();
+        return (T) fromStoreValue(value);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        store.put(new Key(name, key), toStoreValue(value));
+        puts.increment();
+    }
+
+    @Override
+    public void evict(Object key) {
+        store.invalidate(new Key(name, key));
+    }
+
+    // Called by the store's eviction listener for this cache's keys
+    void recordEviction() {
+        evictions.increment();
+    }
+
+    long hitCount() {
+        return hits.sum();
+    }
+
+    long missCount() {
+        return misses.sum();
+    }
+
+    long putCount() {
+        return puts.sum();
+    }
+
+    long evictionCount() {
+        return evictions.sum();
+    }
+
+    // Only this cache's entries; the others sharing the store stay. Scans the
+    // whole store, so a reload clears the store once instead (ZipCodeService).
+    @Override
+    public void clear() {
+        store.asMap().keySet().removeIf(storeKey -> storeKey.cacheName().equals(name));
+    }
+}
@@ -0,0 +1,52 @@
+package com.coderalexis.CodigoPostalApi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.binder.cache.CacheMeterBinder;
+
+/**
+ * The standard {@code cache.gets}, {@code cache.puts} and
+ * {@code cache.evictions} meters for one {@link BudgetedCache}, from the
+ * counters the cache keeps for itself. The entry count is not published per
+ * cache, since it would mean scanning the shared store; the store as a whole
+ * is published under the cache name "shared".
+ */
+class BudgetedCacheMetrics extends CacheMeterBinder<BudgetedCache> {
+
+    BudgetedCacheMetrics(BudgetedCache cache, Iterable<Tag> tags) {
+        super(cache, cache.getName(), tags);
+    }
+
+    @Override
+    protected Long size() {
+        return null;
+    }
+
+    @Override
+    protected long hitCount() {
+        BudgetedCache cache = getCache();
+        return cache == null ? 0 : cache.hitCount();
+    }
+
+    @Override
+    protected Long missCount() {
+        BudgetedCache cache = getCache();
+        return cache == null ? null : cache.missCount();
+    }
+
+    @Override
+    protected Long evictionCount() {
+        BudgetedCache cache = getCache();
+        return cache == null ? null : cache.evictionCount();
+    }
+
+    @Override
+    protected long putCount() {
+        BudgetedCache cache = getCache();
+        return cache == null ? 0 : cache.putCount();
+    }
+
+    @Override
+    protected void bindImplementationSpecificMetrics(MeterRegistry registry) {
+    }
+}
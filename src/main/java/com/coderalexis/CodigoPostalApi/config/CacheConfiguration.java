@@ -1,118 +1,111 @@
 package com.coderalexis.CodigoPostalApi.config;
 
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.cache.metrics.CacheMeterBinderProvider;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Every named cache lives in one Caffeine store bounded by a heap budget
+ * ({@code cache.max-heap-bytes}) instead of a per-cache entry count. Entries
+ * are weighed by their estimated retained size ({@link RetainedSize}), and
+ * Caffeine's frequency-based admission decides which ones stay, so capacity
+ * goes to whichever caches are being hit rather than to hand-picked sizes.
+ * Each cache keeps its own TTL.
+ *
+ * Spring Boot only publishes cache meters for cache types it knows, so the
+ * named caches are bound through {@link BudgetedCacheMetrics} and the store's
+ * own statistics under the cache name "shared".
+ */
 @Configuration
 @EnableCaching
 public class CacheConfiguration {
 
-    @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager(
-                "zipcodes",
-                "federalEntitySearch",
-                "federalEntitySearchPaged",
-                "municipalitySearch",
-                "municipalitySearchPaged",
-                "partialSearch",
-                "federalEntities",
-                "municipalitiesByEntity",
-                "advancedSearch",
-                "advancedSearchPaged"
-        );
+    // Caffeine node, the qualified key record and its reference
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
 
-        // Direct zip code lookup: O(1) in-memory Map access, no cache benefit.
-        // Kept for backward compatibility with @Cacheable annotations.
-        cacheManager.registerCustomCache("zipcodes",
-                Caffeine.newBuilder()
-                        .maximumSize(10_000)
-                        .expireAfterAccess(1, TimeUnit.HOURS)
-                        .recordStats()
-                        .build());
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.max-heap-bytes:64MB}") DataSize maxHeapBytes) {
+        Map<String, Duration> timeToLive = new LinkedHashMap<>();
 
-        // Federal entity search: results can be large (full ZipCode objects with settlements).
-        // Reduced size and TTL to avoid memory pressure. Consider caching only zip IDs if needed.
-        cacheManager.registerCustomCache("federalEntitySearch",
-                Caffeine.newBuilder()
-                        .maximumSize(50)
-                        .expireAfterWrite(5, TimeUnit.MINUTES)
-                        .recordStats()
-                        .build());
+        // No cache for single zip codes: the lookup is one read of the rank table, and
+        // ZipCodeJsonCache keeps their serialized JSON.
 
-        // Paginated variant: more specific keys, separate cache entry.
-        cacheManager.registerCustomCache("federalEntitySearchPaged",
-                Caffeine.newBuilder()
-                        .maximumSize(100)
-                        .expireAfterWrite(5, TimeUnit.MINUTES)
-                        .recordStats()
-                        .build());
+        // Unpaged searches store int[] zip ordinals, rehydrated from the catalog on a hit.
+        // They only go stale on a reload, which clears every cache, so the TTL is long.
+        timeToLive.put("federalEntitySearch", Duration.ofMinutes(30));
+        timeToLive.put("municipalitySearch", Duration.ofMinutes(30));
+        timeToLive.put("advancedSearch", Duration.ofMinutes(30));
 
-        // Municipality search: results can be very large. Conservative cache settings.
-        cacheManager.registerCustomCache("municipalitySearch",
-                Caffeine.newBuilder()
-                        .maximumSize(100)
-                        .expireAfterWrite(5, TimeUnit.MINUTES)
-                        .recordStats()
-                        .build());
+        // Paginated advanced search: one page of ZipCode objects per entry. Entity and
+        // municipality pages are only kept serialized, in "responses".
+        timeToLive.put("advancedSearchPaged", Duration.ofMinutes(5));
 
-        // Paginated municipality variant.
-        cacheManager.registerCustomCache("municipalitySearchPaged",
-                Caffeine.newBuilder()
-                        .maximumSize(100)
-                        .expireAfterWrite(5, TimeUnit.MINUTES)
-                        .recordStats()
-                        .build());
+        // Partial search (autocomplete): frequent reads, small results.
+        timeToLive.put("partialSearch", Duration.ofMinutes(10));
 
-        // Partial search (autocomplete): frequent reads, moderate cache.
-        cacheManager.registerCustomCache("partialSearch",
-                Caffeine.newBuilder()
-                        .maximumSize(500)
-                        .expireAfterWrite(10, TimeUnit.MINUTES)
-                        .recordStats()
-                        .build());
+        // Serialized and gzipped response bodies: states list, municipalities by state,
+        // statistics and page-number entity and municipality pages; see PrecompressedResponseCache.
+        timeToLive.put("responses", Duration.ofMinutes(30));
 
-        // Federal entities list: rarely changes, small result set.
-        cacheManager.registerCustomCache("federalEntities",
-                Caffeine.newBuilder()
-                        .maximumSize(1)
-                        .expireAfterWrite(1, TimeUnit.HOURS)
-                        .recordStats()
-                        .build());
+        // Filled below, once the caches exist; the listener only runs after an eviction
+        Map<String, BudgetedCache> caches = new ConcurrentHashMap<>();
+        Cache<BudgetedCache.Key, Object> store = Caffeine.newBuilder()
+                .maximumWeight(maxHeapBytes.toBytes())
+                .weigher(CacheConfiguration::weigh)
+                .expireAfter(Expiry.writing((BudgetedCache.Key key, Object value) -> timeToLive.get(key.cacheName())))
+                .evictionListener((BudgetedCache.Key key, Object value, RemovalCause cause) -> {
+                    BudgetedCache cache = caches.get(key.cacheName());
+                    if (cache != null) {
+                        cache.recordEviction();
+                    }
+                })
+                .recordStats()
+                .build();
+        List<BudgetedCache> named = timeToLive.keySet().stream()
+                .map(name -> new BudgetedCache(name, store))
+                .toList();
+        named.forEach(cache -> caches.put(cache.getName(), cache));
 
-        // Municipalities by entity: small result sets, moderate TTL.
-        cacheManager.registerCustomCache("municipalitiesByEntity",
-                Caffeine.newBuilder()
-                        .maximumSize(50)
-                        .expireAfterWrite(30, TimeUnit.MINUTES)
-                        .recordStats()
-                        .build());
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(named);
+        return cacheManager;
+    }
 
-        // Advanced search: can return large result sets. Conservative settings.
-        // If memory usage is high, consider caching only zip code IDs instead of
-        // full ZipCode objects (which include nested settlement lists).
-        cacheManager.registerCustomCache("advancedSearch",
-                Caffeine.newBuilder()
-                        .maximumSize(25)
-                        .expireAfterWrite(5, TimeUnit.MINUTES)
-                        .recordStats()
-                        .build());
+    @Bean
+    public CacheMeterBinderProvider<BudgetedCache> budgetedCacheMeterBinderProvider() {
+        return BudgetedCacheMetrics::new;
+    }
 
-        // Paginated advanced search: smaller values than unpaged results, with
-        // page-aware keys to reduce repeated filtering for common queries.
-        cacheManager.registerCustomCache("advancedSearchPaged",
-                Caffeine.newBuilder()
-                        .maximumSize(100)
-                        .expireAfterWrite(5, TimeUnit.MINUTES)
-                        .recordStats()
-                        .build());
+    @Bean
+    @SuppressWarnings("unchecked")
+    public MeterBinder sharedCacheMetrics(CacheManager cacheManager) {
+        // Every named cache returns the same native store. Same tag keys as the named
+        // caches, which Prometheus requires for meters sharing a name.
+        return registry -> CaffeineCacheMetrics.monitor(registry,
+                (Cache<BudgetedCache.Key, Object>) cacheManager.getCache("responses").getNativeCache(), "shared",
+                Tags.of("cache.manager", "cacheManager", "name", "shared"));
+    }
 
-        return cacheManager;
+    private static int weigh(BudgetedCache.Key key, Object value) {
+        long bytes = ENTRY_OVERHEAD_BYTES + RetainedSize.of(key.key()) + RetainedSize.of(value);
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,6 @@
 package com.coderalexis.CodigoPostalApi.config;
 
-import com.coderalexis.CodigoPostalApi.service.ZipCodeService;
+import com.coderalexis.CodigoPostalApi.service.PrecompressedResponseCache;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -29,7 +29,7 @@ public class CacheWarmupRunner {
 
     @Bean
     @ConditionalOnProperty(name = "cache.warmup.enabled", havingValue = "true", matchIfMissing = true)
-    public CommandLineRunner warmupCache(ZipCodeService zipCodeService) {
+    public CommandLineRunner warmupCache(PrecompressedResponseCache responseCache) {
         return args -> {
             log.info("Iniciando precarga de cache en paralelo...");
             long start = System.currentTimeMillis();
@@ -39,7 +39,7 @@ public class CacheWarmupRunner {
 
             futures.add(CompletableFuture.runAsync(() -> {
                 try {
-                    zipCodeService.getAllFederalEntities();
+                    responseCache.federalEntities();
                     loaded.incrementAndGet();
                 } catch (Exception e) {
                     log.debug("No se pudo precargar el catalogo de entidades federativas", e);
@@ -49,7 +49,7 @@ public class CacheWarmupRunner {
             for (String entity : COMMON_FEDERAL_ENTITIES) {
                 futures.add(CompletableFuture.runAsync(() -> {
                     try {
-                        zipCodeService.searchByFederalEntity(entity, WARMUP_PAGE, WARMUP_PAGE_SIZE);
+                        responseCache.federalEntityPage(entity, WARMUP_PAGE, WARMUP_PAGE_SIZE);
                         loaded.incrementAndGet();
                     } catch (Exception e) {
                         log.debug("Entidad {} no encontrada para precarga", entity);
@@ -60,7 +60,7 @@ public class CacheWarmupRunner {
             for (String municipality : COMMON_MUNICIPALITIES) {
                 futures.add(CompletableFuture.runAsync(() -> {
                     try {
-                        zipCodeService.searchByMunicipality(municipality, WARMUP_PAGE, WARMUP_PAGE_SIZE);
+                        responseCache.municipalityPage(municipality, WARMUP_PAGE, WARMUP_PAGE_SIZE);
                         loaded.incrementAndGet();
                     } catch (Exception e) {
                         log.debug("Municipio {} no encontrado para precarga", municipality);
@@ -0,0 +1,69 @@
+package com.coderalexis.CodigoPostalApi.config;
+
+import com.coderalexis.CodigoPostalApi.service.ZipCodeService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Adds the validators of {@link ConditionalGetInterceptor} to successful
+ * responses, and turns a successful response into 304 when the request's
+ * {@code If-None-Match: *} or If-Modified-Since is satisfied. Error bodies carry
+ * a timestamp and are never revalidated, so they get no ETag and are never
+ * answered with 304. Nor is a response whose request overlapped a catalog
+ * reload, see {@link ConditionalGetInterceptor}.
+ */
+@ControllerAdvice
+public class ConditionalGetAdvice implements ResponseBodyAdvice<Object> {
+
+    private final ZipCodeService zipCodeService;
+
+    public ConditionalGetAdvice(ZipCodeService zipCodeService) {
+        this.zipCodeService = zipCodeService;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(
+            Object body,
+            MethodParameter returnType,
+            MediaType selectedContentType,
+            Class<? extends HttpMessageConverter<?>> selectedConverterType,
+            ServerHttpRequest request,
+            ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)
+                || !(response instanceof ServletServerHttpResponse servletResponse)) {
+            return body;
+        }
+        int status = servletResponse.getServletResponse().getStatus();
+        if (status < 200 || status >= 300 || response.getHeaders().getETag() != null) {
+            return body;
+        }
+
+        HttpServletRequest httpRequest = servletRequest.getServletRequest();
+        ConditionalGetInterceptor.Validators validators = ConditionalGetInterceptor.validators(httpRequest,
+                zipCodeService.currentCatalog());
+        if (validators == null) {
+            return body;
+        }
+        response.getHeaders().setETag(validators.etag());
+        response.getHeaders().setLastModified(validators.lastModified());
+        if (ConditionalGetInterceptor.isNotModified(httpRequest, validators)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            return null;
+        }
+        return body;
+    }
+}
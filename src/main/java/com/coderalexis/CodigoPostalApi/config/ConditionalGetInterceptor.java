@@ -0,0 +1,160 @@
+package com.coderalexis.CodigoPostalApi.config;
+
+import com.coderalexis.CodigoPostalApi.catalog.ZipCodeCatalog;
+import com.coderalexis.CodigoPostalApi.service.ZipCodeService;
+import com.coderalexis.CodigoPostalApi.util.Util;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Conditional GET for the read endpoints.
+ *
+ * Every response is a function of the catalog data and the request, so the
+ * validators can be computed without running the handler: a strong ETag made
+ * of the source file checksum and a hash of the normalized path and query and
+ * the encoding the client accepts, plus Last-Modified from the time the
+ * catalog was loaded. Unlike the process-local catalog version, the checksum is
+ * the same on every replica and after a restart that loads the same file.
+ *
+ * An ETag is only ever sent with a successful response, so an If-None-Match
+ * naming it proves the resource exists and is answered with 304 here, before
+ * any search or serialization. {@code If-None-Match: *} and If-Modified-Since
+ * say nothing about existence and are left to {@link ConditionalGetAdvice},
+ * which evaluates them once the handler has succeeded.
+ *
+ * Handlers read the current catalog themselves. The catalog seen here is kept
+ * on the request, and the advice only sends validators when it is still the
+ * current one after the handler: catalogs are only ever replaced, so the body
+ * then came from that same catalog. A response that raced a reload goes out
+ * without validators.
+ */
+@Component
+public class ConditionalGetInterceptor implements HandlerInterceptor {
+    static final String CATALOG_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".catalog";
+    static final String VALIDATORS_ATTRIBUTE = ConditionalGetInterceptor.class.getName() + ".validators";
+
+    // The cursor is opaque and case-sensitive, so it is never normalized
+    private static final String CURSOR_PARAMETER = "cursor";
+
+    record Validators(String etag, long lastModified) {
+    }
+
+    private final ZipCodeService zipCodeService;
+
+    public ConditionalGetInterceptor(ZipCodeService zipCodeService) {
+        this.zipCodeService = zipCodeService;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String method = request.getMethod();
+        if (!("GET".equals(method) || "HEAD".equals(method)) || !zipCodeService.isDataLoaded()) {
+            return true;
+        }
+
+        ZipCodeCatalog catalog = zipCodeService.currentCatalog();
+        request.setAttribute(CATALOG_ATTRIBUTE, catalog);
+
+        // Without If-None-Match the validators are only needed for a successful response
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch == null) {
+            return true;
+        }
+
+        Validators validators = validatorsFor(request, catalog);
+        if (matchesEtag(ifNoneMatch, validators.etag())) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader(HttpHeaders.ETAG, validators.etag());
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, validators.lastModified());
+            return false;
+        }
+        request.setAttribute(VALIDATORS_ATTRIBUTE, validators);
+        return true;
+    }
+
+    /**
+     * The validators of {@code request}, computed once and kept on the request.
+     * Null when this interceptor did not handle it, or when {@code current} is
+     * no longer the catalog it saw, since the body may then come from either.
+     */
+    static Validators validators(HttpServletRequest request, ZipCodeCatalog current) {
+        if (!(request.getAttribute(CATALOG_ATTRIBUTE) instanceof ZipCodeCatalog catalog) || catalog != current) {
+            return null;
+        }
+        if (request.getAttribute(VALIDATORS_ATTRIBUTE) instanceof Validators validators) {
+            return validators;
+        }
+        Validators validators = validatorsFor(request, catalog);
+        request.setAttribute(VALIDATORS_ATTRIBUTE, validators);
+        return validators;
+    }
+
+    static Validators validatorsFor(HttpServletRequest request, ZipCodeCatalog catalog) {
+        long lastModified = catalog.loadedAt().toEpochMilli() / 1000 * 1000;
+
+        StringBuilder key = new StringBuilder(128)
+                .append(Util.normalizeSearchTerm(URLDecoder.decode(request.getRequestURI(), StandardCharsets.UTF_8)));
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        parameters.forEach((name, values) -> {
+            key.append('&').append(name).append('=');
+            for (String value : values) {
+                key.append(CURSOR_PARAMETER.equals(name) ? value : Util.normalizeCacheKey(value)).append(',');
+            }
+        });
+        key.append('|').append(Util.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING)) ? "gzip" : "identity");
+
+        return new Validators("\"" + Long.toHexString(catalog.sourceChecksum()) + "-" + hash(key.toString()) + "\"",
+                lastModified);
+    }
+
+    /**
+     * Whether the response that produced {@code validators} is not modified for
+     * the client. Only meaningful for a response that exists: it also accepts
+     * {@code If-None-Match: *} and an If-Modified-Since not older than the load.
+     */
+    static boolean isNotModified(HttpServletRequest request, Validators validators) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matchesEtag(ifNoneMatch, validators.etag()) || ifNoneMatch.trim().equals("*");
+        }
+
+        try {
+            long ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+            return ifModifiedSince >= 0 && validators.lastModified() <= ifModifiedSince;
+        } catch (IllegalArgumentException e) {
+            // An unparseable date is ignored, as if the header were absent
+            return false;
+        }
+    }
+
+    private static boolean matchesEtag(String ifNoneMatch, String etag) {
+        // If-None-Match uses the weak comparison, so a W/ prefix still matches
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.coderalexis.CodigoPostalApi.config;
 
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 /**
  * Custom business metrics configuration.
  * Uses low-cardinality tags to avoid Prometheus series explosion.
@@ -13,8 +16,16 @@ public class MetricsConfiguration {
 
     private final MeterRegistry meterRegistry;
 
+    // Estimated heap bytes of the catalog text, with and without the string dictionary
+    private final AtomicLong catalogStringBytes = new AtomicLong();
+    private final AtomicLong catalogUndeduplicatedStringBytes = new AtomicLong();
+
     public MetricsConfiguration(MeterRegistry meterRegistry) {
         this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("zipcode.catalog.strings.bytes",
+                Tags.of("layout", "deduplicated"), catalogStringBytes);
+        meterRegistry.gauge("zipcode.catalog.strings.bytes",
+                Tags.of("layout", "per_occurrence"), catalogUndeduplicatedStringBytes);
     }
 
     /**
@@ -43,4 +54,20 @@ public class MetricsConfiguration {
         meterRegistry.summary("zipcode.search.result_size", "search_type", searchType)
             .record(size);
     }
+
+    /**
+     * Records a catalog reload attempt (low cardinality: success, failure).
+     */
+    public void recordCatalogReload(String outcome) {
+        meterRegistry.counter("zipcode.catalog.reloads", "outcome", outcome).increment();
+    }
+
+    /**
+     * Publishes the estimated catalog text size of the current snapshot, with
+     * the string dictionary and as it would be with one copy per occurrence.
+     */
+    public void recordCatalogStringBytes(long deduplicated, long perOccurrence) {
+        catalogStringBytes.set(deduplicated);
+        catalogUndeduplicatedStringBytes.set(perOccurrence);
+    }
 }
@@ -24,6 +24,7 @@ import java.util.concurrent.TimeUnit;
 @Slf4j
 @Component
 public class RateLimitInterceptor implements HandlerInterceptor {
+    private static final String BATCH_PATH = "/zip-codes/batch";
 
     private final RateLimitProperties rateLimitProperties;
     // Caffeine cache with TTL-based eviction (buckets expire after 5 minutes of inactivity)
@@ -53,7 +54,7 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         String key = rateLimitProperties.isIpBased() ? clientIp : "global";
         Bucket bucket = bucketCache.get(key, k -> createNewBucket());
 
-        if (bucket.tryConsume(1)) {
+        if (bucket.tryConsume(tokensFor(request))) {
             long availableTokens = bucket.getAvailableTokens();
             response.setHeader("X-RateLimit-Limit", String.valueOf(rateLimitProperties.getRequestsPerMinute()));
             response.setHeader("X-RateLimit-Remaining", String.valueOf(availableTokens));
@@ -75,6 +76,14 @@ public class RateLimitInterceptor implements HandlerInterceptor {
         return false;
     }
 
+    // A batch lookup costs its configured weight, every other request one token
+    long tokensFor(HttpServletRequest request) {
+        if ("POST".equals(request.getMethod()) && request.getRequestURI().endsWith(BATCH_PATH)) {
+            return Math.clamp(rateLimitProperties.getBatchWeight(), 1, rateLimitProperties.getBurstCapacity());
+        }
+        return 1;
+    }
+
     private Bucket createNewBucket() {
         Bandwidth limit = Bandwidth.builder()
                 .capacity(rateLimitProperties.getBurstCapacity())
@@ -37,6 +37,13 @@ public class RateLimitProperties {
      */
     private int burstCapacity = 20;
 
+    /**
+     * Tokens que consume una consulta por lote (POST /zip-codes/batch),
+     * sin importar cuántos códigos postales incluya. Se limita a la
+     * capacidad de ráfaga para que un lote siempre pueda pasar.
+     */
+    private int batchWeight = 1;
+
     /**
      * Lista de IPs en whitelist (sin rate limiting)
      */
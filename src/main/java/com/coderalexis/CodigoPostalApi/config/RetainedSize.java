@@ -0,0 +1,56 @@
+package com.coderalexis.CodigoPostalApi.config;
+
+import com.coderalexis.CodigoPostalApi.model.FederalEntity;
+import com.coderalexis.CodigoPostalApi.model.PagedResponse;
+import com.coderalexis.CodigoPostalApi.model.Settlements;
+import com.coderalexis.CodigoPostalApi.model.ZipCode;
+import com.coderalexis.CodigoPostalApi.model.ZipCodeStats;
+import com.coderalexis.CodigoPostalApi.service.PrecompressedResponseCache;
+
+import java.util.Collection;
+
+/**
+ * Estimated heap bytes retained by a cached value, for the cache weigher.
+ *
+ * Shallow sizes assume a 64-bit JVM with compressed references: 12-byte
+ * headers, 4-byte references, 8-byte alignment. Strings are counted in full
+ * even though many of them are shared with the catalog's dictionary, so the
+ * estimate errs high and the budget is never exceeded. Values of unknown
+ * types get a flat size.
+ */
+final class RetainedSize {
+    private static final int ARRAY_HEADER = 16;
+    private static final int UNKNOWN = 64;
+
+    private RetainedSize() {
+    }
+
+    static long of(Object value) {
+        return switch (value) {
+            case null -> 0;
+            case int[] ordinals -> ARRAY_HEADER + 4L * ordinals.length;
+            case byte[] bytes -> ARRAY_HEADER + bytes.length;
+            // Latin-1 compact string: the String object plus its byte[]
+            case String string -> 24 + ARRAY_HEADER + string.length();
+            case Collection<?> elements -> {
+                long size = 24 + ARRAY_HEADER + 4L * elements.size();
+                for (Object element : elements) {
+                    size += of(element);
+                }
+                yield size;
+            }
+            case ZipCode zipCode -> 40 + of(zipCode.getZipCode()) + of(zipCode.getLocality())
+                    + of(zipCode.getFederalEntity()) + of(zipCode.getMunicipality())
+                    + of(zipCode.getNormalizedFederalEntity()) + of(zipCode.getNormalizedMunicipality())
+                    + of(zipCode.getSettlements());
+            case Settlements settlement -> 40 + of(settlement.getName()) + of(settlement.getZoneType())
+                    + of(settlement.getSettlementType()) + of(settlement.getNormalizedName())
+                    + of(settlement.getNormalizedSettlementType()) + of(settlement.getNormalizedZoneType());
+            case PagedResponse<?> page -> 48 + of(page.getContent()) + of(page.getNextCursor());
+            case PrecompressedResponseCache.Variants variants -> 16 + of(variants.identity()) + of(variants.gzip());
+            case FederalEntity entity -> 24 + of(entity.getName());
+            case ZipCodeStats stats -> 32;
+            default -> UNKNOWN;
+        };
+    }
+}
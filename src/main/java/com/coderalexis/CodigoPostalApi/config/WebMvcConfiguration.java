@@ -18,11 +18,14 @@ public class WebMvcConfiguration implements WebMvcConfigurer {
 
     private final RateLimitInterceptor rateLimitInterceptor;
     private final RateLimitProperties rateLimitProperties;
+    private final ConditionalGetInterceptor conditionalGetInterceptor;
 
     public WebMvcConfiguration(RateLimitInterceptor rateLimitInterceptor,
-                              RateLimitProperties rateLimitProperties) {
+                              RateLimitProperties rateLimitProperties,
+                              ConditionalGetInterceptor conditionalGetInterceptor) {
         this.rateLimitInterceptor = rateLimitInterceptor;
         this.rateLimitProperties = rateLimitProperties;
+        this.conditionalGetInterceptor = conditionalGetInterceptor;
     }
 
     @Override
@@ -49,5 +52,13 @@ public class WebMvcConfiguration implements WebMvcConfigurer {
         } else {
             log.info("✗ Rate Limiting DESHABILITADO (perfil de desarrollo)");
         }
+
+        // Después del rate limiting: un 304 también consume tokens
+        registry.addInterceptor(conditionalGetInterceptor)
+                .addPathPatterns("/zip-codes/**")
+                .excludePathPatterns(
+                    "/zip-codes/bulk/**",  // Tiene su propio ETag por contenido
+                    "/zip-codes/export"    // Respuesta en streaming, sin cuerpo que validar
+                );
     }
 }
@@ -2,13 +2,20 @@ package com.coderalexis.CodigoPostalApi.controller;
 
 import com.coderalexis.CodigoPostalApi.exceptions.ErrorResponse;
 import com.coderalexis.CodigoPostalApi.model.AdvancedSearchRequest;
+import com.coderalexis.CodigoPostalApi.model.BatchLookupResult;
 import com.coderalexis.CodigoPostalApi.model.FederalEntity;
+import com.coderalexis.CodigoPostalApi.model.FuzzyMatch;
 import com.coderalexis.CodigoPostalApi.model.PagedResponse;
+import com.coderalexis.CodigoPostalApi.model.SettlementSuggestion;
 import com.coderalexis.CodigoPostalApi.model.Settlements;
 import com.coderalexis.CodigoPostalApi.model.ZipCode;
 import com.coderalexis.CodigoPostalApi.model.ZipCodeSimplified;
 import com.coderalexis.CodigoPostalApi.model.ZipCodeStats;
+import com.coderalexis.CodigoPostalApi.service.BulkExportService;
+import com.coderalexis.CodigoPostalApi.service.PrecompressedResponseCache;
+import com.coderalexis.CodigoPostalApi.service.ZipCodeJsonCache;
 import com.coderalexis.CodigoPostalApi.service.ZipCodeService;
+import com.coderalexis.CodigoPostalApi.util.Util;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.ArraySchema;
@@ -22,11 +29,32 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @Slf4j
@@ -34,10 +62,28 @@ import java.util.List;
 @Validated
 public class Controller {
 
+    // Exact number of matches when the body only carries the first results
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final String BATCH_FORMAT_MESSAGE = "El cuerpo debe ser un arreglo JSON de codigos postales";
+
     private final ZipCodeService zipCodeService;
+    private final BulkExportService bulkExportService;
+    private final ZipCodeJsonCache zipCodeJsonCache;
+    private final PrecompressedResponseCache responseCache;
+    private final JsonMapper jsonMapper;
 
-    public Controller(ZipCodeService zipCodeService) {
+    public Controller(
+            ZipCodeService zipCodeService,
+            BulkExportService bulkExportService,
+            ZipCodeJsonCache zipCodeJsonCache,
+            PrecompressedResponseCache responseCache,
+            JsonMapper jsonMapper) {
         this.zipCodeService = zipCodeService;
+        this.bulkExportService = bulkExportService;
+        this.zipCodeJsonCache = zipCodeJsonCache;
+        this.responseCache = responseCache;
+        this.jsonMapper = jsonMapper;
     }
 
     @Operation(
@@ -53,9 +99,11 @@ public class Controller {
                     - `01000` - San Ángel, Ciudad de México
                     - `44100` - Guadalajara Centro, Jalisco
                     - `64000` - Monterrey Centro, Nuevo León
+                    - `01000?simplified=true` - Sin la lista de asentamientos
 
                     ### Rendimiento:
-                    Este endpoint está optimizado con caché, tiempo de respuesta típico: **~50ms**
+                    El JSON de cada código postal se genera una sola vez por versión del catálogo;
+                    las siguientes consultas devuelven los mismos bytes, con `Content-Length` y `ETag`.
                     """,
             tags = {"Búsqueda Directa"}
     )
@@ -80,7 +128,7 @@ public class Controller {
             )
     })
     @GetMapping("/{zipcode}")
-    public ResponseEntity<ZipCode> getZipCode(
+    public ResponseEntity<byte[]> getZipCode(
             @Parameter(
                     description = "El código postal a buscar",
                     required = true,
@@ -88,10 +136,111 @@ public class Controller {
             )
             @PathVariable("zipcode")
             @Pattern(regexp = "\\d{5}", message = "El código postal debe tener exactamente 5 dígitos")
-            String zipcode
+            String zipcode,
+
+            @Parameter(description = "Si es true, devuelve formato simplificado")
+            @RequestParam(value = "simplified", defaultValue = "false")
+            boolean simplified
     ) {
-        ZipCode response = zipCodeService.getZipCode(zipcode);
-        return ResponseEntity.ok(response);
+        // Bytes rendered once per snapshot; the object mapper is skipped on repeat hits
+        byte[] json = zipCodeJsonCache.render(zipcode, simplified);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(json.length)
+                .body(json);
+    }
+
+    @Operation(
+            summary = "📦 Consultar varios códigos postales en una petición",
+            description = """
+                    Resuelve hasta 1000 códigos postales (configurable con `zipcode.batch.max-size`)
+                    en una sola petición, contra el mismo índice en memoria.
+
+                    ### Formatos aceptados:
+                    - `application/json` - arreglo de códigos: `["01000", "44100"]`
+                    - `text/plain` - un código por línea
+
+                    ### Características:
+                    - ✅ Resultados en el mismo orden que la petición
+                    - ✅ Los códigos inexistentes o mal formados regresan `found: false` en lugar de error
+                    - ✅ Todo el lote cuenta como una sola petición para el rate limiting
+                      (configurable con `ratelimit.batch-weight`)
+                    """,
+            tags = {"Búsqueda Directa"}
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Lote resuelto",
+                    content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = BatchLookupResult.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Lote vacío o demasiado grande",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+            mediaType = "application/json",
+            array = @ArraySchema(schema = @Schema(type = "string", example = "01000"))))
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<BatchLookupResult>> batchLookup(InputStream body) {
+        return ResponseEntity.ok(zipCodeService.batchLookup(readJsonBatch(body)));
+    }
+
+    @Operation(
+            summary = "📦 Consultar varios códigos postales (un código por línea)",
+            description = "Igual que la variante JSON, recibiendo un código postal por línea; las líneas vacías se ignoran.",
+            tags = {"Búsqueda Directa"}
+    )
+    @io.swagger.v3.oas.annotations.parameters.RequestBody(content = @Content(
+            mediaType = "text/plain",
+            schema = @Schema(type = "string", example = "01000\n44100")))
+    @PostMapping(value = "/batch", consumes = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<List<BatchLookupResult>> batchLookupLines(InputStream body) throws IOException {
+        return ResponseEntity.ok(zipCodeService.batchLookup(readLineBatch(body)));
+    }
+
+    /**
+     * Reads the JSON array one code at a time and stops one past the batch
+     * limit, so an oversized batch is rejected by the service without being
+     * bound as a whole first.
+     */
+    private List<String> readJsonBatch(InputStream body) {
+        int limit = zipCodeService.getMaxBatchSize() + 1;
+        List<String> zipcodes = new ArrayList<>();
+        try (JsonParser parser = jsonMapper.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException(BATCH_FORMAT_MESSAGE);
+            }
+            JsonToken token;
+            while (zipcodes.size() < limit && (token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null || token.isStructStart()) {
+                    throw new IllegalArgumentException(BATCH_FORMAT_MESSAGE);
+                }
+                zipcodes.add(token == JsonToken.VALUE_NULL ? null : parser.getString());
+            }
+        } catch (JacksonException e) {
+            throw new IllegalArgumentException(BATCH_FORMAT_MESSAGE, e);
+        }
+        return zipcodes;
+    }
+
+    // Same bound as readJsonBatch, one non-empty line per code
+    private List<String> readLineBatch(InputStream body) throws IOException {
+        int limit = zipCodeService.getMaxBatchSize() + 1;
+        List<String> zipcodes = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        String line;
+        while (zipcodes.size() < limit && (line = reader.readLine()) != null) {
+            line = line.trim();
+            if (!line.isEmpty()) {
+                zipcodes.add(line);
+            }
+        }
+        return zipcodes;
     }
 
     @Operation(
@@ -104,6 +253,7 @@ public class Controller {
                     - ✅ Insensible a acentos ("Mexico" = "México")
                     - ✅ Insensible a mayúsculas
                     - ✅ Resultados paginados
+                    - ✅ Paginación por cursor, con el mismo costo en cualquier página
 
                     ### Ejemplos:
                     - `federal_entity=Ciudad de México&page=0&size=20`
@@ -113,6 +263,7 @@ public class Controller {
                     ### Parámetros de paginación:
                     - `page`: Número de página (inicia en 0)
                     - `size`: Elementos por página (1-100, default: 20)
+                    - `cursor`: Valor de `nextCursor` de la respuesta anterior; continúa justo después de su último código postal
                     """,
             tags = {"Búsqueda por Ubicación"}
     )
@@ -137,7 +288,7 @@ public class Controller {
             )
     })
     @GetMapping
-    public ResponseEntity<PagedResponse<ZipCode>> searchByFederalEntity(
+    public ResponseEntity<?> searchByFederalEntity(
             @Parameter(
                     description = "Término de búsqueda para la entidad federativa (puede ser parcial)",
                     required = true,
@@ -153,15 +304,24 @@ public class Controller {
             @Max(value = 10_000, message = "El número de página es inválido")
             int page,
 
+            @Parameter(description = "Cursor `nextCursor` de la página anterior; si se envía, `page` se ignora")
+            @RequestParam(value = "cursor", required = false)
+            String cursor,
+
             @Parameter(description = "Tamaño de página")
             @RequestParam(value = "size", defaultValue = "20")
             @Min(value = 1, message = "El tamaño debe ser mayor a 0")
             @Max(value = 100, message = "El tamaño máximo es 100")
-            int size
+            int size,
+
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding
     ) {
+        if (cursor != null) {
+            return ResponseEntity.ok(zipCodeService.searchByFederalEntityAfter(federalEntity, cursor, size));
+        }
         // Service handles pagination internally, avoiding full list materialization
-        PagedResponse<ZipCode> response = zipCodeService.searchByFederalEntity(federalEntity, page, size);
-        return ResponseEntity.ok(response);
+        return precompressed(responseCache.federalEntityPage(federalEntity, page, size), acceptEncoding);
     }
 
 
@@ -174,11 +334,13 @@ public class Controller {
                     - ✅ Búsqueda parcial
                     - ✅ Insensible a acentos y mayúsculas
                     - ✅ Resultados paginados
+                    - ✅ Paginación por cursor con `nextCursor`
 
                     ### Ejemplos:
                     - `municipality=Guadalajara&page=0&size=20`
                     - `municipality=Alvaro Obregon` (sin acentos)
                     - `municipality=monte&page=0` (búsqueda parcial)
+                    - `municipality=monte&cursor=<nextCursor>` (página siguiente)
                     """,
             tags = {"Búsqueda por Ubicación"}
     )
@@ -203,7 +365,7 @@ public class Controller {
             )
     })
     @GetMapping("/by-municipality")
-    public ResponseEntity<PagedResponse<ZipCode>> searchByMunicipality(
+    public ResponseEntity<?> searchByMunicipality(
             @Parameter(
                     description = "Término de búsqueda para el municipio (puede ser parcial)",
                     required = true,
@@ -219,15 +381,161 @@ public class Controller {
             @Max(value = 10_000, message = "El número de página es inválido")
             int page,
 
+            @Parameter(description = "Cursor `nextCursor` de la página anterior; si se envía, `page` se ignora")
+            @RequestParam(value = "cursor", required = false)
+            String cursor,
+
             @Parameter(description = "Tamaño de página")
             @RequestParam(value = "size", defaultValue = "20")
             @Min(value = 1, message = "El tamaño debe ser mayor a 0")
             @Max(value = 100, message = "El tamaño máximo es 100")
-            int size
+            int size,
+
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding
     ) {
+        if (cursor != null) {
+            return ResponseEntity.ok(zipCodeService.searchByMunicipalityAfter(municipality, cursor, size));
+        }
         // Service handles pagination internally, avoiding full list materialization
-        PagedResponse<ZipCode> response = zipCodeService.searchByMunicipality(municipality, page, size);
-        return ResponseEntity.ok(response);
+        return precompressed(responseCache.municipalityPage(municipality, page, size), acceptEncoding);
+    }
+
+    @Operation(
+            summary = "📤 Exportar códigos postales por entidad o municipio (NDJSON)",
+            description = """
+                    Exporta todos los códigos postales de una entidad federativa o de un municipio,
+                    sin paginación, como NDJSON: un objeto JSON por línea, en orden de código postal.
+
+                    ### Características:
+                    - ✅ Cada código postal se escribe en cuanto se lee del índice; la memoria usada
+                      no crece con el tamaño del resultado
+                    - ✅ Búsqueda parcial, insensible a acentos y mayúsculas
+                    - ✅ Indique exactamente uno de `federal_entity` o `municipality`
+
+                    ### Ejemplos:
+                    - `/zip-codes/export?federal_entity=Jalisco`
+                    - `/zip-codes/export?municipality=Guadalajara`
+                    """,
+            tags = {"Búsqueda por Ubicación"}
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Códigos postales, uno por línea",
+                    content = @Content(mediaType = "application/x-ndjson",
+                            schema = @Schema(implementation = ZipCode.class))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Parámetros de búsqueda inválidos",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "No se encontraron códigos postales",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportZipCodes(
+            @Parameter(description = "Entidad federativa (puede ser parcial)", example = "Jalisco")
+            @RequestParam(value = "federal_entity", required = false)
+            String federalEntity,
+
+            @Parameter(description = "Municipio (puede ser parcial)", example = "Guadalajara")
+            @RequestParam(value = "municipality", required = false)
+            String municipality
+    ) {
+        if ((federalEntity == null) == (municipality == null)) {
+            throw new IllegalArgumentException("Indique exactamente uno de federal_entity o municipality");
+        }
+
+        // Resolved before the body starts, so an unknown term still gets a 404
+        Stream<ZipCode> zipCodes = federalEntity != null
+                ? zipCodeService.streamByFederalEntity(federalEntity)
+                : zipCodeService.streamByMunicipality(municipality);
+
+        StreamingResponseBody body = outputStream -> {
+            try (zipCodes; SequenceWriter writer = jsonMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                // Blocking writes on the servlet stream throttle the walk to the client's pace
+                zipCodes.forEach(writer::write);
+                // The separator only goes between values; end the last line too
+                writer.flush();
+                outputStream.write('\n');
+            }
+        };
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    @Operation(
+            summary = "💾 Descargar el catálogo completo",
+            description = """
+                    Descarga todos los códigos postales en un solo archivo, para replicar el
+                    catálogo sin paginar entidad por entidad.
+
+                    ### Formatos:
+                    - `json` - arreglo JSON de códigos postales con sus asentamientos
+                    - `ndjson` - un código postal por línea
+                    - `csv` - una fila por asentamiento
+
+                    ### Características:
+                    - ✅ Archivos comprimidos con gzip una sola vez por versión del catálogo
+                    - ✅ `ETag` fuerte: con `If-None-Match` se responde 304 sin cuerpo
+                    - ✅ Soporte de `Range` para reanudar descargas (solo sobre los bytes gzip)
+                    - ✅ Clientes sin `Accept-Encoding: gzip` reciben el archivo descomprimido
+
+                    ### Ejemplo:
+                    - `curl --compressed -O /zip-codes/bulk/csv`
+                    """,
+            tags = {"Búsqueda por Ubicación"}
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Catálogo completo"),
+            @ApiResponse(responseCode = "206", description = "Rango solicitado del archivo gzip"),
+            @ApiResponse(responseCode = "304", description = "El cliente ya tiene esta versión"),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Formato inválido",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/bulk/{format}")
+    public ResponseEntity<Resource> bulkDownload(
+            @Parameter(description = "Formato: json, ndjson o csv", example = "csv")
+            @PathVariable("format")
+            String format,
+
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding
+    ) {
+        BulkExportService.Artifact artifact =
+                bulkExportService.artifact(BulkExportService.Format.fromExtension(format));
+        String filename = "codigos-postales-v" + artifact.catalogVersion() + "." + artifact.format().extension();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(artifact.format().mediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"");
+        if (Util.acceptsGzip(acceptEncoding)) {
+            // A Resource body gets If-None-Match and Range handling from Spring MVC
+            return response
+                    .eTag(artifact.etag())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(new ByteArrayResource(artifact.gzip()));
+        }
+
+        // Decompressed on the fly for clients without gzip, a different representation with its own tag.
+        // Spring MVC cannot cut a stream into ranges, so it is always sent whole and says so.
+        return response
+                .eTag(artifact.etag().replace("\"", "") + "-identity")
+                .header(HttpHeaders.ACCEPT_RANGES, "none")
+                .body(new InputStreamResource(gunzip(artifact.gzip())));
     }
 
     @Operation(
@@ -265,9 +573,11 @@ public class Controller {
             )
     })
     @GetMapping("/stats")
-    public ResponseEntity<ZipCodeStats> getStats() {
-        ZipCodeStats stats = zipCodeService.getStatistics();
-        return ResponseEntity.ok(stats);
+    public ResponseEntity<byte[]> getStats(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding
+    ) {
+        return precompressed(responseCache.stats(), acceptEncoding);
     }
 
     @Operation(
@@ -280,6 +590,7 @@ public class Controller {
                     - ✅ Búsqueda por prefijo (ej: "010" encuentra "01000", "01010", etc.)
                     - ✅ Límite configurable de resultados
                     - ✅ Resultados ordenados numéricamente
+                    - ✅ Total exacto de coincidencias en el encabezado `X-Total-Count`
 
                     ### Ejemplos:
                     - `/zip-codes/search?code=010&limit=5` - Primeros 5 códigos que inician con "010"
@@ -330,15 +641,16 @@ public class Controller {
             boolean simplified
     ) {
         List<ZipCode> results = zipCodeService.searchByPartialCode(code, limit);
+        String totalCount = String.valueOf(zipCodeService.countByPartialCode(code));
 
         if (simplified) {
             List<ZipCodeSimplified> simplifiedResults = results.stream()
                     .map(ZipCodeSimplified::fromZipCode)
                     .toList();
-            return ResponseEntity.ok(simplifiedResults);
+            return ResponseEntity.ok().header(TOTAL_COUNT_HEADER, totalCount).body(simplifiedResults);
         }
 
-        return ResponseEntity.ok(results);
+        return ResponseEntity.ok().header(TOTAL_COUNT_HEADER, totalCount).body(results);
     }
 
     @Operation(
@@ -365,9 +677,11 @@ public class Controller {
             )
     })
     @GetMapping("/federal-entities")
-    public ResponseEntity<List<FederalEntity>> getAllFederalEntities() {
-        List<FederalEntity> entities = zipCodeService.getAllFederalEntities();
-        return ResponseEntity.ok(entities);
+    public ResponseEntity<byte[]> getAllFederalEntities(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding
+    ) {
+        return precompressed(responseCache.federalEntities(), acceptEncoding);
     }
 
     @Operation(
@@ -401,7 +715,7 @@ public class Controller {
             )
     })
     @GetMapping("/federal-entities/{federalEntity}/municipalities")
-    public ResponseEntity<List<String>> getMunicipalitiesByFederalEntity(
+    public ResponseEntity<byte[]> getMunicipalitiesByFederalEntity(
             @Parameter(
                     description = "Nombre de la entidad federativa",
                     required = true,
@@ -409,10 +723,12 @@ public class Controller {
             )
             @PathVariable("federalEntity")
             @NotBlank(message = "La entidad federativa no puede estar vacía")
-            String federalEntity
+            String federalEntity,
+
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+            String acceptEncoding
     ) {
-        List<String> municipalities = zipCodeService.getMunicipalitiesByFederalEntity(federalEntity);
-        return ResponseEntity.ok(municipalities);
+        return precompressed(responseCache.municipalitiesOf(federalEntity), acceptEncoding);
     }
 
     @Operation(
@@ -465,6 +781,124 @@ public class Controller {
         return ResponseEntity.ok(settlements);
     }
 
+    @Operation(
+            summary = "🔤 Búsqueda tolerante a errores de escritura",
+            description = """
+                    Encuentra entidades federativas, municipios y asentamientos cuyo nombre
+                    esté a 1 o 2 ediciones (letras agregadas, eliminadas o cambiadas) del
+                    término buscado, ignorando acentos y mayúsculas.
+
+                    ### Orden de resultados:
+                    1. Menor distancia de edición
+                    2. Mayor número de códigos postales con ese nombre
+
+                    ### Ejemplos:
+                    - `/zip-codes/fuzzy?q=Tlaquepake` - San Pedro Tlaquepaque
+                    - `/zip-codes/fuzzy?q=Nezahualcoyotl&type=municipality`
+                    - `/zip-codes/fuzzy?q=Juchitan&max_distance=1`
+                    """,
+            tags = {"Búsqueda Directa"}
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Nombres similares encontrados",
+                    content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = FuzzyMatch.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Parámetros inválidos",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "No se encontraron nombres similares",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/fuzzy")
+    public ResponseEntity<List<FuzzyMatch>> fuzzySearch(
+            @Parameter(description = "Término a buscar, puede contener errores", required = true, example = "Tlaquepake")
+            @RequestParam("q")
+            @NotBlank(message = "El término de búsqueda no puede estar vacío")
+            String query,
+
+            @Parameter(description = "Tipo de nombre: federal_entity, municipality o settlement (por defecto todos)")
+            @RequestParam(value = "type", required = false)
+            @Pattern(regexp = "federal_entity|municipality|settlement",
+                    message = "El tipo debe ser federal_entity, municipality o settlement")
+            String type,
+
+            @Parameter(description = "Distancia de edición máxima (1-2)")
+            @RequestParam(value = "max_distance", defaultValue = "2")
+            @Min(value = 1, message = "La distancia mínima es 1")
+            @Max(value = 2, message = "La distancia máxima es 2")
+            int maxDistance,
+
+            @Parameter(description = "Número máximo de resultados (1-50)")
+            @RequestParam(value = "limit", defaultValue = "10")
+            @Min(value = 1, message = "El límite debe ser mayor a 0")
+            @Max(value = 50, message = "El límite máximo es 50")
+            int limit
+    ) {
+        return ResponseEntity.ok(zipCodeService.fuzzySearch(query, type, maxDistance, limit));
+    }
+
+    @Operation(
+            summary = "⌨️ Autocompletado de asentamientos",
+            description = """
+                    Sugiere nombres de colonias/asentamientos que empiezan con el texto escrito,
+                    ignorando acentos y mayúsculas, junto con sus códigos postales.
+
+                    ### Orden de resultados:
+                    1. Mayor número de asentamientos con ese nombre
+                    2. Orden alfabético
+
+                    ### Ejemplos:
+                    - `/zip-codes/autocomplete?q=San Á` - San Ángel, San Andrés...
+                    - `/zip-codes/autocomplete?q=Lomas&limit=5`
+                    """,
+            tags = {"Búsqueda Directa"}
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "Sugerencias encontradas",
+                    content = @Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = SettlementSuggestion.class)))
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Parámetros inválidos",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "Ningún asentamiento empieza con el texto",
+                    content = @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))
+            )
+    })
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<SettlementSuggestion>> autocompleteSettlements(
+            @Parameter(description = "Inicio del nombre del asentamiento", required = true, example = "San Á")
+            @RequestParam("q")
+            @NotBlank(message = "El término de búsqueda no puede estar vacío")
+            String query,
+
+            @Parameter(description = "Número máximo de sugerencias (1-50)")
+            @RequestParam(value = "limit", defaultValue = "10")
+            @Min(value = 1, message = "El límite debe ser mayor a 0")
+            @Max(value = 50, message = "El límite máximo es 50")
+            int limit
+    ) {
+        return ResponseEntity.ok(zipCodeService.autocompleteSettlements(query, limit));
+    }
+
     @Operation(
             summary = "🔬 Búsqueda avanzada",
             description = """
@@ -481,7 +915,7 @@ public class Controller {
                     - ✅ Todos los filtros son opcionales (pero al menos uno requerido)
                     - ✅ Búsqueda parcial en todos los campos
                     - ✅ Insensible a acentos y mayúsculas
-                    - ✅ Paginación incluida
+                    - ✅ Paginación incluida, por página o por cursor (`nextCursor`)
                     - ✅ Opción de respuesta simplificada
 
                     ### Ejemplo:
@@ -540,6 +974,10 @@ public class Controller {
             @Max(value = 10_000, message = "El número de página es inválido")
             int page,
 
+            @Parameter(description = "Cursor `nextCursor` de la página anterior; si se envía, `page` se ignora")
+            @RequestParam(value = "cursor", required = false)
+            String cursor,
+
             @Parameter(description = "Tamaño de página")
             @RequestParam(value = "size", defaultValue = "20")
             @Min(value = 1, message = "El tamaño debe ser mayor a 0")
@@ -561,7 +999,9 @@ public class Controller {
                 .simplified(simplified)
                 .build();
 
-        PagedResponse<ZipCode> response = zipCodeService.advancedSearch(request, page, size);
+        PagedResponse<ZipCode> response = cursor != null
+                ? zipCodeService.advancedSearchAfter(request, cursor, size)
+                : zipCodeService.advancedSearch(request, page, size);
 
         if (simplified) {
             List<ZipCodeSimplified> simplifiedResults = response.getContent().stream()
@@ -576,6 +1016,7 @@ public class Controller {
                     .totalPages(response.getTotalPages())
                     .first(response.isFirst())
                     .last(response.isLast())
+                    .nextCursor(response.getNextCursor())
                     .build();
 
             return ResponseEntity.ok(simplifiedResponse);
@@ -583,4 +1024,28 @@ public class Controller {
 
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    // Stored gzip bytes when the client takes them, identity otherwise; Tomcat
+    // does not compress a response that already carries a Content-Encoding
+    private static ResponseEntity<byte[]> precompressed(
+            PrecompressedResponseCache.Variants variants, String acceptEncoding) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (variants.gzip() != null && Util.acceptsGzip(acceptEncoding)) {
+            return response
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .contentLength(variants.gzip().length)
+                    .body(variants.gzip());
+        }
+        return response.contentLength(variants.identity().length).body(variants.identity());
+    }
+
+    private static InputStream gunzip(byte[] gzip) {
+        try {
+            return new GZIPInputStream(new ByteArrayInputStream(gzip));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
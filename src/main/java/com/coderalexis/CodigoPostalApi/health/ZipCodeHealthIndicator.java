@@ -34,6 +34,8 @@ public class ZipCodeHealthIndicator implements HealthIndicator {
 
         return Health.up()
                 .withDetail("zipCodeCount", zipCodeCount)
+                .withDetail("catalogVersion", zipCodeService.getCatalogVersion())
+                .withDetail("loadedAt", zipCodeService.getCatalogLoadedAt())
                 .withDetail("status", "Data loaded successfully")
                 .build();
     }
@@ -0,0 +1,27 @@
+package com.coderalexis.CodigoPostalApi.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de un código postal dentro de una consulta por lote.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchLookupResult {
+    // Código postal tal como se recibió, sin espacios
+    @JsonProperty("zip_code")
+    private String zipCode;
+
+    private boolean found;
+
+    // Solo presente cuando found es true
+    private ZipCode data;
+}
@@ -0,0 +1,27 @@
+package com.coderalexis.CodigoPostalApi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Nombre del catálogo cercano a un término escrito con errores.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FuzzyMatch {
+    // federal_entity, municipality o settlement
+    private String type;
+
+    private String name;
+
+    // Número de ediciones entre el término normalizado y el nombre normalizado
+    private int distance;
+
+    @JsonProperty("zip_codes_count")
+    private int zipCodesCount;
+}
@@ -1,5 +1,6 @@
 package com.coderalexis.CodigoPostalApi.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,4 +19,8 @@ public class PagedResponse<T> {
     private int totalPages;
     private boolean first;
     private boolean last;
-}
\ No newline at end of file
+
+    // Cursor opaco de la siguiente página; ausente en la última
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String nextCursor;
+}
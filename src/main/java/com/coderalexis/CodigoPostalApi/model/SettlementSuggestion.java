@@ -0,0 +1,27 @@
+package com.coderalexis.CodigoPostalApi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Nombre de asentamiento sugerido para un prefijo, con sus códigos postales.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementSuggestion {
+    private String name;
+
+    // Número de asentamientos con este nombre en el catálogo, usado para ordenar
+    @JsonProperty("settlements_count")
+    private int settlementsCount;
+
+    @JsonProperty("zip_codes")
+    private List<String> zipCodes;
+}
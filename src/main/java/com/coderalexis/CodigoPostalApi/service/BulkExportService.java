@@ -0,0 +1,242 @@
+package com.coderalexis.CodigoPostalApi.service;
+
+import com.coderalexis.CodigoPostalApi.catalog.CatalogPublishedEvent;
+import com.coderalexis.CodigoPostalApi.catalog.ZipCodeCatalog;
+import com.coderalexis.CodigoPostalApi.model.Settlements;
+import com.coderalexis.CodigoPostalApi.model.ZipCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.SequenceWriter;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Whole-catalog downloads, precompressed once per catalog version.
+ *
+ * Every format is serialized into a gzip byte array when a snapshot is
+ * published: at startup and after every reload, in the background, at about
+ * a second per format for the full catalog. A download then copies bytes that
+ * already exist instead of walking and serializing 30,000+ zip codes per
+ * request. A request that arrives before the background build finishes
+ * builds the artifacts itself, once, under a lock.
+ */
+@Slf4j
+@Service
+public class BulkExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String CSV_HEADER =
+            "zip_code,federal_entity,municipality,locality,settlement,settlement_type,zone_type\n";
+
+    public enum Format {
+        JSON("json", MediaType.APPLICATION_JSON),
+        NDJSON("ndjson", MediaType.parseMediaType("application/x-ndjson")),
+        CSV("csv", MediaType.parseMediaType("text/csv;charset=UTF-8"));
+
+        private final String extension;
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public static Format fromExtension(String extension) {
+            for (Format format : values()) {
+                if (format.extension.equals(extension.toLowerCase(Locale.ROOT))) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("El formato debe ser uno de: json, ndjson, csv");
+        }
+    }
+
+    /**
+     * One format of one catalog version, gzip-compressed. The strong ETag is a
+     * hash of the compressed bytes. The array is shared; callers must not modify it.
+     */
+    public record Artifact(Format format, long catalogVersion, byte[] gzip, String etag) {
+    }
+
+    private record Artifacts(long catalogVersion, Map<Format, Artifact> byFormat) {
+    }
+
+    private final ZipCodeService zipCodeService;
+    private final JsonMapper jsonMapper;
+    private final Object buildLock = new Object();
+    private volatile Artifacts artifacts;
+
+    public BulkExportService(ZipCodeService zipCodeService, JsonMapper jsonMapper) {
+        this.zipCodeService = zipCodeService;
+        this.jsonMapper = jsonMapper;
+    }
+
+    public Artifact artifact(Format format) {
+        ZipCodeCatalog current = zipCodeService.currentCatalog();
+        if (!current.isLoaded()) {
+            throw new IllegalStateException("El catalogo de codigos postales no esta cargado");
+        }
+        return artifactsFor(current).byFormat().get(format);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void prebuildOnStartup() {
+        prebuild(zipCodeService.currentCatalog());
+    }
+
+    @EventListener
+    public void prebuildOnReload(CatalogPublishedEvent event) {
+        prebuild(event.catalog());
+    }
+
+    private void prebuild(ZipCodeCatalog catalog) {
+        if (!catalog.isLoaded()) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> artifactsFor(catalog)).exceptionally(e -> {
+            log.warn("No se pudieron generar las descargas del catalogo version {}", catalog.version(), e);
+            return null;
+        });
+    }
+
+    private Artifacts artifactsFor(ZipCodeCatalog catalog) {
+        Artifacts current = artifacts;
+        // A newer build also serves readers still holding an older snapshot
+        if (current != null && current.catalogVersion() >= catalog.version()) {
+            return current;
+        }
+        synchronized (buildLock) {
+            current = artifacts;
+            if (current != null && current.catalogVersion() >= catalog.version()) {
+                return current;
+            }
+
+            long start = System.currentTimeMillis();
+            Map<Format, Artifact> byFormat = new EnumMap<>(Format.class);
+            for (Format format : Format.values()) {
+                byte[] gzip = compress(catalog, format);
+                byFormat.put(format, new Artifact(format, catalog.version(), gzip, etag(gzip)));
+            }
+            Artifacts built = new Artifacts(catalog.version(), byFormat);
+            artifacts = built;
+
+            log.info("Descargas del catalogo version {} generadas en {}ms: {}", catalog.version(),
+                    System.currentTimeMillis() - start, describe(byFormat));
+            return built;
+        }
+    }
+
+    private byte[] compress(ZipCodeCatalog catalog, Format format) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(BUFFER_SIZE);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes, BUFFER_SIZE)) {
+            switch (format) {
+                case JSON -> writeJson(catalog, gzip);
+                case NDJSON -> writeNdjson(catalog, gzip);
+                case CSV -> writeCsv(catalog, gzip);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private void writeJson(ZipCodeCatalog catalog, OutputStream out) {
+        // Closing the writer ends the array
+        try (SequenceWriter writer = jsonMapper.writer().writeValuesAsArray(out)) {
+            for (int ordinal = 0; ordinal < catalog.size(); ordinal++) {
+                writer.write(catalog.toZipCode(ordinal));
+            }
+        }
+    }
+
+    private void writeNdjson(ZipCodeCatalog catalog, OutputStream out) throws IOException {
+        try (SequenceWriter writer = jsonMapper.writer().withRootValueSeparator("\n").writeValues(out)) {
+            for (int ordinal = 0; ordinal < catalog.size(); ordinal++) {
+                writer.write(catalog.toZipCode(ordinal));
+            }
+            // The separator only goes between values; end the last line too
+            writer.flush();
+            out.write('\n');
+        }
+    }
+
+    // One row per settlement
+    private static void writeCsv(ZipCodeCatalog catalog, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(CSV_HEADER);
+        for (int ordinal = 0; ordinal < catalog.size(); ordinal++) {
+            ZipCode zipCode = catalog.toZipCode(ordinal);
+            for (Settlements settlement : zipCode.getSettlements()) {
+                writeCsvField(writer, zipCode.getZipCode(), ',');
+                writeCsvField(writer, zipCode.getFederalEntity(), ',');
+                writeCsvField(writer, zipCode.getMunicipality(), ',');
+                writeCsvField(writer, zipCode.getLocality(), ',');
+                writeCsvField(writer, settlement.getName(), ',');
+                writeCsvField(writer, settlement.getSettlementType(), ',');
+                writeCsvField(writer, settlement.getZoneType(), '\n');
+            }
+        }
+        writer.flush();
+    }
+
+    // RFC 4180: quote fields holding a separator, quote or line break
+    private static void writeCsvField(Writer writer, String value, char terminator) throws IOException {
+        if (value != null) {
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                    || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write(terminator);
+    }
+
+    private static String etag(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static String describe(Map<Format, Artifact> byFormat) {
+        StringBuilder summary = new StringBuilder();
+        byFormat.forEach((format, artifact) -> summary
+                .append(summary.isEmpty() ? "" : ", ")
+                .append(format.extension())
+                .append(' ')
+                .append(artifact.gzip().length / 1024)
+                .append(" KB"));
+        return summary.toString();
+    }
+}
@@ -0,0 +1,56 @@
+package com.coderalexis.CodigoPostalApi.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.CRC32;
+
+/**
+ * Opaque keyset cursor: the last zip code of a page plus a checksum of the
+ * search it belongs to, Base64url-encoded.
+ *
+ * The next page starts at the first zip code after the one in the cursor, so
+ * it is found by binary search however deep the client has paged, and a reload
+ * between requests neither repeats nor skips zip codes that stayed in the
+ * catalog. The checksum rejects a cursor replayed against a different search.
+ */
+final class PageCursor {
+    private static final String INVALID_CURSOR = "Cursor invalido para esta busqueda";
+
+    private PageCursor() {
+    }
+
+    static String encode(String scope, String lastZipCode) {
+        String payload = checksum(scope) + ":" + lastZipCode;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Numeric value of the last zip code in the cursor.
+     *
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another search
+     */
+    static int decode(String cursor, String scope) {
+        String payload;
+        try {
+            payload = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.US_ASCII);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(INVALID_CURSOR);
+        }
+
+        int separator = payload.indexOf(':');
+        if (separator < 0 || !payload.substring(0, separator).equals(checksum(scope))) {
+            throw new IllegalArgumentException(INVALID_CURSOR);
+        }
+        String zipCode = payload.substring(separator + 1);
+        if (zipCode.length() != 5 || !zipCode.chars().allMatch(Character::isDigit)) {
+            throw new IllegalArgumentException(INVALID_CURSOR);
+        }
+        return Integer.parseInt(zipCode);
+    }
+
+    private static String checksum(String scope) {
+        CRC32 crc = new CRC32();
+        crc.update(scope.getBytes(StandardCharsets.UTF_8));
+        return Long.toHexString(crc.getValue());
+    }
+}
@@ -0,0 +1,116 @@
+package com.coderalexis.CodigoPostalApi.service;
+
+import com.coderalexis.CodigoPostalApi.util.Util;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized JSON responses kept next to their gzip encoding, so that a
+ * repeated request is answered with bytes that already exist instead of being
+ * serialized and compressed again by Tomcat.
+ *
+ * Entries live in the "responses" cache, under the shared heap budget of
+ * CacheConfiguration and weighed by the bytes of both encodings. Keys start
+ * with the catalog version like the search caches, so a reload makes every
+ * stored response unreachable at once. Bodies below
+ * {@code server.compression.min-response-size} are stored only as identity,
+ * matching what Tomcat would have sent.
+ */
+@Service
+public class PrecompressedResponseCache {
+
+    /**
+     * Identity and gzip encodings of one response. {@code gzip} is null when
+     * the body is too small to be worth compressing. The arrays are shared;
+     * callers must not modify them.
+     */
+    public record Variants(byte[] identity, byte[] gzip) {
+    }
+
+    private final ZipCodeService zipCodeService;
+    private final JsonMapper jsonMapper;
+    private final int minCompressedSize;
+    private final Cache responses;
+
+    public PrecompressedResponseCache(
+            ZipCodeService zipCodeService,
+            JsonMapper jsonMapper,
+            CacheManager cacheManager,
+            @Value("${server.compression.min-response-size:1KB}") DataSize minCompressedSize) {
+        this.zipCodeService = zipCodeService;
+        this.jsonMapper = jsonMapper;
+        this.minCompressedSize = (int) minCompressedSize.toBytes();
+        this.responses = cacheManager.getCache("responses");
+    }
+
+    public Variants stats() {
+        return get("stats", zipCodeService::getStatistics);
+    }
+
+    public Variants federalEntities() {
+        return get("federal-entities", zipCodeService::getAllFederalEntities);
+    }
+
+    public Variants municipalitiesOf(String federalEntity) {
+        return get("municipalities|" + Util.normalizeCacheKey(federalEntity),
+                () -> zipCodeService.getMunicipalitiesByFederalEntity(federalEntity));
+    }
+
+    /**
+     * One page-number page of a federal entity search. These pages are cached
+     * only here, as bytes; the service method itself is not cached.
+     */
+    public Variants federalEntityPage(String federalEntity, int page, int size) {
+        return get("federal_entity|" + Util.normalizeCacheKey(federalEntity) + "|" + page + "|" + size,
+                () -> zipCodeService.searchByFederalEntity(federalEntity, page, size));
+    }
+
+    /**
+     * Same as {@link #federalEntityPage(String, int, int)} for municipalities.
+     */
+    public Variants municipalityPage(String municipality, int page, int size) {
+        return get("municipality|" + Util.normalizeCacheKey(municipality) + "|" + page + "|" + size,
+                () -> zipCodeService.searchByMunicipality(municipality, page, size));
+    }
+
+    /**
+     * Stored encodings of the response for {@code key} in the current catalog
+     * version, serializing and compressing {@code body} on a miss. Exceptions
+     * from {@code body} propagate and nothing is stored.
+     */
+    public Variants get(String key, Supplier<?> body) {
+        String versionedKey = zipCodeService.getCatalogVersion() + "_" + key;
+        // Not Cache.get(key, loader): it would wrap not-found and validation errors
+        Variants stored = responses.get(versionedKey, Variants.class);
+        if (stored == null) {
+            stored = render(body.get());
+            responses.put(versionedKey, stored);
+        }
+        return stored;
+    }
+
+    private Variants render(Object body) {
+        byte[] identity = jsonMapper.writeValueAsBytes(body);
+        return new Variants(identity, identity.length >= minCompressedSize ? gzip(identity) : null);
+    }
+
+    private static byte[] gzip(byte[] content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+}
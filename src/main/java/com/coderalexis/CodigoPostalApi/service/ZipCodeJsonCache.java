@@ -0,0 +1,74 @@
+package com.coderalexis.CodigoPostalApi.service;
+
+import com.coderalexis.CodigoPostalApi.catalog.ZipCodeCatalog;
+import com.coderalexis.CodigoPostalApi.model.ZipCode;
+import com.coderalexis.CodigoPostalApi.model.ZipCodeSimplified;
+import org.springframework.stereotype.Service;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * JSON bodies of direct zip code lookups, serialized once per catalog snapshot.
+ *
+ * A snapshot never changes once published, so the bytes Jackson writes for a
+ * zip code are the same on every request. Each ordinal has one slot per form
+ * (full and simplified), filled the first time it is requested; later hits
+ * return the stored bytes without building a ZipCode or touching Jackson. The
+ * slots belong to one snapshot and are dropped with it, so a reload needs no
+ * invalidation. Filled slots never hold more than the catalog's JSON (about
+ * 20 MB for the full form) and in practice only the requested zip codes.
+ */
+@Service
+public class ZipCodeJsonCache {
+
+    private record Slots(ZipCodeCatalog catalog, AtomicReferenceArray<byte[]> full,
+                         AtomicReferenceArray<byte[]> simplified) {
+    }
+
+    private final ZipCodeService zipCodeService;
+    private final JsonMapper jsonMapper;
+    private volatile Slots slots;
+
+    public ZipCodeJsonCache(ZipCodeService zipCodeService, JsonMapper jsonMapper) {
+        this.zipCodeService = zipCodeService;
+        this.jsonMapper = jsonMapper;
+    }
+
+    /**
+     * JSON of one zip code in the current snapshot. The array is shared;
+     * callers must not modify it.
+     *
+     * @throws com.coderalexis.CodigoPostalApi.exceptions.ZipCodeNotFoundException if the zip code does not exist
+     */
+    public byte[] render(String zipcode, boolean simplified) {
+        Slots current = slotsFor(zipCodeService.currentCatalog());
+        int ordinal = zipCodeService.getZipCodeOrdinal(current.catalog(), zipcode);
+        AtomicReferenceArray<byte[]> form = simplified ? current.simplified() : current.full();
+
+        byte[] json = form.get(ordinal);
+        if (json == null) {
+            // Concurrent first hits render equal bytes; whichever lands last stays
+            json = serialize(current.catalog(), ordinal, simplified);
+            form.set(ordinal, json);
+        }
+        return json;
+    }
+
+    private Slots slotsFor(ZipCodeCatalog catalog) {
+        Slots current = slots;
+        // Newer slots also serve readers still holding an older snapshot
+        if (current != null && current.catalog().version() >= catalog.version()) {
+            return current;
+        }
+        Slots fresh = new Slots(catalog, new AtomicReferenceArray<>(catalog.size()),
+                new AtomicReferenceArray<>(catalog.size()));
+        slots = fresh;
+        return fresh;
+    }
+
+    private byte[] serialize(ZipCodeCatalog catalog, int ordinal, boolean simplified) {
+        ZipCode zipCode = catalog.toZipCode(ordinal);
+        return jsonMapper.writeValueAsBytes(simplified ? ZipCodeSimplified.fromZipCode(zipCode) : zipCode);
+    }
+}
@@ -1,10 +1,21 @@
 package com.coderalexis.CodigoPostalApi.service;
 
+import com.coderalexis.CodigoPostalApi.catalog.BitmapIndex;
+import com.coderalexis.CodigoPostalApi.catalog.CatalogPublishedEvent;
+import com.coderalexis.CodigoPostalApi.catalog.FuzzyIndex;
+import com.coderalexis.CodigoPostalApi.catalog.ZipCodeCatalog;
+import com.coderalexis.CodigoPostalApi.catalog.ZipCodeFileLoader;
+import com.coderalexis.CodigoPostalApi.catalog.PostingIndex;
+import com.coderalexis.CodigoPostalApi.catalog.PrefixIndex;
+import com.coderalexis.CodigoPostalApi.catalog.ZipCodeSnapshot;
 import com.coderalexis.CodigoPostalApi.config.MetricsConfiguration;
 import com.coderalexis.CodigoPostalApi.exceptions.ZipCodeNotFoundException;
 import com.coderalexis.CodigoPostalApi.model.AdvancedSearchRequest;
+import com.coderalexis.CodigoPostalApi.model.BatchLookupResult;
 import com.coderalexis.CodigoPostalApi.model.FederalEntity;
+import com.coderalexis.CodigoPostalApi.model.FuzzyMatch;
 import com.coderalexis.CodigoPostalApi.model.PagedResponse;
+import com.coderalexis.CodigoPostalApi.model.SettlementSuggestion;
 import com.coderalexis.CodigoPostalApi.model.Settlements;
 import com.coderalexis.CodigoPostalApi.model.ZipCode;
 import com.coderalexis.CodigoPostalApi.model.ZipCodeStats;
@@ -13,381 +24,396 @@ import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.core.io.ClassPathResource;
 
 import java.io.*;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.nio.file.*;
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.Collection;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import java.util.List;
-import java.util.function.Predicate;
 
 @Service
 @Slf4j
 public class ZipCodeService {
-    // Pre-compiled Pattern for splitting lines (avoids recompiling on every split call)
-    private static final Pattern PIPE_PATTERN = Pattern.compile("\\|");
-
-    // Column indices based on CPdescarga.txt structure
-    private static final int COL_ZIP_CODE = 0;
-    private static final int COL_SETTLEMENT_NAME = 1;
-    private static final int COL_SETTLEMENT_TYPE = 2;
-    private static final int COL_MUNICIPALITY = 3;
-    private static final int COL_FEDERAL_ENTITY = 4;
-    private static final int COL_LOCALITY = 5;
-    private static final int COL_ZONE_TYPE_INDEX = 13;
-    private static final int MIN_COLUMNS = 6;
-    private static final int MAX_ERRORS_THRESHOLD = 100;
-
-    private static final Pattern ZIP_CODE_PATTERN =
-        Pattern.compile("^\\d{5}$");
     // Pre-compiled pattern for validating digit-only input (avoids recompiling on every partial search)
     private static final Pattern DIGITS_PATTERN = Pattern.compile("^\\d+$");
 
-    // Data is loaded once at startup and then treated as read-only. Non-concurrent
-    // collections avoid unnecessary synchronization overhead on the hot read path.
-    private final Map<String, ZipCode> zipCodesByCode = new HashMap<>();
-    // Sorted map for O(log n) prefix searches instead of O(n) full scan
-    private final NavigableMap<String, ZipCode> zipCodesSorted = new TreeMap<>();
-    // Inverted indices for fast searches by entity and municipality
-    private final Map<String, Set<ZipCode>> zipCodesByNormalizedEntity = new HashMap<>();
-    private final Map<String, Set<ZipCode>> zipCodesByNormalizedMunicipality = new HashMap<>();
+    // Name kinds accepted by the fuzzy search, in the order they are searched
+    private static final List<String> FUZZY_TYPES = List.of("federal_entity", "municipality", "settlement");
 
-    // Pre-computed statistics (immutable after load)
-    private volatile ZipCodeStats cachedStats;
-    // Pre-computed federal entities list (immutable after load)
-    private volatile List<FederalEntity> cachedFederalEntities;
+    // Width of the zip-code range covered by a prefix of each length (index = prefix length)
+    private static final int[] PREFIX_SCALES = {100_000, 10_000, 1_000, 100, 10, 1};
 
-    private volatile boolean dataLoaded = false;
-    private int errorCount = 0;
+    // Immutable snapshot of every index. Readers take one reference per call and a
+    // reload publishes a complete replacement with a single volatile write, so no
+    // reader ever sees a half-built index or waits for a reload.
+    private volatile ZipCodeCatalog catalog = ZipCodeCatalog.empty();
+    // Serializes reloads only; the read path never takes this lock
+    private final Object reloadLock = new Object();
 
     private final MetricsConfiguration metricsConfiguration;
+    private final CacheManager cacheManager;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${zipcode.file.path}")
     private String filePath;
 
+    // Parse CPdescarga.txt in line-aligned chunks on several threads to shorten startup
+    @Value("${zipcode.load.parallel:true}")
+    private boolean parallelLoad;
+
+    // Parser threads for the parallel load; 0 uses every available processor
+    @Value("${zipcode.load.parallelism:0}")
+    private int loadParallelism;
+
+    // Memory-map filesystem catalogs instead of reading them into the heap
+    @Value("${zipcode.load.memory-mapped:true}")
+    private boolean memoryMappedLoad;
+
+    // Binary pre-indexed copy of the catalog reused while the source file is unchanged
+    @Value("${zipcode.snapshot.enabled:false}")
+    private boolean snapshotEnabled;
+
+    @Value("${zipcode.snapshot.path:}")
+    private String snapshotPath;
+
+    // Maximum zip codes accepted by one batch lookup
+    @Value("${zipcode.batch.max-size:1000}")
+    private int maxBatchSize;
+
     private static final String RESOURCE_FILE = "CPdescarga.txt";
 
-    public ZipCodeService(MetricsConfiguration metricsConfiguration) {
+    public ZipCodeService(
+            MetricsConfiguration metricsConfiguration,
+            CacheManager cacheManager,
+            ApplicationEventPublisher eventPublisher) {
         this.metricsConfiguration = metricsConfiguration;
+        this.cacheManager = cacheManager;
+        this.eventPublisher = eventPublisher;
     }
 
     public boolean isDataLoaded() {
-        return dataLoaded;
+        return catalog.isLoaded();
     }
 
     public int getZipCodeCount() {
-        return zipCodesByCode.size();
+        return catalog.size();
+    }
+
+    /**
+     * Version of the published snapshot. Search cache keys start with it, so a
+     * reload makes every cached result unreachable in the same instant.
+     */
+    public long getCatalogVersion() {
+        return catalog.version();
+    }
+
+    public Instant getCatalogLoadedAt() {
+        return catalog.loadedAt();
+    }
+
+    /**
+     * The published snapshot. It is immutable, so callers can read it for as
+     * long as they need while reloads publish newer ones.
+     */
+    public ZipCodeCatalog currentCatalog() {
+        return catalog;
     }
 
-    // No @Cacheable needed: Map.get() is already O(1).
+    // No @Cacheable needed: the ordinal lookup is one read of a direct-addressed int[].
     // Caching would add serialization overhead without latency benefit.
     public ZipCode getZipCode(String zipcode) {
         Timer.Sample sample = metricsConfiguration.startTimer();
         try {
             metricsConfiguration.recordSearch("direct");
-            ZipCode zipCode = zipCodesByCode.get(zipcode);
-            if (zipCode == null) {
-                metricsConfiguration.recordSearchError("direct", "not_found");
-                throw new ZipCodeNotFoundException("Codigo postal no encontrado: " + zipcode);
-            }
-            return zipCode;
+            ZipCodeCatalog current = catalog;
+            return current.toZipCode(findOrdinal(current, zipcode));
         } finally {
             metricsConfiguration.recordSearchDuration(sample, "direct");
         }
     }
 
-    @PostConstruct
-    public void loadZipCodes() {
-        try (InputStream stream = getInputStream()) {
-            if (stream == null) {
-                log.error("No se pudo cargar ningun archivo de codigos postales");
-                return;
-            }
-
-            processZipCodeFile(stream);
-            buildPreComputedData();
-
-        } catch (IOException e) {
-            log.error("Error al cargar los codigos postales", e);
+    /**
+     * Ordinal of a zip code in the given snapshot, recorded as a direct lookup
+     * like {@link #getZipCode(String)}, for callers that render the zip code
+     * themselves.
+     */
+    public int getZipCodeOrdinal(ZipCodeCatalog snapshot, String zipcode) {
+        Timer.Sample sample = metricsConfiguration.startTimer();
+        try {
+            metricsConfiguration.recordSearch("direct");
+            return findOrdinal(snapshot, zipcode);
+        } finally {
+            metricsConfiguration.recordSearchDuration(sample, "direct");
         }
     }
 
-    private void buildPreComputedData() {
-        // Make all settlement lists immutable to prevent accidental mutation of internal state
-        for (ZipCode zc : zipCodesByCode.values()) {
-            if (zc.getSettlements() != null) {
-                zc.setSettlements(List.copyOf(zc.getSettlements()));
-            }
-        }
-        log.info("  - Listas de asentamientos convertidas a inmutables");
-
-        // Pre-compute statistics once (data is immutable after load)
-        long totalSettlements = zipCodesByCode.values().stream()
-                .mapToLong(zc -> zc.getSettlements().size())
-                .sum();
-
-        cachedStats = ZipCodeStats.builder()
-                .totalZipCodes(zipCodesByCode.size())
-                .totalFederalEntities(zipCodesByNormalizedEntity.size())
-                .totalMunicipalities(zipCodesByNormalizedMunicipality.size())
-                .totalSettlements(totalSettlements)
-                .build();
-
-        // Pre-compute federal entities list
-        Map<String, List<ZipCode>> zipCodesByEntity = zipCodesByCode.values().stream()
-                .collect(Collectors.groupingBy(ZipCode::getFederalEntity));
-
-        cachedFederalEntities = zipCodesByEntity.entrySet().stream()
-                .map(entry -> {
-                    String entityName = entry.getKey();
-                    List<ZipCode> zipCodes = entry.getValue();
-
-                    long municipalitiesCount = zipCodes.stream()
-                            .map(ZipCode::getMunicipality)
-                            .distinct()
-                            .count();
-
-                    return FederalEntity.builder()
-                            .name(entityName)
-                            .zipCodesCount(zipCodes.size())
-                            .municipalitiesCount((int) municipalitiesCount)
-                            .build();
-                })
-                .sorted(Comparator.comparing(FederalEntity::getName))
-                .toList();
-
-        log.info("  - Estadisticas y entidades federativas pre-computadas");
+    /**
+     * Most zip codes accepted by {@link #batchLookup(List)}.
+     */
+    public int getMaxBatchSize() {
+        return maxBatchSize;
     }
 
-    private InputStream getInputStream() throws IOException {
-        if (filePath != null && filePath.startsWith("classpath:")) {
-            String resourcePath = filePath.substring("classpath:".length());
-            ClassPathResource resource = new ClassPathResource(resourcePath);
-            if (resource.exists()) {
-                log.info("Cargando codigos postales desde classpath: {}", resourcePath);
-                return resource.getInputStream();
+    /**
+     * Resolves many zip codes against one catalog snapshot, in request order.
+     * Unknown or malformed codes come back with found=false instead of an
+     * exception, and a code repeated in the batch is materialized once.
+     */
+    public List<BatchLookupResult> batchLookup(List<String> zipcodes) {
+        Timer.Sample sample = metricsConfiguration.startTimer();
+        try {
+            metricsConfiguration.recordSearch("batch");
+            if (zipcodes == null || zipcodes.isEmpty()) {
+                metricsConfiguration.recordSearchError("batch", "empty_search");
+                throw new IllegalArgumentException("La lista de codigos postales no puede estar vacia");
+            }
+            if (zipcodes.size() > maxBatchSize) {
+                metricsConfiguration.recordSearchError("batch", "invalid_format");
+                throw new IllegalArgumentException(
+                        "Se permiten como maximo " + maxBatchSize + " codigos postales por peticion");
             }
-            log.warn("Recurso no encontrado en classpath: {}", resourcePath);
-        }
 
-        if (filePath != null && !filePath.startsWith("classpath:")) {
-            Path path = Paths.get(filePath);
-            if (Files.exists(path)) {
-                log.info("Cargando codigos postales desde {}", filePath);
-                return Files.newInputStream(path);
+            ZipCodeCatalog current = catalog;
+            Map<Integer, ZipCode> resolved = new HashMap<>();
+            List<BatchLookupResult> results = new ArrayList<>(zipcodes.size());
+            for (String zipcode : zipcodes) {
+                String cleanCode = zipcode == null ? null : zipcode.trim();
+                int ordinal = current.ordinalOf(cleanCode);
+                results.add(BatchLookupResult.builder()
+                        .zipCode(cleanCode)
+                        .found(ordinal >= 0)
+                        .data(ordinal >= 0 ? resolved.computeIfAbsent(ordinal, current::toZipCode) : null)
+                        .build());
             }
-        }
 
-        ClassPathResource resource = new ClassPathResource(RESOURCE_FILE);
-        if (resource.exists()) {
-            log.info("Cargando codigos postales desde recurso interno {}", RESOURCE_FILE);
-            return resource.getInputStream();
+            metricsConfiguration.recordResultSize("batch", resolved.size());
+            return results;
+        } finally {
+            metricsConfiguration.recordSearchDuration(sample, "batch");
         }
+    }
 
-        return null;
+    private int findOrdinal(ZipCodeCatalog current, String zipcode) {
+        int ordinal = current.ordinalOf(zipcode);
+        if (ordinal < 0) {
+            metricsConfiguration.recordSearchError("direct", "not_found");
+            throw new ZipCodeNotFoundException("Codigo postal no encontrado: " + zipcode);
+        }
+        return ordinal;
     }
 
-    private void processZipCodeFile(InputStream stream) throws IOException {
-        long startTime = System.currentTimeMillis();
-        errorCount = 0;
+    @PostConstruct
+    public void loadZipCodes() {
+        reload();
+    }
 
-        BufferedInputStream bufferedStream = new BufferedInputStream(stream);
-        Charset charset = detectCharset(bufferedStream);
-        log.info("Encoding detectado: {}", charset.name());
+    /**
+     * Builds a new snapshot from zipcode.file.path and publishes it with one
+     * volatile write, then drops every cached result. The current snapshot keeps
+     * serving while the file is parsed, and is kept if the file cannot be read or
+     * yields no zip codes.
+     *
+     * @return true when a new snapshot was published
+     */
+    public boolean reload() {
+        synchronized (reloadLock) {
+            try {
+                ByteBuffer content = readSourceFile();
+                if (content == null) {
+                    log.error("No se pudo cargar ningun archivo de codigos postales");
+                    metricsConfiguration.recordCatalogReload("failure");
+                    return false;
+                }
 
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(bufferedStream, charset))) {
+                long checksum = ZipCodeSnapshot.checksum(content);
+                ZipCodeCatalog result = readZipCodeFile(content, checksum);
 
-            // Skip first two lines (metadata and header)
-            reader.readLine();
-            reader.readLine();
+                if (!result.isLoaded()) {
+                    log.error("El archivo no contiene codigos postales validos; se conserva la version {} del catalogo",
+                            catalog.version());
+                    metricsConfiguration.recordCatalogReload("failure");
+                    return false;
+                }
 
-            long linesProcessed = reader.lines()
-                    .filter(this::processLine)
-                    .count();
+                ZipCodeCatalog next = result.withVersion(catalog.version() + 1, checksum);
+                catalog = next;
+                invalidateCaches();
+                eventPublisher.publishEvent(new CatalogPublishedEvent(next));
 
-            long duration = System.currentTimeMillis() - startTime;
-            dataLoaded = true;
+                log.info("  - Catalogo version {} publicado", next.version());
+                recordStringFootprint(next);
+                metricsConfiguration.recordCatalogReload("success");
+                return true;
 
-            log.info("Datos cargados exitosamente en {}ms", duration);
-            log.info("  - Codigos postales unicos: {}", zipCodesByCode.size());
-            log.info("  - Entidades federativas: {}", zipCodesByNormalizedEntity.size());
-            log.info("  - Municipios: {}", zipCodesByNormalizedMunicipality.size());
-            log.info("  - Lineas procesadas: {}", linesProcessed);
-            if (errorCount > 0) {
-                log.warn("  - Lineas con errores: {}", errorCount);
+            } catch (IOException e) {
+                log.error("Error al cargar los codigos postales", e);
+                metricsConfiguration.recordCatalogReload("failure");
+                return false;
             }
         }
     }
 
-    private Charset detectCharset(BufferedInputStream stream) throws IOException {
-        stream.mark(4096);
-        byte[] sample = new byte[4096];
-        int bytesRead = stream.read(sample);
-        stream.reset();
-
-        if (bytesRead <= 0) {
-            return StandardCharsets.UTF_8;
-        }
-
-        boolean hasHighBytes = false;
-        boolean hasUtf8Sequences = false;
+    private void recordStringFootprint(ZipCodeCatalog published) {
+        long deduplicated = published.stringBytes();
+        long perOccurrence = published.undeduplicatedStringBytes();
+        log.info("  - Diccionario de cadenas: {} valores unicos, {} KB (sin deduplicar: {} KB)",
+                published.distinctStringCount(), deduplicated / 1024, perOccurrence / 1024);
+        metricsConfiguration.recordCatalogStringBytes(deduplicated, perOccurrence);
+    }
 
-        for (int i = 0; i < bytesRead; i++) {
-            int b = sample[i] & 0xFF;
-            if (b >= 0x80) {
-                hasHighBytes = true;
-                if ((b & 0xE0) == 0xC0 || (b & 0xF0) == 0xE0) {
-                    if (i + 1 < bytesRead && (sample[i + 1] & 0xC0) == 0x80) {
-                        hasUtf8Sequences = true;
-                    }
+    /**
+     * Cache keys already carry the catalog version, so entries computed from the
+     * previous snapshot are unreachable once it is replaced. Clearing the caches
+     * releases their memory right away instead of waiting for expiry. The named
+     * caches share one Caffeine store, which is emptied once rather than
+     * scanned once per cache name.
+     */
+    private void invalidateCaches() {
+        Set<Object> clearedStores = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                continue;
+            }
+            if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> store) {
+                if (clearedStores.add(store)) {
+                    store.invalidateAll();
                 }
+            } else {
+                cache.invalidate();
             }
         }
+    }
 
-        if (hasHighBytes && !hasUtf8Sequences) {
-            log.debug("Detectado encoding ISO-8859-1 (bytes altos sin secuencias UTF-8)");
-            return StandardCharsets.ISO_8859_1;
+    /**
+     * Loads the catalog from the binary snapshot when it matches the source
+     * file's checksum, otherwise parses the text file and refreshes the snapshot.
+     */
+    private ZipCodeCatalog readZipCodeFile(ByteBuffer content, long checksum) throws IOException {
+        if (!snapshotEnabled || snapshotPath.isBlank()) {
+            return parse(content);
         }
 
-        if (hasUtf8Sequences) {
-            log.debug("Detectado encoding UTF-8 (secuencias UTF-8 validas encontradas)");
-            return StandardCharsets.UTF_8;
+        ZipCodeSnapshot snapshot = new ZipCodeSnapshot(Paths.get(snapshotPath));
+        ZipCodeCatalog result = snapshot.read(checksum);
+        if (result == null) {
+            result = parse(content);
+            if (result.isLoaded()) {
+                snapshot.write(result, checksum);
+            }
         }
-
-        log.debug("Usando encoding por defecto ISO-8859-1 para archivo SEPOMEX");
-        return StandardCharsets.ISO_8859_1;
+        return result;
     }
 
-    private boolean processLine(String line) {
-        try {
-            String[] words = PIPE_PATTERN.split(line);
+    private ZipCodeCatalog parse(ByteBuffer content) {
+        return ZipCodeCatalog.of(new ZipCodeFileLoader(resolveLoadParallelism()).load(content));
+    }
 
-            if (words.length < MIN_COLUMNS) {
-                handleError("Linea con formato incorrecto (columnas insuficientes): {}",
-                    line.substring(0, Math.min(100, line.length())));
-                return false;
+    private ByteBuffer readSourceFile() throws IOException {
+        // Filesystem files are parsed straight from a memory mapping instead of a heap copy
+        if (memoryMappedLoad && filePath != null && !filePath.startsWith("classpath:")) {
+            Path path = Paths.get(filePath);
+            if (Files.isRegularFile(path)) {
+                log.info("Cargando codigos postales desde {} (mapeado en memoria)", filePath);
+                return ZipCodeFileLoader.map(path);
             }
+        }
 
-            String zipCodeKey = words[COL_ZIP_CODE].trim();
+        try (InputStream stream = getInputStream()) {
+            return stream == null ? null : ByteBuffer.wrap(stream.readAllBytes());
+        }
+    }
 
-            if (!isValidZipCode(zipCodeKey)) {
-                handleError("Codigo postal invalido '{}' en linea: {}",
-                    zipCodeKey, line.substring(0, Math.min(100, line.length())));
-                return false;
-            }
+    private int resolveLoadParallelism() {
+        if (!parallelLoad) {
+            return 1;
+        }
+        return loadParallelism > 0 ? loadParallelism : Runtime.getRuntime().availableProcessors();
+    }
 
-            if (words[COL_FEDERAL_ENTITY].trim().isEmpty() ||
-                words[COL_MUNICIPALITY].trim().isEmpty()) {
-                handleError("Campos requeridos vacios en codigo postal: {}", zipCodeKey);
-                return false;
+    private InputStream getInputStream() throws IOException {
+        if (filePath != null && filePath.startsWith("classpath:")) {
+            String resourcePath = filePath.substring("classpath:".length());
+            ClassPathResource resource = new ClassPathResource(resourcePath);
+            if (resource.exists()) {
+                log.info("Cargando codigos postales desde classpath: {}", resourcePath);
+                return resource.getInputStream();
             }
+            log.warn("Recurso no encontrado en classpath: {}", resourcePath);
+        }
 
-            String federalEntity = words[COL_FEDERAL_ENTITY].trim();
-            String municipality = words[COL_MUNICIPALITY].trim();
-            String normalizedEntity = Util.normalizeString(federalEntity);
-            String normalizedMunicipality = Util.normalizeString(municipality);
-
-            ZipCode zipCode = zipCodesByCode.computeIfAbsent(zipCodeKey, k -> {
-                ZipCode z = new ZipCode();
-                z.setZipCode(k);
-                z.setLocality(words[COL_LOCALITY].trim());
-                z.setFederalEntity(federalEntity);
-                z.setMunicipality(municipality);
-                z.setNormalizedFederalEntity(normalizedEntity);
-                z.setNormalizedMunicipality(normalizedMunicipality);
-                z.setSettlements(new ArrayList<>());
-
-                // Add to sorted map for prefix searches
-                zipCodesSorted.put(k, z);
-                return z;
-            });
-
-            Settlements settlement = new Settlements();
-            String settlementName = words[COL_SETTLEMENT_NAME].trim();
-            String settlementTypeVal = words[COL_SETTLEMENT_TYPE].trim();
-            String zoneTypeVal = words.length > COL_ZONE_TYPE_INDEX ?
-                words[COL_ZONE_TYPE_INDEX].trim() : "";
-            
-            settlement.setName(settlementName);
-            settlement.setZoneType(zoneTypeVal);
-            settlement.setSettlementType(settlementTypeVal);
-            
-            // Pre-compute normalized fields to avoid runtime normalization in searches
-            settlement.setNormalizedName(Util.normalizeString(settlementName));
-            settlement.setNormalizedSettlementType(Util.normalizeString(settlementTypeVal));
-            settlement.setNormalizedZoneType(Util.normalizeString(zoneTypeVal));
-
-            zipCode.getSettlements().add(settlement);
-
-            zipCodesByNormalizedEntity
-                    .computeIfAbsent(normalizedEntity, k -> new HashSet<>())
-                    .add(zipCode);
-
-            zipCodesByNormalizedMunicipality
-                    .computeIfAbsent(normalizedMunicipality, k -> new HashSet<>())
-                    .add(zipCode);
-
-            return true;
-
-        } catch (Exception e) {
-            handleError("Error procesando la linea: {}",
-                line.substring(0, Math.min(100, line.length())));
-            log.debug("Detalle del error:", e);
-            return false;
+        if (filePath != null && !filePath.startsWith("classpath:")) {
+            Path path = Paths.get(filePath);
+            if (Files.exists(path)) {
+                log.info("Cargando codigos postales desde {}", filePath);
+                return Files.newInputStream(path);
+            }
         }
-    }
 
-    private void handleError(String message, Object... args) {
-        errorCount++;
-        if (errorCount <= MAX_ERRORS_THRESHOLD) {
-            log.warn(message, args);
-        } else if (errorCount == MAX_ERRORS_THRESHOLD + 1) {
-            log.warn("Se alcanzo el limite de {} errores. Los siguientes errores no se mostraran.", MAX_ERRORS_THRESHOLD);
+        ClassPathResource resource = new ClassPathResource(RESOURCE_FILE);
+        if (resource.exists()) {
+            log.info("Cargando codigos postales desde recurso interno {}", RESOURCE_FILE);
+            return resource.getInputStream();
         }
-    }
 
-    private boolean isValidZipCode(String zipCode) {
-        return zipCode != null && ZIP_CODE_PATTERN.matcher(zipCode).matches();
+        return null;
     }
 
-    @Cacheable(value = "federalEntitySearch", key = "T(com.coderalexis.CodigoPostalApi.util.Util).normalizeCacheKey(#searchTerm)")
+    /**
+     * Unpaged search by federal entity. The matching ordinals are cached, not the
+     * ZipCode list; see {@link #cachedOrdinals}.
+     */
     public List<ZipCode> searchByFederalEntity(String searchTerm) {
         Timer.Sample sample = metricsConfiguration.startTimer();
         try {
             metricsConfiguration.recordSearch("federal_entity");
             String normalizedSearchTerm = validateSearchTerm(searchTerm, "federal_entity");
 
-            List<ZipCode> results = findOrderedCandidatesInIndex(
-                    zipCodesByNormalizedEntity,
-                    normalizedSearchTerm);
+            ZipCodeCatalog current = catalog;
+            int[] ordinals = cachedOrdinals("federalEntitySearch", current, normalizedSearchTerm,
+                    () -> findOrdinalsInIndex(current, current.federalEntityIndex(), normalizedSearchTerm));
 
-            if (results.isEmpty()) {
+            if (ordinals.length == 0) {
                 metricsConfiguration.recordSearchError("federal_entity", "not_found");
                 throw new ZipCodeNotFoundException(
                         "No se encontraron codigos postales para la entidad federativa: " + searchTerm
                 );
             }
 
-            metricsConfiguration.recordResultSize("federal_entity", results.size());
-            return results;
+            metricsConfiguration.recordResultSize("federal_entity", ordinals.length);
+            return current.toZipCodes(ordinals, 0, ordinals.length);
         } finally {
             metricsConfiguration.recordSearchDuration(sample, "federal_entity");
         }
     }
 
+    /**
+     * Streaming variant of {@link #searchByFederalEntity(String)} for exports.
+     * See {@link #streamFromIndex}.
+     */
+    public Stream<ZipCode> streamByFederalEntity(String searchTerm) {
+        return streamFromIndex("federal_entity", searchTerm, ZipCodeCatalog::federalEntityIndex,
+                "No se encontraron codigos postales para la entidad federativa: ");
+    }
+
     /**
      * Paginated search by federal entity.
-     * Counts matches and materializes only the requested page in zip-code order.
+     * Merges the matching postings only up to the requested page, in zip-code order.
+     * Not @Cacheable: the controller keeps these pages as serialized bytes in
+     * PrecompressedResponseCache, and a second copy would only use up the cache budget.
      */
-    @Cacheable(value = "federalEntitySearchPaged", key = "T(com.coderalexis.CodigoPostalApi.util.Util).normalizeCacheKey(#searchTerm) + '_' + #page + '_' + #size")
     public PagedResponse<ZipCode> searchByFederalEntity(String searchTerm, int page, int size) {
         Timer.Sample sample = metricsConfiguration.startTimer();
         try {
@@ -395,10 +421,10 @@ public class ZipCodeService {
             validatePagination(page, size);
             String normalizedSearchTerm = validateSearchTerm(searchTerm, "federal_entity");
 
-            List<ZipCode> candidates = findOrderedCandidatesInIndex(
-                    zipCodesByNormalizedEntity,
-                    normalizedSearchTerm);
-            PagedResponse<ZipCode> response = createPagedResponse(candidates, page, size);
+            ZipCodeCatalog current = catalog;
+            PagedResponse<ZipCode> response = withNextCursor(createPagedResponse(
+                    current, current.federalEntityIndex(), normalizedSearchTerm, page, size),
+                    cursorScope("federal_entity", normalizedSearchTerm));
 
             if (response.getTotalElements() == 0) {
                 metricsConfiguration.recordSearchError("federal_entity", "not_found");
@@ -414,36 +440,57 @@ public class ZipCodeService {
         }
     }
 
-    @Cacheable(value = "municipalitySearch", key = "T(com.coderalexis.CodigoPostalApi.util.Util).normalizeCacheKey(#searchTerm)")
+    /**
+     * Keyset-paginated search by federal entity: the page starts right after the
+     * zip code in the cursor. See {@link #searchIndexAfter}.
+     */
+    public PagedResponse<ZipCode> searchByFederalEntityAfter(String searchTerm, String cursor, int size) {
+        return searchIndexAfter("federal_entity", searchTerm, cursor, size, ZipCodeCatalog::federalEntityIndex,
+                "No se encontraron codigos postales para la entidad federativa: ");
+    }
+
+    /**
+     * Unpaged search by municipality. The matching ordinals are cached, not the
+     * ZipCode list; see {@link #cachedOrdinals}.
+     */
     public List<ZipCode> searchByMunicipality(String searchTerm) {
         Timer.Sample sample = metricsConfiguration.startTimer();
         try {
             metricsConfiguration.recordSearch("municipality");
             String normalizedSearchTerm = validateSearchTerm(searchTerm, "municipality");
 
-            List<ZipCode> results = findOrderedCandidatesInIndex(
-                    zipCodesByNormalizedMunicipality,
-                    normalizedSearchTerm);
+            ZipCodeCatalog current = catalog;
+            int[] ordinals = cachedOrdinals("municipalitySearch", current, normalizedSearchTerm,
+                    () -> findOrdinalsInIndex(current, current.municipalityIndex(), normalizedSearchTerm));
 
-            if (results.isEmpty()) {
+            if (ordinals.length == 0) {
                 metricsConfiguration.recordSearchError("municipality", "not_found");
                 throw new ZipCodeNotFoundException(
                         "No se encontraron codigos postales para el municipio: " + searchTerm
                 );
             }
 
-            metricsConfiguration.recordResultSize("municipality", results.size());
-            return results;
+            metricsConfiguration.recordResultSize("municipality", ordinals.length);
+            return current.toZipCodes(ordinals, 0, ordinals.length);
         } finally {
             metricsConfiguration.recordSearchDuration(sample, "municipality");
         }
     }
 
+    /**
+     * Streaming variant of {@link #searchByMunicipality(String)} for exports.
+     * See {@link #streamFromIndex}.
+     */
+    public Stream<ZipCode> streamByMunicipality(String searchTerm) {
+        return streamFromIndex("municipality", searchTerm, ZipCodeCatalog::municipalityIndex,
+                "No se encontraron codigos postales para el municipio: ");
+    }
+
     /**
      * Paginated search by municipality.
-     * Counts matches and materializes only the requested page in zip-code order.
+     * Merges the matching postings only up to the requested page, in zip-code order.
+     * Not @Cacheable, like {@link #searchByFederalEntity(String, int, int)}.
      */
-    @Cacheable(value = "municipalitySearchPaged", key = "T(com.coderalexis.CodigoPostalApi.util.Util).normalizeCacheKey(#searchTerm) + '_' + #page + '_' + #size")
     public PagedResponse<ZipCode> searchByMunicipality(String searchTerm, int page, int size) {
         Timer.Sample sample = metricsConfiguration.startTimer();
         try {
@@ -451,10 +498,10 @@ public class ZipCodeService {
             validatePagination(page, size);
             String normalizedSearchTerm = validateSearchTerm(searchTerm, "municipality");
 
-            List<ZipCode> candidates = findOrderedCandidatesInIndex(
-                    zipCodesByNormalizedMunicipality,
-                    normalizedSearchTerm);
-            PagedResponse<ZipCode> response = createPagedResponse(candidates, page, size);
+            ZipCodeCatalog current = catalog;
+            PagedResponse<ZipCode> response = withNextCursor(createPagedResponse(
+                    current, current.municipalityIndex(), normalizedSearchTerm, page, size),
+                    cursorScope("municipality", normalizedSearchTerm));
 
             if (response.getTotalElements() == 0) {
                 metricsConfiguration.recordSearchError("municipality", "not_found");
@@ -471,50 +518,45 @@ public class ZipCodeService {
     }
 
     /**
-     * Returns pre-computed statistics (calculated once at startup).
+     * Keyset-paginated search by municipality: the page starts right after the
+     * zip code in the cursor. See {@link #searchIndexAfter}.
+     */
+    public PagedResponse<ZipCode> searchByMunicipalityAfter(String searchTerm, String cursor, int size) {
+        return searchIndexAfter("municipality", searchTerm, cursor, size, ZipCodeCatalog::municipalityIndex,
+                "No se encontraron codigos postales para el municipio: ");
+    }
+
+    /**
+     * Returns statistics pre-computed when the current snapshot was built.
      */
     public ZipCodeStats getStatistics() {
-        return cachedStats;
+        return catalog.stats();
     }
 
     /**
-     * Prefix search using ConcurrentSkipListMap.subMap() for O(log n + k) performance.
-     * Uses exclusive upper bound with incremented prefix for correct range matching.
-     * 
-     * For example, prefix "019" matches codes in range ["01900", "01999"].
-     * The upper bound is computed by incrementing the last character: "019" -> "020",
-     * then using subMap("019", "020") which gives us all codes starting with "019".
+     * Prefix search over the sorted zip-code column in O(1 + k).
+     *
+     * The prefix maps to a contiguous ordinal range (see {@link #prefixRange}) and
+     * the first {@code limit} ordinals of that range are materialized directly.
      */
-    @Cacheable(value = "partialSearch", key = "T(com.coderalexis.CodigoPostalApi.util.Util).normalizeCacheKey(#partialCode) + '_' + #limit")
+    @Cacheable(value = "partialSearch", key = "#root.target.catalogVersion + '_' + T(com.coderalexis.CodigoPostalApi.util.Util).normalizeCacheKey(#partialCode) + '_' + #limit")
     public List<ZipCode> searchByPartialCode(String partialCode, int limit) {
         Timer.Sample sample = metricsConfiguration.startTimer();
         try {
             metricsConfiguration.recordSearch("partial");
-
-            if (partialCode == null || partialCode.trim().isEmpty()) {
-                metricsConfiguration.recordSearchError("partial", "empty_search");
-                throw new IllegalArgumentException("El codigo postal no puede estar vacio");
-            }
-
-            String cleanCode = partialCode.trim();
-
-            if (!DIGITS_PATTERN.matcher(cleanCode).matches() || cleanCode.length() > 5) {
-                metricsConfiguration.recordSearchError("partial", "invalid_format");
-                throw new IllegalArgumentException("El codigo postal debe contener entre 1 y 5 digitos");
-            }
+            String cleanCode = validatePartialCode(partialCode);
 
             int effectiveLimit = Math.min(Math.max(limit, 1), 50);
 
-            // O(log n + k) using sorted map range query.
-            // The exclusive upper bound stays inside the requested prefix, so a search
-            // like "0199" never leaks "020xx" rows.
-            String fromKey = cleanCode;
-            String toKey = computeUpperBound(cleanCode);
+            ZipCodeCatalog current = catalog;
+            int[] range = prefixRange(current, cleanCode);
+            int from = range[0];
+            int to = Math.min(range[1], from + effectiveLimit);
 
-            List<ZipCode> results = zipCodesSorted.subMap(fromKey, true, toKey, false)
-                    .values().stream()
-                    .limit(effectiveLimit)
-                    .collect(Collectors.toList());
+            List<ZipCode> results = new ArrayList<>(to - from);
+            for (int ordinal = from; ordinal < to; ordinal++) {
+                results.add(current.toZipCode(ordinal));
+            }
 
             if (results.isEmpty()) {
                 metricsConfiguration.recordSearchError("partial", "not_found");
@@ -531,32 +573,60 @@ public class ZipCodeService {
     }
 
     /**
-     * Computes the exclusive upper bound for prefix-based range queries.
+     * Exact number of zip codes starting with the prefix, regardless of any
+     * result limit. No @Cacheable needed: it is two reads of the rank table.
+     */
+    public int countByPartialCode(String partialCode) {
+        String cleanCode = validatePartialCode(partialCode);
+        int[] range = prefixRange(catalog, cleanCode);
+        return range[1] - range[0];
+    }
+
+    private String validatePartialCode(String partialCode) {
+        if (partialCode == null || partialCode.trim().isEmpty()) {
+            metricsConfiguration.recordSearchError("partial", "empty_search");
+            throw new IllegalArgumentException("El codigo postal no puede estar vacio");
+        }
+
+        String cleanCode = partialCode.trim();
+
+        if (!DIGITS_PATTERN.matcher(cleanCode).matches() || cleanCode.length() > 5) {
+            metricsConfiguration.recordSearchError("partial", "invalid_format");
+            throw new IllegalArgumentException("El codigo postal debe contener entre 1 y 5 digitos");
+        }
+        return cleanCode;
+    }
+
+    /**
+     * Ordinal range {from, to} (exclusive end) of the zip codes starting with a
+     * 1-5 digit prefix.
      *
-     * Appending the maximum Unicode character creates a key that is greater than
-     * every digit-only zip code that starts with the requested prefix, without
-     * including the next numeric range. For example, range ["0199", "0199\uFFFF")
-     * includes "01990" through "01999" but excludes "02000".
+     * A prefix of length p covers the numeric range [prefix * 10^(5-p), (prefix + 1) * 10^(5-p)),
+     * e.g. "019" covers [1900, 2000), i.e. "01900" through "01999". The exclusive
+     * upper bound stays inside the requested prefix, so a search like "0199" never
+     * leaks "020xx" rows.
      */
-    private String computeUpperBound(String prefix) {
-        return prefix + Character.MAX_VALUE;
+    private static int[] prefixRange(ZipCodeCatalog catalog, String cleanCode) {
+        int scale = PREFIX_SCALES[cleanCode.length()];
+        int prefix = Integer.parseInt(cleanCode);
+        return new int[] {catalog.lowerBound(prefix * scale), catalog.lowerBound((prefix + 1) * scale)};
     }
 
     /**
-     * Returns pre-computed federal entities list (calculated once at startup).
+     * Returns the federal entities list pre-computed when the current snapshot was built.
+     * The controller serves it from PrecompressedResponseCache.
      */
-    @Cacheable(value = "federalEntities")
     public List<FederalEntity> getAllFederalEntities() {
         Timer.Sample sample = metricsConfiguration.startTimer();
         try {
-            metricsConfiguration.recordResultSize("federal_entities", cachedFederalEntities.size());
-            return cachedFederalEntities;
+            List<FederalEntity> federalEntities = catalog.federalEntities();
+            metricsConfiguration.recordResultSize("federal_entities", federalEntities.size());
+            return federalEntities;
         } finally {
             metricsConfiguration.recordSearchDuration(sample, "federal_entities");
         }
     }
 
-    @Cacheable(value = "municipalitiesByEntity", key = "T(com.coderalexis.CodigoPostalApi.util.Util).normalizeCacheKey(#federalEntity)")
     public List<String> getMunicipalitiesByFederalEntity(String federalEntity) {
         Timer.Sample sample = metricsConfiguration.startTimer();
         try {
@@ -566,14 +636,13 @@ public class ZipCodeService {
 
             String normalizedSearchTerm = Util.normalizeSearchTerm(federalEntity);
 
-            // Sequential stream - only ~32 entity keys to filter
-            List<String> municipalities = zipCodesByNormalizedEntity.entrySet().stream()
-                    .filter(entry -> entry.getKey().contains(normalizedSearchTerm))
-                    .flatMap(entry -> entry.getValue().stream())
-                    .map(ZipCode::getMunicipality)
-                    .distinct()
-                    .sorted()
-                    .collect(Collectors.toList());
+            ZipCodeCatalog current = catalog;
+            int[] ordinals = findOrdinalsInIndex(current, current.federalEntityIndex(), normalizedSearchTerm);
+            Set<String> distinctMunicipalities = new TreeSet<>();
+            for (int ordinal : ordinals) {
+                distinctMunicipalities.add(current.municipality(ordinal));
+            }
+            List<String> municipalities = new ArrayList<>(distinctMunicipalities);
 
             if (municipalities.isEmpty()) {
                 throw new ZipCodeNotFoundException(
@@ -589,56 +658,163 @@ public class ZipCodeService {
     }
 
     public List<Settlements> getSettlementsByZipCode(String zipcode) {
-        ZipCode zipCode = getZipCode(zipcode);
-        return zipCode.getSettlements();
+        Timer.Sample sample = metricsConfiguration.startTimer();
+        try {
+            metricsConfiguration.recordSearch("direct");
+            ZipCodeCatalog current = catalog;
+            return current.toSettlements(findOrdinal(current, zipcode));
+        } finally {
+            metricsConfiguration.recordSearchDuration(sample, "direct");
+        }
     }
 
     /**
-     * Advanced search using inverted indices as starting point when possible.
-     * Uses pre-computed normalized fields to avoid runtime normalization.
+     * Typo-tolerant search over federal entity, municipality and settlement
+     * names. Each kind is looked up in the catalog's BK-tree, so only a fraction
+     * of the distinct names is compared with the term. Matches are ranked by
+     * edit distance, then by how many zip codes carry the name.
+     *
+     * No @Cacheable needed: a lookup is a bounded walk over in-memory int arrays.
+     *
+     * @param type federal_entity, municipality or settlement; null searches all three
      */
-    @Cacheable(value = "advancedSearch", key = "#request == null ? 'null' : #request.normalizedFilterCacheKey()")
-    public List<ZipCode> advancedSearch(AdvancedSearchRequest request) {
+    public List<FuzzyMatch> fuzzySearch(String searchTerm, String type, int maxDistance, int limit) {
         Timer.Sample sample = metricsConfiguration.startTimer();
         try {
-            AdvancedSearchCriteria criteria = validateAndNormalizeAdvancedSearchRequest(request);
-            Collection<ZipCode> candidates = resolveOrderedSearchCandidates(criteria);
-            Predicate<ZipCode> filter = zipCode -> matchesAdvancedCriteria(zipCode, criteria);
+            metricsConfiguration.recordSearch("fuzzy");
+            String normalizedSearchTerm = validateSearchTerm(searchTerm, "fuzzy");
+            if (type != null && !FUZZY_TYPES.contains(type)) {
+                metricsConfiguration.recordSearchError("fuzzy", "invalid_format");
+                throw new IllegalArgumentException("El tipo debe ser uno de: " + String.join(", ", FUZZY_TYPES));
+            }
+
+            int effectiveDistance = Math.min(Math.max(maxDistance, 1), 2);
+            int effectiveLimit = Math.min(Math.max(limit, 1), 50);
+
+            ZipCodeCatalog current = catalog;
+            List<FuzzyMatch> matches = new ArrayList<>();
+            addFuzzyMatches(matches, type, "federal_entity", current.federalEntityTerms(), normalizedSearchTerm, effectiveDistance);
+            addFuzzyMatches(matches, type, "municipality", current.municipalityTerms(), normalizedSearchTerm, effectiveDistance);
+            addFuzzyMatches(matches, type, "settlement", current.settlementNameTerms(), normalizedSearchTerm, effectiveDistance);
+
+            if (matches.isEmpty()) {
+                metricsConfiguration.recordSearchError("fuzzy", "not_found");
+                throw new ZipCodeNotFoundException("No se encontraron nombres similares a: " + searchTerm);
+            }
+
+            matches.sort(Comparator.comparingInt(FuzzyMatch::getDistance)
+                    .thenComparing(Comparator.comparingInt(FuzzyMatch::getZipCodesCount).reversed())
+                    .thenComparing(FuzzyMatch::getName));
+            List<FuzzyMatch> results = matches.subList(0, Math.min(effectiveLimit, matches.size()));
+
+            metricsConfiguration.recordResultSize("fuzzy", results.size());
+            return new ArrayList<>(results);
+        } finally {
+            metricsConfiguration.recordSearchDuration(sample, "fuzzy");
+        }
+    }
+
+    private static void addFuzzyMatches(
+            List<FuzzyMatch> matches,
+            String requestedType,
+            String type,
+            FuzzyIndex index,
+            String normalizedSearchTerm,
+            int maxDistance) {
+        if (requestedType != null && !requestedType.equals(type)) {
+            return;
+        }
+        for (FuzzyIndex.Match match : index.search(normalizedSearchTerm, maxDistance)) {
+            matches.add(FuzzyMatch.builder()
+                    .type(type)
+                    .name(index.name(match.key()))
+                    .distance(match.distance())
+                    .zipCodesCount(index.zipCodeCount(match.key()))
+                    .build());
+        }
+    }
+
+    /**
+     * Settlement name autocomplete. The catalog's prefix index resolves the
+     * names starting with the term to one range and keeps the heaviest ones,
+     * ranked by how many settlements carry each name.
+     *
+     * No @Cacheable needed: a lookup is two binary searches and a bounded heap.
+     */
+    public List<SettlementSuggestion> autocompleteSettlements(String prefix, int limit) {
+        Timer.Sample sample = metricsConfiguration.startTimer();
+        try {
+            metricsConfiguration.recordSearch("autocomplete");
+            String normalizedPrefix = validateSearchTerm(prefix, "autocomplete");
+            int effectiveLimit = Math.min(Math.max(limit, 1), 50);
 
-            List<ZipCode> results = candidates.stream()
-                    .filter(filter)
-                    .collect(Collectors.toList());
+            ZipCodeCatalog current = catalog;
+            PrefixIndex index = current.settlementNamePrefixes();
+            List<SettlementSuggestion> results = new ArrayList<>();
+            for (int k : index.top(normalizedPrefix, effectiveLimit)) {
+                List<String> zipCodes = new ArrayList<>(index.zipEnd(k) - index.zipStart(k));
+                for (int i = index.zipStart(k); i < index.zipEnd(k); i++) {
+                    zipCodes.add(current.zipCode(index.zipOrdinal(i)));
+                }
+                results.add(SettlementSuggestion.builder()
+                        .name(index.name(k))
+                        .settlementsCount(index.weight(k))
+                        .zipCodes(zipCodes)
+                        .build());
+            }
 
             if (results.isEmpty()) {
+                metricsConfiguration.recordSearchError("autocomplete", "not_found");
+                throw new ZipCodeNotFoundException("No se encontraron asentamientos que empiecen con: " + prefix);
+            }
+
+            metricsConfiguration.recordResultSize("autocomplete", results.size());
+            return results;
+        } finally {
+            metricsConfiguration.recordSearchDuration(sample, "autocomplete");
+        }
+    }
+
+    /**
+     * Advanced search over the catalog's attribute bitmaps. Every filter becomes
+     * a bitmap and the filters are intersected, so no settlement is scanned. The
+     * resulting ordinals are cached, not the ZipCode list; see {@link #cachedOrdinals}.
+     */
+    public List<ZipCode> advancedSearch(AdvancedSearchRequest request) {
+        Timer.Sample sample = metricsConfiguration.startTimer();
+        try {
+            AdvancedSearchCriteria criteria = validateAndNormalizeAdvancedSearchRequest(request);
+            ZipCodeCatalog current = catalog;
+            int[] ordinals = cachedOrdinals("advancedSearch", current, request.normalizedFilterCacheKey(),
+                    () -> resolveSearchResults(current, criteria).stream().toArray());
+
+            if (ordinals.length == 0) {
                 metricsConfiguration.recordSearchError("advanced", "not_found");
                 throw new ZipCodeNotFoundException("No se encontraron codigos postales con los criterios especificados");
             }
 
-            metricsConfiguration.recordResultSize("advanced", results.size());
-            return results;
+            metricsConfiguration.recordResultSize("advanced", ordinals.length);
+            return current.toZipCodes(ordinals, 0, ordinals.length);
         } finally {
             metricsConfiguration.recordSearchDuration(sample, "advanced");
         }
     }
 
     /**
-     * Paginated advanced search that materializes only the requested page.
-     * This keeps broad advanced searches from allocating all matching ZipCode
-     * objects when clients only need one page.
+     * Paginated advanced search that materializes only the requested page. The
+     * total is the cardinality of the result bitmap and only the ordinals up to
+     * the end of the page are visited.
      */
-    @Cacheable(value = "advancedSearchPaged", key = "#request == null ? 'null_' + #page + '_' + #size : #request.normalizedFilterCacheKey() + '_' + #page + '_' + #size")
+    @Cacheable(value = "advancedSearchPaged", key = "#root.target.catalogVersion + '_' + (#request == null ? 'null' : #request.normalizedFilterCacheKey()) + '_' + #page + '_' + #size")
     public PagedResponse<ZipCode> advancedSearch(AdvancedSearchRequest request, int page, int size) {
         Timer.Sample sample = metricsConfiguration.startTimer();
         try {
             validatePagination(page, size);
             AdvancedSearchCriteria criteria = validateAndNormalizeAdvancedSearchRequest(request);
-            Collection<ZipCode> candidates = resolveOrderedSearchCandidates(criteria);
-
-            PagedResponse<ZipCode> response = createPagedResponse(
-                    candidates,
-                    zipCode -> matchesAdvancedCriteria(zipCode, criteria),
-                    page,
-                    size);
+            ZipCodeCatalog current = catalog;
+            PagedResponse<ZipCode> response = withNextCursor(createPagedResponse(
+                    current, resolveSearchResults(current, criteria), page, size),
+                    cursorScope("advanced", request.normalizedFilterCacheKey()));
 
             if (response.getTotalElements() == 0) {
                 metricsConfiguration.recordSearchError("advanced", "not_found");
@@ -652,6 +828,69 @@ public class ZipCodeService {
         }
     }
 
+    /**
+     * Keyset-paginated advanced search: the page starts at the first set bit
+     * after the zip code in the cursor instead of skipping {@code page * size}
+     * bits. Not cached, since the cursor already makes the seek cheap.
+     */
+    public PagedResponse<ZipCode> advancedSearchAfter(AdvancedSearchRequest request, String cursor, int size) {
+        Timer.Sample sample = metricsConfiguration.startTimer();
+        try {
+            validatePagination(0, size);
+            AdvancedSearchCriteria criteria = validateAndNormalizeAdvancedSearchRequest(request);
+            String scope = cursorScope("advanced", request.normalizedFilterCacheKey());
+            int afterZipCode = decodeCursor(cursor, scope, "advanced");
+
+            ZipCodeCatalog current = catalog;
+            BitSet ordinals = resolveSearchResults(current, criteria);
+            int totalElements = ordinals.cardinality();
+            if (totalElements == 0) {
+                metricsConfiguration.recordSearchError("advanced", "not_found");
+                throw new ZipCodeNotFoundException("No se encontraron codigos postales con los criterios especificados");
+            }
+
+            int from = current.lowerBound(afterZipCode + 1);
+            int position = rank(ordinals, from, totalElements);
+            List<ZipCode> pageContent = new ArrayList<>(size);
+            for (int ordinal = ordinals.nextSetBit(from); ordinal >= 0 && pageContent.size() < size;
+                    ordinal = ordinals.nextSetBit(ordinal + 1)) {
+                pageContent.add(current.toZipCode(ordinal));
+            }
+
+            metricsConfiguration.recordResultSize("advanced", totalElements);
+            return buildCursorPage(pageContent, position, size, totalElements, scope);
+        } finally {
+            metricsConfiguration.recordSearchDuration(sample, "advanced");
+        }
+    }
+
+    /**
+     * Number of set bits below {@code from}, without copying the bitmap. Walks
+     * whichever side of {@code from} spans fewer ordinals, so a cursor deep into
+     * the results counts the remaining ones instead of all that came before.
+     */
+    private static int rank(BitSet bits, int from, int cardinality) {
+        int length = bits.length();
+        if (from <= 0) {
+            return 0;
+        }
+        if (from >= length) {
+            return cardinality;
+        }
+
+        int count = 0;
+        if (from <= length / 2) {
+            for (int i = bits.nextSetBit(0); i >= 0 && i < from; i = bits.nextSetBit(i + 1)) {
+                count++;
+            }
+            return count;
+        }
+        for (int i = bits.nextSetBit(from); i >= 0; i = bits.nextSetBit(i + 1)) {
+            count++;
+        }
+        return cardinality - count;
+    }
+
     private AdvancedSearchCriteria validateAndNormalizeAdvancedSearchRequest(AdvancedSearchRequest request) {
         if (request == null) {
             metricsConfiguration.recordSearchError("advanced", "empty_search");
@@ -675,74 +914,6 @@ public class ZipCodeService {
                 request.getZoneType() != null ? Util.normalizeSearchTerm(request.getZoneType()) : null);
     }
 
-    private Collection<ZipCode> resolveOrderedSearchCandidates(AdvancedSearchCriteria criteria) {
-        Collection<ZipCode> candidates = resolveSearchCandidates(
-                criteria.normalizedEntity(),
-                criteria.normalizedMunicipality());
-
-        if (candidates.isEmpty()) {
-            return List.of();
-        }
-
-        if (candidates instanceof Set<?>) {
-            return candidates.stream()
-                    .sorted(Comparator.comparing(ZipCode::getZipCode))
-                    .toList();
-        }
-
-        return candidates;
-    }
-
-    private boolean matchesAdvancedCriteria(ZipCode zipCode, AdvancedSearchCriteria criteria) {
-        if (isFilterPresent(criteria.normalizedEntity()) &&
-                !zipCode.getNormalizedFederalEntity().contains(criteria.normalizedEntity())) {
-            return false;
-        }
-
-        if (isFilterPresent(criteria.normalizedMunicipality()) &&
-                !zipCode.getNormalizedMunicipality().contains(criteria.normalizedMunicipality())) {
-            return false;
-        }
-
-        if (isFilterPresent(criteria.normalizedSettlement()) ||
-            isFilterPresent(criteria.normalizedSettlementType()) ||
-            isFilterPresent(criteria.normalizedZoneType())) {
-            return zipCode.getSettlements().stream()
-                    .anyMatch(settlement -> matchesSettlementCriteria(settlement, criteria));
-        }
-
-        return true;
-    }
-
-    private boolean matchesSettlementCriteria(Settlements settlement, AdvancedSearchCriteria criteria) {
-        if (isFilterPresent(criteria.normalizedSettlement())) {
-            String settlementName = settlement.getNormalizedName() != null
-                    ? settlement.getNormalizedName()
-                    : Util.normalizeString(settlement.getName());
-            if (!settlementName.contains(criteria.normalizedSettlement())) {
-                return false;
-            }
-        }
-
-        if (isFilterPresent(criteria.normalizedSettlementType())) {
-            String type = settlement.getNormalizedSettlementType() != null
-                    ? settlement.getNormalizedSettlementType()
-                    : Util.normalizeString(settlement.getSettlementType());
-            if (!type.contains(criteria.normalizedSettlementType())) {
-                return false;
-            }
-        }
-
-        if (isFilterPresent(criteria.normalizedZoneType())) {
-            String zone = settlement.getNormalizedZoneType() != null
-                    ? settlement.getNormalizedZoneType()
-                    : Util.normalizeString(settlement.getZoneType());
-            return zone.contains(criteria.normalizedZoneType());
-        }
-
-        return true;
-    }
-
     private record AdvancedSearchCriteria(
             String normalizedEntity,
             String normalizedMunicipality,
@@ -778,38 +949,56 @@ public class ZipCodeService {
     }
 
     /**
-     * Creates a paginated response from a collection without materializing the full
-     * filtered result set. The collection iteration order is preserved.
-     * This avoids allocating a List of ALL matches when only a small page is needed.
+     * Creates a paginated response from the postings of every index key
+     * containing the search term. The total comes from the index without a
+     * merge, and the k-way merge of the postings stops once the page is filled,
+     * so only the ZipCode objects of the requested page are materialized.
      */
-    private static <T> PagedResponse<T> createPagedResponse(
-            Collection<T> candidates,
-            Predicate<T> filter,
+    private static PagedResponse<ZipCode> createPagedResponse(
+            ZipCodeCatalog catalog,
+            PostingIndex index,
+            String normalizedSearchTerm,
             int page,
             int size) {
         validatePagination(page, size);
 
+        int[] keys = index.keysContaining(normalizedSearchTerm);
+        int totalElements = index.unionSize(keys);
+        int totalPages = calculateTotalPages(totalElements, size);
         long offset = (long) page * size;
-        List<T> pageContent = new ArrayList<>(size);
-        int totalElements = 0;
 
-        for (T candidate : candidates) {
-            if (!filter.test(candidate)) {
-                continue;
-            }
+        if (offset >= totalElements) {
+            return buildPagedResponse(List.of(), page, size, totalElements, totalPages);
+        }
 
-            if (totalElements >= offset && pageContent.size() < size) {
-                pageContent.add(candidate);
-            }
-            totalElements++;
+        int[] ordinals = index.unionSlice(keys, offset, size);
+        return buildPagedResponse(catalog.toZipCodes(ordinals, 0, ordinals.length), page, size, totalElements, totalPages);
+    }
+
+    /**
+     * Creates a paginated response from a bitmap of matching ordinals. The total
+     * is the cardinality, and only the bits up to the end of the page are visited.
+     */
+    private static PagedResponse<ZipCode> createPagedResponse(ZipCodeCatalog catalog, BitSet ordinals, int page, int size) {
+        validatePagination(page, size);
+
+        int totalElements = ordinals.cardinality();
+        int totalPages = calculateTotalPages(totalElements, size);
+        long offset = (long) page * size;
+
+        if (offset >= totalElements) {
+            return buildPagedResponse(List.of(), page, size, totalElements, totalPages);
         }
 
-        return buildPagedResponse(
-                pageContent,
-                page,
-                size,
-                totalElements,
-                calculateTotalPages(totalElements, size));
+        int ordinal = ordinals.nextSetBit(0);
+        for (long skipped = 0; skipped < offset; skipped++) {
+            ordinal = ordinals.nextSetBit(ordinal + 1);
+        }
+        List<ZipCode> pageContent = new ArrayList<>(size);
+        for (; ordinal >= 0 && pageContent.size() < size; ordinal = ordinals.nextSetBit(ordinal + 1)) {
+            pageContent.add(catalog.toZipCode(ordinal));
+        }
+        return buildPagedResponse(pageContent, page, size, totalElements, totalPages);
     }
 
     private static <T> PagedResponse<T> buildPagedResponse(
@@ -829,6 +1018,49 @@ public class ZipCodeService {
                 .build();
     }
 
+    /**
+     * Page that starts at {@code position} within the results, as returned for
+     * a cursor. The page number is the page containing that position.
+     */
+    private static PagedResponse<ZipCode> buildCursorPage(
+            List<ZipCode> content,
+            int position,
+            int size,
+            int totalElements,
+            String scope) {
+        PagedResponse<ZipCode> response = buildPagedResponse(
+                content, position / size, size, totalElements, calculateTotalPages(totalElements, size));
+        response.setFirst(position == 0);
+        response.setLast((long) position + content.size() >= totalElements);
+        return withNextCursor(response, scope);
+    }
+
+    // Sets the cursor of the page after this one, unless this is the last
+    private static PagedResponse<ZipCode> withNextCursor(PagedResponse<ZipCode> response, String scope) {
+        if (!response.isLast() && !response.getContent().isEmpty()) {
+            response.setNextCursor(PageCursor.encode(scope, response.getContent().getLast().getZipCode()));
+        }
+        return response;
+    }
+
+    // What a cursor is bound to: the search type and its normalized filters
+    private static String cursorScope(String searchType, String normalizedFilters) {
+        return searchType + "|" + normalizedFilters;
+    }
+
+    private int decodeCursor(String cursor, String scope, String searchType) {
+        if (cursor == null || cursor.isBlank()) {
+            metricsConfiguration.recordSearchError(searchType, "invalid_format");
+            throw new IllegalArgumentException("El cursor no puede estar vacio");
+        }
+        try {
+            return PageCursor.decode(cursor, scope);
+        } catch (IllegalArgumentException e) {
+            metricsConfiguration.recordSearchError(searchType, "invalid_format");
+            throw e;
+        }
+    }
+
     private static int calculateTotalPages(int totalElements, int size) {
         return totalElements == 0 ? 0 : (int) Math.ceil((double) totalElements / size);
     }
@@ -852,67 +1084,175 @@ public class ZipCodeService {
     }
 
     /**
-     * Resolves the smallest candidate set using available inverted indices.
+     * Intersects the bitmaps of every filter, in zip-code order.
      *
-     * If an indexed filter is present but has no matches, it returns an empty
-     * candidate set immediately because advanced-search filters are combined with
-     * AND semantics. This avoids a full catalog scan for impossible entity or
-     * municipality criteria.
+     * Entity and municipality bitmaps are over zip ordinals. Settlement name,
+     * type and zone type bitmaps are over settlement rows, so their intersection
+     * keeps only settlements meeting all of them at once; it is then projected to
+     * the zip codes owning those rows. Filters are combined with AND semantics,
+     * so an empty intersection stops the remaining lookups.
      */
-    private Collection<ZipCode> resolveSearchCandidates(String normalizedEntity, String normalizedMunicipality) {
-        Set<ZipCode> entityCandidates = findCandidatesInIndex(zipCodesByNormalizedEntity, normalizedEntity);
-        if (isFilterPresent(normalizedEntity) && entityCandidates.isEmpty()) {
-            return List.of();
+    private BitSet resolveSearchResults(ZipCodeCatalog catalog, AdvancedSearchCriteria criteria) {
+        BitSet ordinals = new BitSet(catalog.size());
+        ordinals.set(0, catalog.size());
+
+        if (isFilterPresent(criteria.normalizedEntity())) {
+            ordinals.and(catalog.federalEntityBitmaps().matching(criteria.normalizedEntity()));
+        }
+        if (isFilterPresent(criteria.normalizedMunicipality()) && !ordinals.isEmpty()) {
+            ordinals.and(catalog.municipalityBitmaps().matching(criteria.normalizedMunicipality()));
         }
 
-        Set<ZipCode> municipalityCandidates = findCandidatesInIndex(
-                zipCodesByNormalizedMunicipality, normalizedMunicipality);
-        if (isFilterPresent(normalizedMunicipality) && municipalityCandidates.isEmpty()) {
-            return List.of();
+        if (ordinals.isEmpty()) {
+            return ordinals;
         }
 
-        if (!entityCandidates.isEmpty() && !municipalityCandidates.isEmpty()) {
-            return entityCandidates.size() <= municipalityCandidates.size()
-                    ? entityCandidates
-                    : municipalityCandidates;
+        BitSet rows = null;
+        rows = intersect(rows, catalog.settlementNameBitmaps(), criteria.normalizedSettlement());
+        rows = intersect(rows, catalog.settlementTypeBitmaps(), criteria.normalizedSettlementType());
+        rows = intersect(rows, catalog.zoneTypeBitmaps(), criteria.normalizedZoneType());
+        if (rows != null) {
+            ordinals.and(catalog.zipCodesOfSettlements(rows));
         }
+        return ordinals;
+    }
 
-        if (!entityCandidates.isEmpty()) {
-            return entityCandidates;
+    /**
+     * Settlement rows matching one more filter; {@code rows} is null while no
+     * settlement filter has been applied yet.
+     */
+    private BitSet intersect(BitSet rows, BitmapIndex index, String normalizedSearchTerm) {
+        if (!isFilterPresent(normalizedSearchTerm) || (rows != null && rows.isEmpty())) {
+            return rows;
+        }
+        BitSet matching = index.matching(normalizedSearchTerm);
+        if (rows != null) {
+            matching.and(rows);
         }
+        return matching;
+    }
 
-        if (!municipalityCandidates.isEmpty()) {
-            return municipalityCandidates;
+    /**
+     * Lazy stream of the zip codes under every key containing the term, in
+     * zip-code order. The term is validated and resolved eagerly, so errors
+     * surface before a response starts; ordinals then come one at a time from
+     * the posting merge and each ZipCode is built only when consumed, so memory
+     * does not grow with the result. Nothing is cached.
+     */
+    private Stream<ZipCode> streamFromIndex(
+            String searchType,
+            String searchTerm,
+            Function<ZipCodeCatalog, PostingIndex> indexOf,
+            String notFoundMessage) {
+        Timer.Sample sample = metricsConfiguration.startTimer();
+        try {
+            metricsConfiguration.recordSearch(searchType);
+            String normalizedSearchTerm = validateSearchTerm(searchTerm, searchType);
+
+            ZipCodeCatalog current = catalog;
+            PostingIndex index = indexOf.apply(current);
+            int[] keyIds = index.keysContaining(normalizedSearchTerm);
+            int total = index.unionSize(keyIds);
+            if (total == 0) {
+                metricsConfiguration.recordSearchError(searchType, "not_found");
+                throw new ZipCodeNotFoundException(notFoundMessage + searchTerm);
+            }
+
+            metricsConfiguration.recordResultSize(searchType, total);
+            Spliterator.OfInt ordinals = Spliterators.spliterator(index.unionIterator(keyIds), total,
+                    Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SORTED | Spliterator.NONNULL);
+            return StreamSupport.intStream(ordinals, false).mapToObj(current::toZipCode);
+        } finally {
+            metricsConfiguration.recordSearchDuration(sample, searchType);
         }
+    }
+
+    /**
+     * Keyset page over the postings of every key containing the term. Each
+     * posting list is entered by binary search at the first zip code after the
+     * cursor, so a deep page costs the same as the first one. The total and the
+     * page number come from {@link PostingIndex#unionSize} and
+     * {@link PostingIndex#unionRank}, which need no merge for entities and
+     * municipalities. Nothing is cached.
+     */
+    private PagedResponse<ZipCode> searchIndexAfter(
+            String searchType,
+            String searchTerm,
+            String cursor,
+            int size,
+            Function<ZipCodeCatalog, PostingIndex> indexOf,
+            String notFoundMessage) {
+        Timer.Sample sample = metricsConfiguration.startTimer();
+        try {
+            metricsConfiguration.recordSearch(searchType);
+            validatePagination(0, size);
+            String normalizedSearchTerm = validateSearchTerm(searchTerm, searchType);
+            String scope = cursorScope(searchType, normalizedSearchTerm);
+            int afterZipCode = decodeCursor(cursor, scope, searchType);
+
+            ZipCodeCatalog current = catalog;
+            PostingIndex index = indexOf.apply(current);
+            int[] keyIds = index.keysContaining(normalizedSearchTerm);
+            int totalElements = index.unionSize(keyIds);
+            if (totalElements == 0) {
+                metricsConfiguration.recordSearchError(searchType, "not_found");
+                throw new ZipCodeNotFoundException(notFoundMessage + searchTerm);
+            }
 
-        // Fallback: full scan in deterministic zip-code order only when filtering by settlement/type/zone.
-        return zipCodesSorted.values();
+            int from = current.lowerBound(afterZipCode + 1);
+            int[] ordinals = index.unionFrom(keyIds, from, size);
+            metricsConfiguration.recordResultSize(searchType, totalElements);
+            return buildCursorPage(current.toZipCodes(ordinals, 0, ordinals.length),
+                    index.unionRank(keyIds, from), size, totalElements, scope);
+        } finally {
+            metricsConfiguration.recordSearchDuration(sample, searchType);
+        }
     }
 
     /**
-     * Finds matching zip codes through a normalized inverted index and returns
-     * them in deterministic zip-code order. This limits entity/municipality
-     * searches to the small index key set instead of scanning the full catalog.
+     * Ordinals of a search, cached under the snapshot version and the normalized
+     * filter. An entry is one int per result instead of a list of ZipCode objects
+     * with their settlements, so the byte-weighted caches hold far more distinct
+     * searches; callers rebuild the objects from the same snapshot. Empty results
+     * are cached too. Callers must not modify the returned array.
      */
-    private List<ZipCode> findOrderedCandidatesInIndex(Map<String, Set<ZipCode>> index, String normalizedSearchTerm) {
-        return index.entrySet().stream()
-                .filter(entry -> entry.getKey().contains(normalizedSearchTerm))
-                .flatMap(entry -> entry.getValue().stream())
-                .distinct()
-                .sorted(Comparator.comparing(ZipCode::getZipCode))
-                .toList();
+    private int[] cachedOrdinals(String cacheName, ZipCodeCatalog current, String filterKey, Supplier<int[]> search) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache == null) {
+            return search.get();
+        }
+        return cache.get(current.version() + "_" + filterKey, search::get);
     }
 
-    private Set<ZipCode> findCandidatesInIndex(Map<String, Set<ZipCode>> index, String normalizedSearchTerm) {
-        if (!isFilterPresent(normalizedSearchTerm)) {
-            return Set.of();
+    /**
+     * Unions the postings of every index key containing the search term, as
+     * resolved by the index's n-gram lookup. The ordinals are collected in a
+     * bitset, so the result comes out deduplicated and in zip-code order without
+     * sorting. A single matching key returns its posting list as is; callers
+     * never modify the returned array.
+     */
+    private static int[] findOrdinalsInIndex(ZipCodeCatalog catalog, PostingIndex index, String normalizedSearchTerm) {
+        int[] keys = index.keysContaining(normalizedSearchTerm);
+        if (keys.length == 0) {
+            return new int[0];
+        }
+        if (keys.length == 1) {
+            return index.postings(keys[0]);
+        }
+
+        BitSet union = new BitSet(catalog.size());
+        for (int k : keys) {
+            for (int ordinal : index.postings(k)) {
+                union.set(ordinal);
+            }
         }
 
-        Set<ZipCode> candidates = new HashSet<>();
-        index.entrySet().stream()
-                .filter(entry -> entry.getKey().contains(normalizedSearchTerm))
-                .forEach(entry -> candidates.addAll(entry.getValue()));
-        return candidates;
+        int[] ordinals = new int[union.cardinality()];
+        int i = 0;
+        for (int ordinal = union.nextSetBit(0); ordinal >= 0; ordinal = union.nextSetBit(ordinal + 1)) {
+            ordinals[i++] = ordinal;
+        }
+        return ordinals;
     }
 
     private boolean isFilterPresent(String normalizedSearchTerm) {
@@ -7,6 +7,8 @@ public class Util {
 
     private static final Pattern DIACRITICS_PATTERN =
         Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final Pattern Q_ZERO_PATTERN =
+        Pattern.compile("(?i)q\\s*=\\s*0(\\.0{0,3})?");
 
     /**
      * Normalizes a string by removing accents and converting to lowercase.
@@ -43,4 +45,38 @@ public class Util {
         String normalized = normalizeSearchTerm(input);
         return normalized == null ? "" : normalized;
     }
+
+    /**
+     * True when an Accept-Encoding header value allows gzip. An explicit gzip
+     * entry decides on its own; otherwise a {@code *} entry does. An entry with
+     * {@code q=0} refuses only its own coding. A missing header allows only
+     * identity.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean gzip = null;
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equalsIgnoreCase("x-gzip")) {
+                gzip = !isRefused(parts);
+            } else if (name.equals("*")) {
+                wildcard = !isRefused(parts);
+            }
+        }
+        return gzip != null ? gzip : Boolean.TRUE.equals(wildcard);
+    }
+
+    // q=0 in any of the entry's parameters
+    private static boolean isRefused(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            if (Q_ZERO_PATTERN.matcher(parts[i].trim()).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
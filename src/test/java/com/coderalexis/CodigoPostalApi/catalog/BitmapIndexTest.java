@@ -0,0 +1,38 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BitmapIndexTest {
+
+    @Test
+    @DisplayName("Los mapas de bits deben agrupar valores con la misma forma normalizada")
+    void columnShouldMapNormalizedValuesToPositions() {
+        StringDictionary strings = new StringDictionary(
+                new String[] {"Urbano", "URBANO", "Rural", "Semiurbano"},
+                new String[] {"urbano", "urbano", "rural", "semiurbano"});
+        // Every tenth position is rural and only position 55 semi-urban, so the
+        // index needs both container kinds
+        int[] column = new int[100];
+        for (int position = 0; position < column.length; position++) {
+            column[position] = position % 10 == 0 ? 2 : position % 2;
+        }
+        column[55] = 3;
+
+        BitmapIndex index = BitmapIndex.of(strings, column);
+
+        assertEquals(3, index.size());
+        assertEquals(90, index.matching("urbano").cardinality());
+        BitSet rural = index.matching("rural");
+        assertEquals(10, rural.cardinality());
+        assertEquals(90, rural.previousSetBit(99));
+        BitSet semiUrban = index.matching("semi");
+        assertEquals(1, semiUrban.cardinality());
+        assertEquals(55, semiUrban.nextSetBit(0));
+        assertEquals(0, index.matching("mixto").cardinality());
+    }
+}
@@ -0,0 +1,65 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import com.coderalexis.CodigoPostalApi.util.Util;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FuzzyIndexTest {
+
+    private static final String[] NAMES = {"San Pedro Tlaquepaque", "Tlajomulco de Zúñiga", "Zapopan", "Tonalá",
+            "Nezahualcóyotl", "Heroica Ciudad de Juchitán de Zaragoza", "Juárez", "Guadalajara", "Tlalpan", "Tlahuac"};
+
+    @Test
+    @DisplayName("El árbol BK debe encontrar lo mismo que comparar contra cada término")
+    void searchShouldMatchBruteForce() {
+        String[] normalized = new String[NAMES.length];
+        int[] column = new int[NAMES.length];
+        for (int i = 0; i < NAMES.length; i++) {
+            normalized[i] = Util.normalizeString(NAMES[i]);
+            column[i] = i;
+        }
+        FuzzyIndex index = FuzzyIndex.ofZipColumn(new StringDictionary(NAMES, normalized), column);
+
+        for (String query : new String[] {"tlaquepake", "nezahualcoyot", "juchitan", "tlalpan", "zapopna", "xyz"}) {
+            for (int maxDistance = 1; maxDistance <= 2; maxDistance++) {
+                Map<Integer, Integer> expected = new HashMap<>();
+                for (int k = 0; k < index.size(); k++) {
+                    int best = distance(query, index.key(k));
+                    for (String word : index.key(k).split(" ")) {
+                        if (word.length() >= 4) {
+                            best = Math.min(best, distance(query, word));
+                        }
+                    }
+                    if (best <= maxDistance) {
+                        expected.put(k, best);
+                    }
+                }
+
+                Map<Integer, Integer> actual = new HashMap<>();
+                index.search(query, maxDistance).forEach(match -> actual.put(match.key(), match.distance()));
+                assertEquals(expected, actual, query + " / " + maxDistance);
+            }
+        }
+
+        FuzzyIndex.Match tlaquepaque = index.search("tlaquepake", 2).get(0);
+        assertEquals("San Pedro Tlaquepaque", index.name(tlaquepaque.key()));
+        assertEquals(2, tlaquepaque.distance());
+    }
+
+    private static int distance(String a, String b) {
+        int[][] d = new int[a.length() + 1][b.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            for (int j = 0; j <= b.length(); j++) {
+                d[i][j] = i == 0 ? j : j == 0 ? i : Math.min(
+                        d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1),
+                        Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+            }
+        }
+        return d[a.length()][b.length()];
+    }
+}
@@ -0,0 +1,91 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class PostingIndexTest {
+
+    @Test
+    @DisplayName("La busqueda por n-gramas debe coincidir con String.contains sobre todas las claves")
+    void keysContainingShouldMatchContainsScan() {
+        Map<String, int[]> postings = new LinkedHashMap<>();
+        String[] keys = {"alvaro obregon", "benito juarez", "juarez", "guadalajara", "zapopan",
+                "san pedro garza garcia", "aaaa", "tlalnepantla de baz"};
+        for (int k = 0; k < keys.length; k++) {
+            postings.put(keys[k], new int[] {k});
+        }
+        PostingIndex index = PostingIndex.of(postings);
+
+        String[] terms = {"", "a", "aa", "aaa", "aaaa", "aaaaa", "juarez", "uare", "ez", "garza g",
+                "zapopan", "obregon ", "x", "de b", "lajar"};
+        for (String term : terms) {
+            int[] expected = IntStream.range(0, index.size())
+                    .filter(k -> index.key(k).contains(term))
+                    .toArray();
+            assertArrayEquals(expected, index.keysContaining(term), () -> "Termino: '" + term + "' -> "
+                    + Arrays.toString(index.keysContaining(term)));
+        }
+    }
+
+    @Test
+    @DisplayName("La union paginada debe regresar ordinales distintos en orden y detenerse en la pagina")
+    void unionSliceShouldMergeInZipOrder() {
+        Map<String, int[]> postings = new LinkedHashMap<>();
+        postings.put("norte", new int[] {1, 4, 7, 10});
+        postings.put("noreste", new int[] {2, 4, 8});
+        postings.put("noroeste", new int[] {0, 3, 7, 11, 12});
+        PostingIndex index = PostingIndex.of(postings);
+
+        int[] keys = index.keysContaining("nor");
+        int[] union = {0, 1, 2, 3, 4, 7, 8, 10, 11, 12};
+        assertEquals(union.length, index.unionSize(keys));
+        assertArrayEquals(union, index.unionSlice(keys, 0, 100));
+        assertArrayEquals(new int[] {3, 4, 7}, index.unionSlice(keys, 3, 3));
+        assertArrayEquals(new int[] {12}, index.unionSlice(keys, 9, 3));
+        assertArrayEquals(new int[0], index.unionSlice(keys, 10, 3));
+        PrimitiveIterator.OfInt iterator = index.unionIterator(keys);
+        assertArrayEquals(union, IntStream.generate(iterator::nextInt).limit(union.length).toArray());
+        assertFalse(iterator.hasNext());
+
+        int[] single = index.keysContaining("norte");
+        assertEquals(4, index.unionSize(single));
+        assertArrayEquals(new int[] {7, 10}, index.unionSlice(single, 2, 5));
+    }
+
+    @Test
+    @DisplayName("La union desde un ordinal debe coincidir con la union paginada en la misma posicion")
+    void unionFromShouldSeekLikeOffsetSlice() {
+        Map<String, int[]> overlapping = new LinkedHashMap<>();
+        overlapping.put("norte", new int[] {1, 4, 7, 10});
+        overlapping.put("noreste", new int[] {2, 4, 8});
+        overlapping.put("noroeste", new int[] {0, 3, 7, 11, 12});
+        Map<String, int[]> disjoint = new LinkedHashMap<>();
+        disjoint.put("norte", new int[] {1, 4, 10});
+        disjoint.put("noreste", new int[] {2, 8});
+        disjoint.put("noroeste", new int[] {0, 3, 7, 11, 12});
+
+        for (Map<String, int[]> postings : List.of(overlapping, disjoint)) {
+            PostingIndex index = PostingIndex.of(postings);
+            int[] keys = index.keysContaining("nor");
+            int[] union = index.unionSlice(keys, 0, 100);
+            for (int seek = 0; seek <= 14; seek++) {
+                int from = seek;
+                int rank = index.unionRank(keys, from);
+                int expectedRank = (int) Arrays.stream(union).filter(o -> o < from).count();
+                assertEquals(expectedRank, rank, "Desde " + from);
+                assertArrayEquals(index.unionSlice(keys, rank, 3), index.unionFrom(keys, from, 3), "Desde " + from);
+            }
+        }
+    }
+}
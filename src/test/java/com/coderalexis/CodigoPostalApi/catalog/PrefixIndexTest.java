@@ -0,0 +1,66 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import com.coderalexis.CodigoPostalApi.util.Util;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefixIndexTest {
+
+    @Test
+    @DisplayName("Las sugerencias deben coincidir con ordenar todos los nombres con el prefijo")
+    void topShouldMatchBruteForce() {
+        // Enough names for several full blocks to be skipped
+        Random random = new Random(42);
+        String[] values = new String[600];
+        String[] normalized = new String[values.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (random.nextBoolean() ? "San " : "Santa ") + (char) ('A' + random.nextInt(4)) + "ngel " + i;
+            normalized[i] = Util.normalizeString(values[i]);
+        }
+        values[0] = "San Ángel";
+        normalized[0] = "san angel";
+        StringDictionary strings = new StringDictionary(values, normalized);
+
+        // 200 zip codes with 1-50 settlements each, names drawn with a skewed distribution
+        int[] settlementOffsets = new int[201];
+        List<Integer> column = new ArrayList<>();
+        for (int ordinal = 0; ordinal < 200; ordinal++) {
+            int settlements = 1 + random.nextInt(50);
+            for (int i = 0; i < settlements; i++) {
+                column.add((int) (values.length * Math.pow(random.nextDouble(), 3)));
+            }
+            settlementOffsets[ordinal + 1] = column.size();
+        }
+        PrefixIndex index = PrefixIndex.ofSettlementColumn(
+                strings, column.stream().mapToInt(Integer::intValue).toArray(), settlementOffsets);
+
+        for (String prefix : new String[] {"s", "san", "san a", "santa b", "san angel", "san angel 1", "x"}) {
+            for (int limit : new int[] {1, 5, 50}) {
+                int[] expected = IntStream.range(0, index.size())
+                        .filter(k -> index.key(k).startsWith(prefix))
+                        .boxed()
+                        .sorted(Comparator.comparingInt(index::weight).reversed().thenComparing(k -> k))
+                        .limit(limit)
+                        .mapToInt(Integer::intValue)
+                        .toArray();
+                assertArrayEquals(expected, index.top(prefix, limit), prefix + " / " + limit);
+            }
+        }
+
+        int sanAngel = index.top("san angel", 50)[0];
+        assertEquals("San Ángel", index.name(sanAngel));
+        for (int i = index.zipStart(sanAngel) + 1; i < index.zipEnd(sanAngel); i++) {
+            assertTrue(index.zipOrdinal(i - 1) < index.zipOrdinal(i));
+        }
+    }
+}
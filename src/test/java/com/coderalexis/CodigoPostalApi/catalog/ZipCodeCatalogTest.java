@@ -0,0 +1,75 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import com.coderalexis.CodigoPostalApi.model.Settlements;
+import com.coderalexis.CodigoPostalApi.model.ZipCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ZipCodeCatalogTest {
+
+    private static final String HEADER = "El Catálogo Nacional de Códigos Postales\r\n"
+            + "d_codigo|d_asenta|d_tipo_asenta|D_mnpio|d_estado|d_ciudad|d_CP|c_estado|c_oficina|c_CP"
+            + "|c_tipo_asenta|c_mnpio|id_asenta_cpcons|d_zona|c_cve_ciudad\r\n";
+
+    @Test
+    @DisplayName("Cada valor repetido y su forma normalizada deben existir una sola vez en memoria")
+    void repeatedValuesShouldBeCanonicalized() {
+        StringBuilder content = new StringBuilder(HEADER);
+        for (int i = 0; i < 200; i++) {
+            content.append(String.format("%05d|Colonia %d|Colonia|Zapopan|Jalisco|Zapopan|45011|14|45011||09|120|0001|Urbano|01\r\n",
+                    45000 + i, i));
+        }
+        // Several chunks so that each one parses its own copies of the repeated values
+        ZipCodeFileLoader.Result result = new ZipCodeFileLoader(4)
+                .load(ByteBuffer.wrap(content.toString().getBytes(StandardCharsets.ISO_8859_1)));
+
+        ZipCodeCatalog catalog = ZipCodeCatalog.of(result);
+
+        ZipCode first = catalog.toZipCode(0);
+        ZipCode last = catalog.toZipCode(catalog.size() - 1);
+        assertSame(first.getFederalEntity(), last.getFederalEntity());
+        assertSame(first.getNormalizedMunicipality(), last.getNormalizedMunicipality());
+        Settlements firstSettlement = first.getSettlements().get(0);
+        Settlements lastSettlement = last.getSettlements().get(0);
+        assertSame(firstSettlement.getZoneType(), lastSettlement.getZoneType());
+        assertSame(firstSettlement.getNormalizedSettlementType(), lastSettlement.getNormalizedSettlementType());
+
+        // 200 settlement names plus Zapopan, Jalisco, Colonia and Urbano
+        assertEquals(204, catalog.distinctStringCount());
+        assertTrue(catalog.stringBytes() < catalog.undeduplicatedStringBytes() / 2,
+                "El diccionario debe ocupar bastante menos que una copia por aparición");
+    }
+
+    @Test
+    @DisplayName("La tabla de rangos debe resolver codigos exactos y rangos de prefijo")
+    void rankTableShouldResolveLookupsAndPrefixRanges() {
+        String content = HEADER
+                + "00000|Centro|Colonia|Zapopan|Jalisco|Zapopan|45011|14|45011||09|120|0001|Urbano|01\r\n"
+                + "01900|San Angel|Colonia|Alvaro Obregon|Ciudad de Mexico||01001|09|01001||09|010|0001|Urbano|\r\n"
+                + "01999|Tizapan|Colonia|Alvaro Obregon|Ciudad de Mexico||01001|09|01001||09|010|0002|Urbano|\r\n"
+                + "99999|Final|Colonia|Merida|Yucatan|Merida|97001|31|97001||09|050|0001|Urbano|01\r\n";
+        ZipCodeCatalog catalog = ZipCodeCatalog.of(new ZipCodeFileLoader(1)
+                .load(ByteBuffer.wrap(content.getBytes(StandardCharsets.ISO_8859_1))));
+
+        assertEquals(0, catalog.ordinalOf("00000"));
+        assertEquals(2, catalog.ordinalOf("01999"));
+        assertEquals(3, catalog.ordinalOf("99999"));
+        assertEquals(-1, catalog.ordinalOf("01901"));
+        assertEquals(-1, catalog.ordinalOf("0190a"));
+        assertEquals(-1, catalog.ordinalOf("0190/"));
+        assertEquals(-1, catalog.ordinalOf("1900"));
+
+        // "019" covers [1900, 2000)
+        assertEquals(1, catalog.lowerBound(1_900));
+        assertEquals(3, catalog.lowerBound(2_000));
+        assertEquals(4, catalog.lowerBound(100_000));
+        assertEquals(0, ZipCodeCatalog.empty().lowerBound(100_000));
+    }
+}
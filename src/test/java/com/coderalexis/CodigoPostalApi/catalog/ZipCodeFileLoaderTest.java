@@ -0,0 +1,135 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import com.coderalexis.CodigoPostalApi.model.Settlements;
+import com.coderalexis.CodigoPostalApi.model.ZipCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+class ZipCodeFileLoaderTest {
+
+    private static final String HEADER = "El Catálogo Nacional de Códigos Postales\r\n"
+            + "d_codigo|d_asenta|d_tipo_asenta|D_mnpio|d_estado|d_ciudad|d_CP|c_estado|c_oficina|c_CP"
+            + "|c_tipo_asenta|c_mnpio|id_asenta_cpcons|d_zona|c_cve_ciudad\r\n";
+
+    @Test
+    @DisplayName("La carga paralela debe producir los mismos índices que la secuencial")
+    void parallelLoadShouldMatchSequentialLoad() throws IOException {
+        byte[] content = catalog(3_000, 7);
+
+        ZipCodeFileLoader.Result sequential = new ZipCodeFileLoader(1).load(new ByteArrayInputStream(content));
+        ZipCodeFileLoader.Result parallel = new ZipCodeFileLoader(4).load(new ByteArrayInputStream(content));
+
+        assertEquals(3_000, sequential.zipCodesByCode().size());
+        assertEquals(21_000, sequential.linesProcessed());
+        assertEquals(sequential.linesProcessed(), parallel.linesProcessed());
+        assertEquals(sequential.zipCodesByCode().keySet(), parallel.zipCodesByCode().keySet());
+        assertEquals(sequential.zipCodesByNormalizedEntity().keySet(), parallel.zipCodesByNormalizedEntity().keySet());
+        assertEquals(sequential.zipCodesByNormalizedMunicipality().keySet(),
+                parallel.zipCodesByNormalizedMunicipality().keySet());
+
+        for (ZipCode expected : sequential.zipCodesByCode().values()) {
+            ZipCode actual = parallel.zipCodesByCode().get(expected.getZipCode());
+            assertNotNull(actual);
+            assertEquals(settlementNames(expected), settlementNames(actual),
+                    "El orden de asentamientos debe ser determinista para " + expected.getZipCode());
+        }
+    }
+
+    @Test
+    @DisplayName("Debe contar líneas inválidas sin detener la carga")
+    void shouldCountInvalidLinesWithoutStopping() throws IOException {
+        String content = HEADER
+                + "01000|San Ángel|Colonia|Álvaro Obregón|Ciudad de México|Ciudad de México|01001|09|01001||09|010|0001|Urbano|01\r\n"
+                + "ABCDE|Centro|Colonia|Guadalajara|Jalisco|Guadalajara|44001|14|44001||09|039|0001|Urbano|01\r\n"
+                + "44100|Centro\r\n"
+                + "44100|Centro|Colonia||Jalisco|Guadalajara|44001|14|44001||09|039|0001|Urbano|01\r\n";
+
+        ZipCodeFileLoader.Result result = new ZipCodeFileLoader(2)
+                .load(new ByteArrayInputStream(content.getBytes(StandardCharsets.ISO_8859_1)));
+
+        assertEquals(1, result.zipCodesByCode().size());
+        assertEquals(1, result.linesProcessed());
+        assertEquals(3, result.errorCount());
+        assertEquals("Álvaro Obregón", result.zipCodesByCode().get("01000").getMunicipality());
+        assertEquals("alvaro obregon", result.zipCodesByCode().get("01000").getNormalizedMunicipality());
+    }
+
+    @Test
+    @DisplayName("El parser por bytes debe conservar la semántica de split y trim en UTF-8")
+    void byteParserShouldKeepSplitAndTrimSemantics() throws IOException {
+        String content = HEADER
+                + " 44100 |  Centro  |Colonia| Guadalajara |Jalisco|Guadalajara|44001|14|44001||09|039|0001| Urbano |01\n"
+                + "44100|Mexicaltzingo|Barrio|Guadalajara|Jalisco|Guadalajara||||||||\r"
+                + "44100|Santa Teresita|Colonia|Guadalajara|Jalisco|Guadalajara|44001|14|44001||09|039|0001||01\r\n"
+                + "01000|San Ángel|Colonia|Álvaro Obregón|Ciudad de México|Ciudad de México\r\n"
+                + "01000|Sin zona|Colonia|Álvaro Obregón|Ciudad de México|||||\r\n";
+
+        ZipCodeFileLoader.Result result = new ZipCodeFileLoader(1)
+                .load(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+
+        // Trailing empty columns do not count, so the last row only has five
+        assertEquals(1, result.errorCount());
+        assertEquals(4, result.linesProcessed());
+
+        ZipCode guadalajara = result.zipCodesByCode().get("44100");
+        assertEquals("Guadalajara", guadalajara.getMunicipality());
+        assertEquals(List.of("Centro", "Mexicaltzingo", "Santa Teresita"), settlementNames(guadalajara));
+        assertEquals("Urbano", guadalajara.getSettlements().get(0).getZoneType());
+        assertEquals("", guadalajara.getSettlements().get(1).getZoneType());
+        assertEquals("", guadalajara.getSettlements().get(2).getZoneType());
+
+        ZipCode sanAngel = result.zipCodesByCode().get("01000");
+        assertEquals("San Ángel", sanAngel.getSettlements().get(0).getName());
+        assertEquals("san angel", sanAngel.getSettlements().get(0).getNormalizedName());
+        assertEquals("ciudad de mexico", sanAngel.getNormalizedFederalEntity());
+        assertEquals(1, sanAngel.getSettlements().size());
+    }
+
+    @Test
+    @DisplayName("La carga mapeada en memoria debe producir los mismos índices que la carga por stream")
+    void memoryMappedLoadShouldMatchStreamLoad(@TempDir Path tempDir) throws IOException {
+        byte[] content = catalog(500, 3);
+        Path file = Files.write(tempDir.resolve("CPdescarga.txt"), content);
+
+        ZipCodeFileLoader.Result streamed = new ZipCodeFileLoader(2).load(new ByteArrayInputStream(content));
+        ZipCodeFileLoader.Result mapped = new ZipCodeFileLoader(2).load(file);
+
+        assertEquals(streamed.linesProcessed(), mapped.linesProcessed());
+        assertEquals(streamed.zipCodesByCode().keySet(), mapped.zipCodesByCode().keySet());
+        assertEquals(streamed.zipCodesByNormalizedEntity().keySet(), mapped.zipCodesByNormalizedEntity().keySet());
+        for (ZipCode expected : streamed.zipCodesByCode().values()) {
+            assertEquals(settlementNames(expected), settlementNames(mapped.zipCodesByCode().get(expected.getZipCode())));
+        }
+    }
+
+    private static byte[] catalog(int zipCodes, int settlementsPerZip) {
+        StringBuilder builder = new StringBuilder(HEADER);
+        for (int zip = 0; zip < zipCodes; zip++) {
+            String zipCode = String.format("%05d", 1000 + zip * 3);
+            String municipality = "Municipio " + (zip / 40);
+            String entity = "Entidad " + (zip / 400);
+            for (int s = 0; s < settlementsPerZip; s++) {
+                builder.append(zipCode).append("|Asentamiento ").append(zip).append('-').append(s)
+                        .append("|Colonia|").append(municipality).append('|').append(entity)
+                        .append("|Ciudad|").append(zipCode).append("|01|").append(zipCode)
+                        .append("||09|001|0001|").append(s % 2 == 0 ? "Urbano" : "Rural").append("|01\r\n");
+            }
+        }
+        return builder.toString().getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static List<String> settlementNames(ZipCode zipCode) {
+        return zipCode.getSettlements().stream().map(Settlements::getName).toList();
+    }
+}
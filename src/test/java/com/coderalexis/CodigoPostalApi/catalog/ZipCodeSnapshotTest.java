@@ -0,0 +1,148 @@
+package com.coderalexis.CodigoPostalApi.catalog;
+
+import com.coderalexis.CodigoPostalApi.model.ZipCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ZipCodeSnapshotTest {
+
+    private static final String CONTENT = "El Catálogo Nacional de Códigos Postales\r\n"
+            + "d_codigo|d_asenta|d_tipo_asenta|D_mnpio|d_estado|d_ciudad|d_CP|c_estado|c_oficina|c_CP"
+            + "|c_tipo_asenta|c_mnpio|id_asenta_cpcons|d_zona|c_cve_ciudad\r\n"
+            + "01000|San Ángel|Colonia|Álvaro Obregón|Ciudad de México|Ciudad de México|01001|09|01001||09|010|0001|Urbano|01\r\n"
+            + "44100|Centro|Colonia|Guadalajara|Jalisco|Guadalajara|44001|14|44001||09|039|0001|Urbano|01\r\n"
+            + "44100|Mexicaltzingo|Barrio|Guadalajara|Jalisco|Guadalajara\r\n"
+            + "45010|Ciudad Granja|Colonia|Zapopan|Jalisco|Zapopan|45011|14|45011||09|120|0001|Urbano|01\r\n"
+            + "ABCDE|Centro|Colonia|Guadalajara|Jalisco|Guadalajara|44001|14|44001||09|039|0001|Urbano|01\r\n";
+
+    @TempDir
+    Path tempDir;
+
+    private ByteBuffer content;
+    private ZipCodeCatalog loaded;
+
+    @BeforeEach
+    void setUp() {
+        content = ByteBuffer.wrap(CONTENT.getBytes(StandardCharsets.ISO_8859_1));
+        loaded = ZipCodeCatalog.of(new ZipCodeFileLoader(1).load(content));
+    }
+
+    @Test
+    @DisplayName("El índice binario debe reproducir los mismos datos que la carga de texto")
+    void snapshotShouldRoundTrip() {
+        ZipCodeSnapshot snapshot = new ZipCodeSnapshot(tempDir.resolve("nested/CPdescarga.snapshot"));
+        long checksum = ZipCodeSnapshot.checksum(content);
+        snapshot.write(loaded, checksum);
+
+        ZipCodeCatalog restored = snapshot.read(checksum);
+
+        assertNotNull(restored);
+        assertEquals(3, restored.size());
+        assertEquals(loaded.settlementCount(), restored.settlementCount());
+        for (int ordinal = 0; ordinal < loaded.size(); ordinal++) {
+            ZipCode expected = loaded.toZipCode(ordinal);
+            ZipCode actual = restored.toZipCode(ordinal);
+            assertEquals(expected.getZipCode(), actual.getZipCode());
+            assertEquals(expected.getLocality(), actual.getLocality());
+            assertEquals(expected.getFederalEntity(), actual.getFederalEntity());
+            assertEquals(expected.getMunicipality(), actual.getMunicipality());
+            assertEquals(expected.getNormalizedFederalEntity(), actual.getNormalizedFederalEntity());
+            assertEquals(expected.getNormalizedMunicipality(), actual.getNormalizedMunicipality());
+            assertEquals(expected.getSettlements(), actual.getSettlements());
+        }
+        assertEquals(postings(loaded.federalEntityIndex()), postings(restored.federalEntityIndex()));
+        assertEquals(postings(loaded.municipalityIndex()), postings(restored.municipalityIndex()));
+        assertEquals(loaded.stats(), restored.stats());
+        assertEquals(loaded.federalEntities(), restored.federalEntities());
+        assertEquals("san angel", restored.toSettlements(restored.ordinalOf("01000")).get(0).getNormalizedName());
+    }
+
+    @Test
+    @DisplayName("Los índices derivados leídos del índice binario deben responder igual que los reconstruidos")
+    void snapshotShouldRestoreDerivedIndexes() {
+        ZipCodeSnapshot snapshot = new ZipCodeSnapshot(tempDir.resolve("CPdescarga.snapshot"));
+        long checksum = ZipCodeSnapshot.checksum(content);
+        snapshot.write(loaded, checksum);
+
+        ZipCodeCatalog restored = snapshot.read(checksum);
+
+        assertNotNull(restored);
+        for (String term : List.of("a", "gu", "cen", "centro", "guadalajara", "zzz")) {
+            assertEquals(loaded.federalEntityBitmaps().matching(term), restored.federalEntityBitmaps().matching(term));
+            assertEquals(loaded.municipalityBitmaps().matching(term), restored.municipalityBitmaps().matching(term));
+            assertEquals(loaded.settlementNameBitmaps().matching(term), restored.settlementNameBitmaps().matching(term));
+            assertEquals(loaded.zoneTypeBitmaps().matching(term), restored.zoneTypeBitmaps().matching(term));
+            assertEquals(Set.copyOf(loaded.municipalityTerms().search(term, 2)),
+                    Set.copyOf(restored.municipalityTerms().search(term, 2)));
+            assertEquals(Set.copyOf(loaded.settlementNameTerms().search(term, 2)),
+                    Set.copyOf(restored.settlementNameTerms().search(term, 2)));
+            assertArrayEquals(loaded.settlementNamePrefixes().top(term, 10),
+                    restored.settlementNamePrefixes().top(term, 10));
+            assertArrayEquals(loaded.federalEntityIndex().keysContaining(term),
+                    restored.federalEntityIndex().keysContaining(term));
+            assertArrayEquals(loaded.municipalityIndex().keysContaining(term),
+                    restored.municipalityIndex().keysContaining(term));
+        }
+        assertEquals(loaded.federalEntityIndex().isDisjoint(), restored.federalEntityIndex().isDisjoint());
+        assertEquals(loaded.municipalityIndex().isDisjoint(), restored.municipalityIndex().isDisjoint());
+        assertEquals("Ciudad Granja", restored.settlementNamePrefixes().name(restored.settlementNamePrefixes().top("ciu", 1)[0]));
+        // Index keys are the dictionary's own strings, not copies
+        int entity = restored.federalEntityColumn()[restored.ordinalOf("44100")];
+        assertSame(restored.strings().normalized(entity), restored.federalEntityTerms().key(
+                restored.federalEntityTerms().search("jalisco", 0).get(0).key()));
+    }
+
+    @Test
+    @DisplayName("Debe ignorar el índice binario si el archivo de origen cambió")
+    void snapshotShouldBeIgnoredWhenSourceChanges() {
+        ZipCodeSnapshot snapshot = new ZipCodeSnapshot(tempDir.resolve("CPdescarga.snapshot"));
+        long checksum = ZipCodeSnapshot.checksum(content);
+        snapshot.write(loaded, checksum);
+
+        assertNull(snapshot.read(checksum + 1));
+    }
+
+    @Test
+    @DisplayName("Debe ignorar un índice binario dañado")
+    void damagedSnapshotShouldBeIgnored() throws IOException {
+        Path file = tempDir.resolve("CPdescarga.snapshot");
+        ZipCodeSnapshot snapshot = new ZipCodeSnapshot(file);
+        long checksum = ZipCodeSnapshot.checksum(content);
+        snapshot.write(loaded, checksum);
+
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x7F;
+        Files.write(file, bytes);
+        assertNull(snapshot.read(checksum));
+
+        Files.write(file, new byte[]{1, 2, 3});
+        assertNull(snapshot.read(checksum));
+    }
+
+    private static Map<String, List<Integer>> postings(PostingIndex index) {
+        Map<String, List<Integer>> postings = new HashMap<>();
+        for (int k = 0; k < index.size(); k++) {
+            postings.put(index.key(k), Arrays.stream(index.postings(k)).boxed().toList());
+        }
+        return postings;
+    }
+}
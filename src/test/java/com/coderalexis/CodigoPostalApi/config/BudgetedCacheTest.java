@@ -0,0 +1,85 @@
+package com.coderalexis.CodigoPostalApi.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BudgetedCacheTest {
+
+    @Test
+    @DisplayName("Todas las caches deben compartir un presupuesto de memoria en bytes")
+    @SuppressWarnings("unchecked")
+    void shouldKeepAllCachesWithinOneHeapBudget() {
+        CacheManager cacheManager = cacheManager(DataSize.ofKilobytes(64));
+        org.springframework.cache.Cache ordinals = cacheManager.getCache("federalEntitySearch");
+        org.springframework.cache.Cache responses = cacheManager.getCache("responses");
+
+        for (int i = 0; i < 200; i++) {
+            ordinals.put("entity_" + i, new int[256]);
+            responses.put("response_" + i, new byte[1024]);
+        }
+
+        Cache<BudgetedCache.Key, Object> store = (Cache<BudgetedCache.Key, Object>) ordinals.getNativeCache();
+        store.cleanUp();
+        long weight = store.policy().eviction().orElseThrow().weightedSize().orElseThrow();
+        assertTrue(weight <= DataSize.ofKilobytes(64).toBytes(), "Peso retenido: " + weight);
+        assertTrue(store.estimatedSize() < 400);
+    }
+
+    @Test
+    @DisplayName("Limpiar una cache no debe afectar a las demas del mismo presupuesto")
+    void shouldClearOnlyTheNamedCache() {
+        CacheManager cacheManager = cacheManager(DataSize.ofMegabytes(1));
+        org.springframework.cache.Cache entities = cacheManager.getCache("advancedSearch");
+        org.springframework.cache.Cache partial = cacheManager.getCache("partialSearch");
+
+        entities.put("all", "Ciudad de Mexico");
+        partial.put("all", "Polanco");
+        entities.clear();
+
+        assertNull(entities.get("all"));
+        assertNotNull(partial.get("all"));
+        assertEquals("Polanco", partial.get("all", String.class));
+    }
+
+    @Test
+    @DisplayName("Cada cache debe publicar sus propios aciertos, fallos y escrituras")
+    void shouldPublishMetricsPerNamedCache() {
+        CacheManager cacheManager = cacheManager(DataSize.ofMegabytes(1));
+        org.springframework.cache.Cache partial = cacheManager.getCache("partialSearch");
+        org.springframework.cache.Cache responses = cacheManager.getCache("responses");
+        MeterRegistry registry = new SimpleMeterRegistry();
+        new BudgetedCacheMetrics((BudgetedCache) partial, Tags.empty()).bindTo(registry);
+        new BudgetedCacheMetrics((BudgetedCache) responses, Tags.empty()).bindTo(registry);
+
+        partial.put("pol", "Polanco");
+        partial.get("pol");
+        partial.get("roma");
+        partial.get("roma", () -> "Roma Norte");
+        partial.get("roma", () -> "Roma Sur");
+        responses.get("stats");
+
+        assertEquals(2, registry.get("cache.gets").tags("cache", "partialSearch", "result", "hit").functionCounter().count());
+        assertEquals(2, registry.get("cache.gets").tags("cache", "partialSearch", "result", "miss").functionCounter().count());
+        assertEquals(1, registry.get("cache.puts").tags("cache", "partialSearch").functionCounter().count());
+        assertEquals(1, registry.get("cache.gets").tags("cache", "responses", "result", "miss").functionCounter().count());
+    }
+
+    // Outside the context nobody calls afterPropertiesSet to register the caches
+    private static CacheManager cacheManager(DataSize maxHeapBytes) {
+        SimpleCacheManager cacheManager = (SimpleCacheManager) new CacheConfiguration().cacheManager(maxHeapBytes);
+        cacheManager.afterPropertiesSet();
+        return cacheManager;
+    }
+}
@@ -0,0 +1,23 @@
+package com.coderalexis.CodigoPostalApi.config;
+
+import com.coderalexis.CodigoPostalApi.catalog.ZipCodeCatalog;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConditionalGetInterceptorTest {
+
+    @Test
+    @DisplayName("No debe haber validadores si el catálogo cambió durante la petición")
+    void shouldOmitValidatorsWhenCatalogChangedDuringRequest() {
+        ZipCodeCatalog seen = ZipCodeCatalog.empty();
+        ZipCodeCatalog reloaded = seen.withVersion(1, 0);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/zip-codes/stats");
+        request.setAttribute(ConditionalGetInterceptor.CATALOG_ATTRIBUTE, seen);
+
+        assertNull(ConditionalGetInterceptor.validators(request, reloaded));
+        assertNull(ConditionalGetInterceptor.validators(new MockHttpServletRequest(), seen));
+    }
+}
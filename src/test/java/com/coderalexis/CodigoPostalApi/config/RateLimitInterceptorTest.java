@@ -2,7 +2,9 @@ package com.coderalexis.CodigoPostalApi.config;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -33,4 +35,18 @@ class RateLimitInterceptorTest {
         assertFalse(interceptor.ipMatchesCIDR("192.168.1.25", "192.168.1.0"));
         assertFalse(interceptor.ipMatchesCIDR("192.168.1.25", "not-an-ip/24"));
     }
+
+    @Test
+    @DisplayName("Un lote debe consumir su peso configurado, limitado a la capacidad de ráfaga")
+    void shouldWeighBatchRequests() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setBatchWeight(5);
+        RateLimitInterceptor weighted = new RateLimitInterceptor(properties);
+
+        assertEquals(5, weighted.tokensFor(new MockHttpServletRequest("POST", "/zip-codes/batch")));
+        assertEquals(1, weighted.tokensFor(new MockHttpServletRequest("GET", "/zip-codes/01000")));
+
+        properties.setBatchWeight(500);
+        assertEquals(properties.getBurstCapacity(), weighted.tokensFor(new MockHttpServletRequest("POST", "/zip-codes/batch")));
+    }
 }
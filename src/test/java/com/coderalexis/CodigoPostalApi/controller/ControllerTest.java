@@ -2,6 +2,7 @@ package com.coderalexis.CodigoPostalApi.controller;
 
 import com.coderalexis.CodigoPostalApi.model.ZipCode;
 import com.coderalexis.CodigoPostalApi.service.ZipCodeService;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -10,9 +11,22 @@ import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @SpringBootTest
@@ -40,6 +54,30 @@ class ControllerTest {
                 .andExpect(jsonPath("$.settlements", hasSize(greaterThan(0))));
     }
 
+    @Test
+    @DisplayName("GET /zip-codes/{zipcode} - Debe reutilizar el JSON generado con Content-Length y ETag")
+    void shouldServeRenderedZipCodeJson() throws Exception {
+        MvcResult first = mockMvc.perform(get("/zip-codes/01000"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        byte[] body = first.getResponse().getContentAsByteArray();
+        String etag = first.getResponse().getHeader("ETag");
+
+        MvcResult second = mockMvc.perform(get("/zip-codes/01000"))
+                .andExpect(status().isOk())
+                .andExpect(header().longValue("Content-Length", body.length))
+                .andExpect(header().string("ETag", etag))
+                .andReturn();
+        assertArrayEquals(body, second.getResponse().getContentAsByteArray());
+
+        mockMvc.perform(get("/zip-codes/01000").param("simplified", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.zip_code").value("01000"))
+                .andExpect(jsonPath("$.settlements_count").value(greaterThan(0)))
+                .andExpect(jsonPath("$.settlements").doesNotExist());
+    }
+
     @Test
     @DisplayName("GET /zip-codes/{zipcode} - Debe retornar 404 para código postal inexistente")
     void shouldReturn404ForInvalidZipCode() throws Exception {
@@ -69,6 +107,147 @@ class ControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    @DisplayName("GET /zip-codes/search - Debe informar el total exacto del prefijo")
+    void shouldReturnTotalCountForPartialSearch() throws Exception {
+        int total = zipCodeService.countByPartialCode("0");
+
+        mockMvc.perform(get("/zip-codes/search")
+                .param("code", "0")
+                .param("limit", "2")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", String.valueOf(total)))
+                .andExpect(jsonPath("$", hasSize(2)));
+    }
+
+    @Test
+    @DisplayName("POST /zip-codes/batch - Debe resolver el lote en orden y marcar los no encontrados")
+    void shouldResolveBatchInRequestOrder() throws Exception {
+        mockMvc.perform(post("/zip-codes/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[\"44102\", \"99999\", \"abc\", \"01000\", \"44102\"]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(5)))
+                .andExpect(jsonPath("$[0].zip_code").value("44102"))
+                .andExpect(jsonPath("$[0].found").value(true))
+                .andExpect(jsonPath("$[0].data.settlements").isArray())
+                .andExpect(jsonPath("$[1].found").value(false))
+                .andExpect(jsonPath("$[1].data").doesNotExist())
+                .andExpect(jsonPath("$[2].found").value(false))
+                .andExpect(jsonPath("$[3].data.zip_code").value("01000"))
+                .andExpect(jsonPath("$[4].found").value(true));
+
+        mockMvc.perform(post("/zip-codes/batch")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content("01000\n\n44102 \n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].zip_code").value("44102"))
+                .andExpect(jsonPath("$[1].found").value(true));
+
+        mockMvc.perform(post("/zip-codes/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /zip-codes/batch - Debe rechazar lotes demasiado grandes o mal formados")
+    void shouldRejectOversizedOrMalformedBatches() throws Exception {
+        int tooMany = zipCodeService.getMaxBatchSize() + 1;
+        mockMvc.perform(post("/zip-codes/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[" + String.join(",", Collections.nCopies(tooMany, "\"01000\"")) + "]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string(containsString("como maximo")));
+
+        mockMvc.perform(post("/zip-codes/batch")
+                .contentType(MediaType.TEXT_PLAIN)
+                .content(String.join("\n", Collections.nCopies(tooMany, "01000"))))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/zip-codes/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"zip_code\": \"01000\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /zip-codes/export - Debe exportar el municipio completo como NDJSON")
+    void shouldStreamMunicipalityAsNdjson() throws Exception {
+        int total = zipCodeService.searchByMunicipality("Guadalajara").size();
+
+        MvcResult result = mockMvc.perform(get("/zip-codes/export")
+                .param("municipality", "Guadalajara"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+
+        List<String> lines = body.lines().toList();
+        assertEquals(total, lines.size());
+        assertTrue(body.endsWith("}\n"));
+        assertTrue(lines.stream().allMatch(line -> line.startsWith("{") && line.contains("\"zip_code\":")));
+        assertTrue(lines.stream().allMatch(line -> line.contains("\"municipality\":\"Guadalajara\"")));
+
+        mockMvc.perform(get("/zip-codes/export").param("municipality", "Xyzabc"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/zip-codes/export"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /zip-codes/bulk/{format} - Debe servir el catálogo precomprimido con ETag y Range")
+    void shouldServePrecompressedBulkDownload() throws Exception {
+        MvcResult gzip = mockMvc.perform(get("/zip-codes/bulk/csv")
+                .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Accept-Ranges", "bytes"))
+                .andExpect(header().exists("ETag"))
+                .andReturn();
+        byte[] compressed = gzip.getResponse().getContentAsByteArray();
+        String csv;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            csv = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        List<String> rows = csv.lines().toList();
+        assertEquals("zip_code,federal_entity,municipality,locality,settlement,settlement_type,zone_type", rows.get(0));
+        assertEquals(zipCodeService.getStatistics().getTotalSettlements(), rows.size() - 1);
+
+        String etag = gzip.getResponse().getHeader("ETag");
+        mockMvc.perform(get("/zip-codes/bulk/csv")
+                .header("Accept-Encoding", "gzip")
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/zip-codes/bulk/csv")
+                .header("Accept-Encoding", "gzip")
+                .header("Range", "bytes=10-19"))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(Arrays.copyOfRange(compressed, 10, 20)));
+
+        // The identity representation ignores Range and is sent whole
+        String json = mockMvc.perform(get("/zip-codes/bulk/json")
+                .header("Range", "bytes=10-19"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("Accept-Ranges", "none"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andReturn()
+                .getResponse()
+                .getContentAsString(StandardCharsets.UTF_8);
+        assertTrue(json.startsWith("[{") && json.endsWith("}]"));
+
+        mockMvc.perform(get("/zip-codes/bulk/xml"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     @DisplayName("GET /zip-codes?federal_entity - Debe buscar por entidad federativa")
     void shouldSearchByFederalEntity() throws Exception {
@@ -238,4 +417,131 @@ class ControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.first").value(false));
     }
+
+    @Test
+    @DisplayName("GET /zip-codes/by-municipality - Debe continuar desde nextCursor")
+    void shouldContinueFromNextCursor() throws Exception {
+        MvcResult firstPage = mockMvc.perform(get("/zip-codes/by-municipality")
+                .param("municipality", "guadalajara")
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn();
+        String cursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/zip-codes/by-municipality")
+                .param("municipality", "guadalajara")
+                .param("size", "5")
+                .param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.pageNumber").value(1))
+                .andExpect(jsonPath("$.first").value(false));
+
+        mockMvc.perform(get("/zip-codes")
+                .param("federal_entity", "jalisco")
+                .param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("GET /zip-codes/federal-entities - Debe servir la variante gzip precomprimida")
+    void shouldServePrecompressedVariant() throws Exception {
+        MvcResult identity = mockMvc.perform(get("/zip-codes/federal-entities"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andExpect(header().string("Vary", "Accept-Encoding"))
+                .andReturn();
+
+        MvcResult gzip = mockMvc.perform(get("/zip-codes/federal-entities")
+                .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn();
+
+        byte[] compressed = gzip.getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(identity.getResponse().getContentAsByteArray(), in.readAllBytes());
+        }
+        assertTrue(compressed.length < identity.getResponse().getContentAsByteArray().length);
+    }
+
+    @Test
+    @DisplayName("GET /zip-codes - Debe responder 304 cuando el ETag coincide")
+    void shouldAnswerNotModifiedForMatchingEtag() throws Exception {
+        MvcResult first = mockMvc.perform(get("/zip-codes/by-municipality")
+                .param("municipality", "Guadalajara")
+                .param("size", "5"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andExpect(header().exists("Last-Modified"))
+                .andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/zip-codes/by-municipality")
+                .param("size", "5")
+                .param("municipality", "guadalajara ")
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/zip-codes/by-municipality")
+                .param("municipality", "guadalajara")
+                .param("size", "5")
+                .param("page", "1")
+                .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(etag)));
+
+        mockMvc.perform(get("/zip-codes/stats")
+                .header("If-Modified-Since", first.getResponse().getHeader("Last-Modified")))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(get("/zip-codes/99999"))
+                .andExpect(status().isNotFound())
+                .andExpect(header().doesNotExist("ETag"));
+    }
+
+    @Test
+    @DisplayName("GET /zip-codes - If-None-Match: * e If-Modified-Since no deben ocultar un 404 o un 400")
+    void shouldAnswerNotModifiedOnlyForExistingResources() throws Exception {
+        String lastModified = mockMvc.perform(get("/zip-codes/stats"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("Last-Modified");
+
+        mockMvc.perform(get("/zip-codes/99999")
+                .header("If-None-Match", "*"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/zip-codes/99999")
+                .header("If-Modified-Since", lastModified))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/zip-codes/by-municipality")
+                .param("municipality", "Guadalajara")
+                .param("page", "-1")
+                .header("If-Modified-Since", lastModified))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/zip-codes/stats")
+                .header("If-None-Match", "*"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().exists("ETag"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    @DisplayName("GET /zip-codes - El ETag debe depender de los datos y no de la versión local del catálogo")
+    void shouldKeepEtagAcrossReloadOfTheSameFile() throws Exception {
+        String etag = mockMvc.perform(get("/zip-codes/federal-entities"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        long version = zipCodeService.getCatalogVersion();
+
+        assertTrue(zipCodeService.reload());
+
+        assertTrue(zipCodeService.getCatalogVersion() > version);
+        mockMvc.perform(get("/zip-codes/federal-entities")
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+    }
 }
@@ -2,15 +2,21 @@ package com.coderalexis.CodigoPostalApi.service;
 
 import com.coderalexis.CodigoPostalApi.exceptions.ZipCodeNotFoundException;
 import com.coderalexis.CodigoPostalApi.model.AdvancedSearchRequest;
+import com.coderalexis.CodigoPostalApi.model.FuzzyMatch;
 import com.coderalexis.CodigoPostalApi.model.PagedResponse;
+import com.coderalexis.CodigoPostalApi.model.SettlementSuggestion;
 import com.coderalexis.CodigoPostalApi.model.ZipCode;
 import com.coderalexis.CodigoPostalApi.model.ZipCodeStats;
+import com.coderalexis.CodigoPostalApi.util.Util;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.test.context.ActiveProfiles;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,6 +28,9 @@ class ZipCodeServiceTest {
     @Autowired
     private ZipCodeService zipCodeService;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     @Test
     @DisplayName("Debe cargar los datos al iniciar")
     void shouldLoadDataOnStartup() {
@@ -175,6 +184,56 @@ class ZipCodeServiceTest {
         assertTrue(firstPage.isFirst());
     }
 
+    @Test
+    @DisplayName("Debe recorrer todos los resultados siguiendo el cursor de cada página")
+    void shouldWalkAllResultsWithCursors() {
+        List<ZipCode> allResults = zipCodeService.searchByMunicipality("monte");
+        PagedResponse<ZipCode> page = zipCodeService.searchByMunicipality("monte", 0, 7);
+        List<ZipCode> walked = new ArrayList<>(page.getContent());
+        while (page.getNextCursor() != null) {
+            page = zipCodeService.searchByMunicipalityAfter("Monte ", page.getNextCursor(), 7);
+            assertEquals((walked.size()) / 7, page.getPageNumber());
+            assertEquals(allResults.size(), page.getTotalElements());
+            walked.addAll(page.getContent());
+        }
+        assertTrue(page.isLast());
+        assertEquals(allResults, walked);
+
+        AdvancedSearchRequest request = AdvancedSearchRequest.builder()
+                .federalEntity("Jalisco")
+                .zoneType("Rural")
+                .build();
+        PagedResponse<ZipCode> first = zipCodeService.advancedSearch(request, 0, 4);
+        PagedResponse<ZipCode> second = zipCodeService.advancedSearchAfter(request, first.getNextCursor(), 4);
+        assertEquals(zipCodeService.advancedSearch(request, 1, 4).getContent(), second.getContent());
+        assertFalse(second.isFirst());
+
+        // Every page's position, from both ends of the result bitmap
+        List<ZipCode> allAdvanced = zipCodeService.advancedSearch(request);
+        page = first;
+        walked = new ArrayList<>(page.getContent());
+        while (page.getNextCursor() != null) {
+            page = zipCodeService.advancedSearchAfter(request, page.getNextCursor(), 4);
+            assertEquals(walked.size() / 4, page.getPageNumber());
+            walked.addAll(page.getContent());
+        }
+        assertEquals(allAdvanced, walked);
+    }
+
+    @Test
+    @DisplayName("Debe rechazar un cursor emitido para otra búsqueda")
+    void shouldRejectCursorFromAnotherSearch() {
+        String cursor = zipCodeService.searchByMunicipality("Guadalajara", 0, 5).getNextCursor();
+
+        assertNotNull(cursor);
+        assertThrows(IllegalArgumentException.class,
+                () -> zipCodeService.searchByMunicipalityAfter("Zapopan", cursor, 5));
+        assertThrows(IllegalArgumentException.class,
+                () -> zipCodeService.searchByFederalEntityAfter("Guadalajara", cursor, 5));
+        assertThrows(IllegalArgumentException.class,
+                () -> zipCodeService.searchByMunicipalityAfter("Guadalajara", "no-es-un-cursor", 5));
+    }
+
     @Test
     @DisplayName("Debe devolver página vacía cuando la página solicitada excede resultados")
     void shouldReturnEmptyPageWhenPageExceedsResults() {
@@ -225,6 +284,18 @@ class ZipCodeServiceTest {
             "No debe regresar códigos 020xx cuando el prefijo solicitado es 0199");
     }
 
+    @Test
+    @DisplayName("Debe contar todas las coincidencias del prefijo sin importar el límite")
+    void shouldCountAllZipCodesForPrefix() {
+        int total = zipCodeService.countByPartialCode("0");
+        List<ZipCode> limited = zipCodeService.searchByPartialCode("0", 5);
+
+        assertEquals(5, limited.size());
+        assertTrue(total > limited.size(), "El total no debe depender del límite");
+        assertEquals(1, zipCodeService.countByPartialCode("01000"));
+        assertEquals(0, zipCodeService.countByPartialCode("0199"));
+    }
+
     @Test
     @DisplayName("Debe validar longitud máxima en búsqueda parcial")
     void shouldRejectPartialCodeLongerThanFiveDigits() {
@@ -297,6 +368,90 @@ class ZipCodeServiceTest {
                 .allMatch(zipCode -> zipCode.getZipCode().compareTo("00000") >= 0));
     }
 
+    @Test
+    @DisplayName("Debe exigir que tipo de asentamiento y zona coincidan en el mismo asentamiento")
+    void shouldMatchSettlementTypeAndZoneOnSameSettlement() {
+        AdvancedSearchRequest request = AdvancedSearchRequest.builder()
+                .federalEntity("Jalisco")
+                .settlementType("Colonia")
+                .zoneType("Rural")
+                .build();
+
+        List<ZipCode> results = zipCodeService.advancedSearch(request);
+        PagedResponse<ZipCode> page = zipCodeService.advancedSearch(request, 1, 3);
+
+        assertFalse(results.isEmpty());
+        assertTrue(results.stream().allMatch(zipCode -> zipCode.getSettlements().stream()
+                .anyMatch(settlement -> settlement.getNormalizedSettlementType().contains("colonia")
+                        && settlement.getNormalizedZoneType().contains("rural"))),
+            "Ambos criterios deben cumplirse en el mismo asentamiento");
+        assertEquals(results.size(), page.getTotalElements());
+        assertEquals(results.subList(3, Math.min(6, results.size())), page.getContent());
+    }
+
+    @Test
+    @DisplayName("Debe buscar solo por nombre de asentamiento usando el índice")
+    void shouldSearchBySettlementNameOnly() {
+        List<ZipCode> results = zipCodeService.advancedSearch(AdvancedSearchRequest.builder()
+                .settlement("San Ángel")
+                .build());
+
+        assertTrue(results.stream().anyMatch(zipCode -> zipCode.getZipCode().equals("01000")));
+        assertTrue(results.stream().allMatch(zipCode -> zipCode.getSettlements().stream()
+                .anyMatch(settlement -> settlement.getNormalizedName().contains("san angel"))));
+
+        // Terms shorter than a trigram take the scan path and must agree with it
+        PagedResponse<ZipCode> shortTerm = zipCodeService.advancedSearch(AdvancedSearchRequest.builder()
+                .settlement("an")
+                .zoneType("Urbano")
+                .build(), 0, 10);
+        assertTrue(shortTerm.getTotalElements() > results.size());
+        assertTrue(shortTerm.getContent().stream().allMatch(zipCode -> zipCode.getSettlements().stream()
+                .anyMatch(settlement -> settlement.getNormalizedName().contains("an")
+                        && settlement.getNormalizedZoneType().contains("urbano"))));
+    }
+
+    @Test
+    @DisplayName("Debe encontrar nombres con errores de escritura ordenados por distancia")
+    void shouldFindMisspelledNames() {
+        List<FuzzyMatch> tlaquepaque = zipCodeService.fuzzySearch("Tlaquepake", "municipality", 2, 5);
+        assertEquals("San Pedro Tlaquepaque", tlaquepaque.get(0).getName());
+        assertEquals(2, tlaquepaque.get(0).getDistance());
+
+        List<FuzzyMatch> nezahualcoyotl = zipCodeService.fuzzySearch("Nesahualcoyotl", null, 2, 10);
+        assertEquals("municipality", nezahualcoyotl.get(0).getType());
+        assertEquals(1, nezahualcoyotl.get(0).getDistance());
+        for (int i = 1; i < nezahualcoyotl.size(); i++) {
+            assertTrue(nezahualcoyotl.get(i - 1).getDistance() <= nezahualcoyotl.get(i).getDistance());
+        }
+
+        assertTrue(zipCodeService.fuzzySearch("Juchitan", "municipality", 1, 5).stream()
+                .anyMatch(match -> match.getName().contains("Juchitán")));
+        assertThrows(IllegalArgumentException.class, () -> zipCodeService.fuzzySearch("Juchitan", "colonia", 1, 5));
+        assertThrows(ZipCodeNotFoundException.class, () -> zipCodeService.fuzzySearch("qqqqqqqq", null, 2, 5));
+    }
+
+    @Test
+    @DisplayName("Debe sugerir asentamientos por prefijo ordenados por frecuencia")
+    void shouldAutocompleteSettlementNames() {
+        List<SettlementSuggestion> suggestions = zipCodeService.autocompleteSettlements("San Á", 10);
+
+        assertEquals(10, suggestions.size());
+        for (int i = 0; i < suggestions.size(); i++) {
+            SettlementSuggestion suggestion = suggestions.get(i);
+            assertTrue(Util.normalizeString(suggestion.getName()).startsWith("san a"));
+            assertFalse(suggestion.getZipCodes().isEmpty());
+            if (i > 0) {
+                assertTrue(suggestions.get(i - 1).getSettlementsCount() >= suggestion.getSettlementsCount());
+            }
+        }
+
+        assertTrue(zipCodeService.autocompleteSettlements("san angel", 50).stream()
+                .anyMatch(suggestion -> suggestion.getName().equals("San Ángel")
+                        && suggestion.getZipCodes().contains("01000")));
+        assertThrows(ZipCodeNotFoundException.class, () -> zipCodeService.autocompleteSettlements("zzzz", 10));
+    }
+
     @Test
     @DisplayName("Debe validar paginación inválida en búsqueda avanzada paginada")
     void shouldRejectInvalidAdvancedSearchPagination() {
@@ -308,4 +463,47 @@ class ZipCodeServiceTest {
         assertThrows(IllegalArgumentException.class, () -> zipCodeService.advancedSearch(request, 0, 0));
     }
 
+    @Test
+    @DisplayName("Debe recargar el catálogo publicando una nueva versión sin perder datos")
+    void shouldPublishNewCatalogVersionOnReload() {
+        long version = zipCodeService.getCatalogVersion();
+        int zipCodeCount = zipCodeService.getZipCodeCount();
+        ZipCode before = zipCodeService.getZipCode("01000");
+
+        assertTrue(zipCodeService.reload(), "La recarga debe publicar un nuevo catálogo");
+
+        assertEquals(version + 1, zipCodeService.getCatalogVersion());
+        assertEquals(zipCodeCount, zipCodeService.getZipCodeCount());
+        ZipCode after = zipCodeService.getZipCode("01000");
+        assertEquals(before.getMunicipality(), after.getMunicipality());
+        assertEquals(before.getSettlements(), after.getSettlements());
+    }
+
+    @Test
+    @DisplayName("Debe invalidar los resultados en caché al recargar el catálogo")
+    void shouldInvalidateCachesOnReload() {
+        zipCodeService.searchByFederalEntity("Jalisco");
+        Cache cache = cacheManager.getCache("federalEntitySearch");
+        String key = zipCodeService.getCatalogVersion() + "_jalisco";
+        assertNotNull(cache.get(key), "La búsqueda debe quedar en caché con la versión actual");
+
+        assertTrue(zipCodeService.reload());
+
+        assertNull(cache.get(key));
+        zipCodeService.searchByFederalEntity("Jalisco");
+        assertNotNull(cache.get(zipCodeService.getCatalogVersion() + "_jalisco"),
+                "Tras la recarga la caché debe guardar resultados del catálogo nuevo");
+    }
+
+    @Test
+    @DisplayName("Debe guardar en caché los ordinales de la búsqueda y no la lista de objetos")
+    void shouldCacheOrdinalsInsteadOfZipCodes() {
+        List<ZipCode> first = zipCodeService.searchByMunicipality("Zapopan");
+        Cache cache = cacheManager.getCache("municipalitySearch");
+        Object cached = cache.get(zipCodeService.getCatalogVersion() + "_zapopan").get();
+
+        assertInstanceOf(int[].class, cached);
+        assertEquals(first.size(), ((int[]) cached).length);
+        assertEquals(first, zipCodeService.searchByMunicipality(" zapopán "));
+    }
 }
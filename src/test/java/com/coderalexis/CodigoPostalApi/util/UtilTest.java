@@ -0,0 +1,31 @@
+package com.coderalexis.CodigoPostalApi.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UtilTest {
+
+    @Test
+    @DisplayName("Una entrada gzip explícita debe decidir sobre el comodín, en cualquier orden")
+    void explicitGzipShouldOverrideWildcard() {
+        assertTrue(Util.acceptsGzip("*;q=0, gzip"));
+        assertTrue(Util.acceptsGzip("gzip, *;q=0"));
+        assertFalse(Util.acceptsGzip("gzip;q=0, *"));
+        assertFalse(Util.acceptsGzip("*, gzip;q=0.000"));
+    }
+
+    @Test
+    @DisplayName("q=0 debe rechazar solo la codificación a la que acompaña")
+    void zeroQualityShouldRefuseOnlyItsOwnCoding() {
+        assertTrue(Util.acceptsGzip("br;q=0, gzip"));
+        assertTrue(Util.acceptsGzip("deflate;q=0, *"));
+        assertTrue(Util.acceptsGzip("gzip;q=0.5"));
+        assertTrue(Util.acceptsGzip("GZIP; Q=1"));
+        assertFalse(Util.acceptsGzip("*;q=0"));
+        assertFalse(Util.acceptsGzip("deflate, br"));
+        assertFalse(Util.acceptsGzip(null));
+    }
+}